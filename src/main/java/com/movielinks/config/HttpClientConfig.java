@@ -0,0 +1,63 @@
+package com.movielinks.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Pooled RestTemplates for each outbound traffic class
+ */
+@Configuration
+public class HttpClientConfig {
+    
+    @Bean
+    public HttpClientPools httpClientPools() {
+        return new HttpClientPools();
+    }
+    
+    /**
+     * HEAD probes against candidate movie site URLs
+     */
+    @Bean
+    public RestTemplate probeRestTemplate(
+            HttpClientPools pools,
+            @Value("${http-client.probe.max-connections:64}") int maxConnections,
+            @Value("${http-client.probe.max-per-route:4}") int maxPerRoute,
+            @Value("${http-client.probe.connect-timeout-ms:${movie-search.url-validation-timeout:5000}}") long connectTimeoutMs,
+            @Value("${http-client.probe.read-timeout-ms:${movie-search.url-validation-timeout:5000}}") long readTimeoutMs,
+            @Value("${http-client.probe.overall-timeout-ms:8000}") long overallTimeoutMs) {
+        return pools.createRestTemplate("probe", new HttpClientPools.PoolSettings(
+            maxConnections, maxPerRoute, connectTimeoutMs, readTimeoutMs, overallTimeoutMs));
+    }
+    
+    /**
+     * Browserless /function calls, which legitimately run for tens of seconds
+     */
+    @Bean
+    public RestTemplate browserlessRestTemplate(
+            HttpClientPools pools,
+            @Value("${http-client.browserless.max-connections:16}") int maxConnections,
+            @Value("${http-client.browserless.max-per-route:16}") int maxPerRoute,
+            @Value("${http-client.browserless.connect-timeout-ms:10000}") long connectTimeoutMs,
+            @Value("${http-client.browserless.read-timeout-ms:${browserless.api.timeout:60000}}") long readTimeoutMs,
+            @Value("${http-client.browserless.overall-timeout-ms:90000}") long overallTimeoutMs) {
+        return pools.createRestTemplate("browserless", new HttpClientPools.PoolSettings(
+            maxConnections, maxPerRoute, connectTimeoutMs, readTimeoutMs, overallTimeoutMs));
+    }
+    
+    /**
+     * Notification webhooks (Telegram, Slack, Discord, n8n)
+     */
+    @Bean
+    public RestTemplate notificationRestTemplate(
+            HttpClientPools pools,
+            @Value("${http-client.notification.max-connections:16}") int maxConnections,
+            @Value("${http-client.notification.max-per-route:4}") int maxPerRoute,
+            @Value("${http-client.notification.connect-timeout-ms:5000}") long connectTimeoutMs,
+            @Value("${http-client.notification.read-timeout-ms:10000}") long readTimeoutMs,
+            @Value("${http-client.notification.overall-timeout-ms:15000}") long overallTimeoutMs) {
+        return pools.createRestTemplate("notification", new HttpClientPools.PoolSettings(
+            maxConnections, maxPerRoute, connectTimeoutMs, readTimeoutMs, overallTimeoutMs));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,259 @@
+package com.movielinks.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.apache.hc.client5.http.classic.methods.HttpUriRequestBase;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Named connection pools backing the outbound RestTemplates. Each traffic class
+ * gets its own pool so a burst of probes cannot starve Browserless or webhook calls.
+ */
+public class HttpClientPools implements MeterBinder {
+    
+    private final Map<String, PoolingHttpClientConnectionManager> managers = new ConcurrentHashMap<>();
+    private final Map<String, CloseableHttpClient> clients = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService deadlineScheduler;
+    private volatile MeterRegistry meterRegistry;
+    
+    public HttpClientPools() {
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "http-deadline");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.setRemoveOnCancelPolicy(true);
+        this.deadlineScheduler = scheduler;
+    }
+    
+    /**
+     * Create a RestTemplate backed by a new named connection pool
+     */
+    public RestTemplate createRestTemplate(String poolName, PoolSettings settings) {
+        PoolingHttpClientConnectionManager manager = PoolingHttpClientConnectionManagerBuilder.create()
+            .setMaxConnTotal(settings.maxConnections())
+            .setMaxConnPerRoute(settings.maxConnectionsPerRoute())
+            .setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.ofMilliseconds(settings.connectTimeoutMs()))
+                .setSocketTimeout(Timeout.ofMilliseconds(settings.readTimeoutMs()))
+                .setTimeToLive(TimeValue.ofMinutes(5))
+                .build())
+            .build();
+        
+        CloseableHttpClient httpClient = HttpClients.custom()
+            .setConnectionManager(manager)
+            .setDefaultRequestConfig(RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(settings.connectTimeoutMs()))
+                .setResponseTimeout(Timeout.ofMilliseconds(settings.readTimeoutMs()))
+                .build())
+            .evictExpiredConnections()
+            .evictIdleConnections(TimeValue.ofSeconds(30))
+            .build();
+        
+        managers.put(poolName, manager);
+        clients.put(poolName, httpClient);
+        if (meterRegistry != null) {
+            registerGauges(meterRegistry, poolName, manager);
+        }
+        
+        return new RestTemplate(new DeadlineRequestFactory(httpClient, deadlineScheduler, settings.overallTimeoutMs()));
+    }
+    
+    /**
+     * Current lease statistics for every pool
+     */
+    public Map<String, Map<String, Object>> getPoolStatistics() {
+        Map<String, Map<String, Object>> statistics = new LinkedHashMap<>();
+        managers.forEach((name, manager) -> {
+            PoolStats stats = manager.getTotalStats();
+            Map<String, Object> poolStats = new LinkedHashMap<>();
+            poolStats.put("leased", stats.getLeased());
+            poolStats.put("pending", stats.getPending());
+            poolStats.put("available", stats.getAvailable());
+            poolStats.put("max", stats.getMax());
+            poolStats.put("saturation", stats.getMax() == 0 ? 0.0 : (double) stats.getLeased() / stats.getMax());
+            statistics.put(name, poolStats);
+        });
+        return statistics;
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.meterRegistry = registry;
+        managers.forEach((name, manager) -> registerGauges(registry, name, manager));
+    }
+    
+    private void registerGauges(MeterRegistry registry, String poolName, PoolingHttpClientConnectionManager manager) {
+        registerGauge(registry, "http.client.pool.leased", poolName, manager, PoolStats::getLeased);
+        registerGauge(registry, "http.client.pool.pending", poolName, manager, PoolStats::getPending);
+        registerGauge(registry, "http.client.pool.available", poolName, manager, PoolStats::getAvailable);
+        registerGauge(registry, "http.client.pool.max", poolName, manager, PoolStats::getMax);
+    }
+    
+    private void registerGauge(MeterRegistry registry, String metric, String poolName,
+                               PoolingHttpClientConnectionManager manager, ToDoubleFunction<PoolStats> value) {
+        Gauge.builder(metric, manager, m -> value.applyAsDouble(m.getTotalStats()))
+            .tag("pool", poolName)
+            .register(registry);
+    }
+    
+    @PreDestroy
+    public void close() {
+        deadlineScheduler.shutdownNow();
+        clients.values().forEach(client -> {
+            try {
+                client.close();
+            } catch (Exception ignored) {
+                // shutting down
+            }
+        });
+    }
+    
+    /**
+     * Connection pool limits and timeouts for one traffic class
+     */
+    public record PoolSettings(int maxConnections, int maxConnectionsPerRoute,
+                               long connectTimeoutMs, long readTimeoutMs, long overallTimeoutMs) {
+    }
+    
+    /**
+     * Aborts any request that is still running once its overall deadline passes,
+     * covering slow-drip responses that never trip the socket read timeout. The deadline
+     * is cancelled as soon as the response is closed (or the request fails), so finished
+     * requests are not kept around by the scheduler.
+     */
+    private static class DeadlineRequestFactory extends HttpComponentsClientHttpRequestFactory {
+        
+        // Hands the deadline armed in postProcessHttpRequest back to createRequest on the same thread
+        private final ThreadLocal<ScheduledFuture<?>> armedDeadline = new ThreadLocal<>();
+        
+        private final ScheduledExecutorService scheduler;
+        private final long overallTimeoutMs;
+        
+        DeadlineRequestFactory(CloseableHttpClient httpClient, ScheduledExecutorService scheduler, long overallTimeoutMs) {
+            super(httpClient);
+            this.scheduler = scheduler;
+            this.overallTimeoutMs = overallTimeoutMs;
+        }
+        
+        @Override
+        public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+            try {
+                ClientHttpRequest request = super.createRequest(uri, httpMethod);
+                ScheduledFuture<?> deadline = armedDeadline.get();
+                return deadline != null ? new DeadlineRequest(request, deadline) : request;
+            } catch (IOException | RuntimeException e) {
+                ScheduledFuture<?> deadline = armedDeadline.get();
+                if (deadline != null) {
+                    deadline.cancel(false);
+                }
+                throw e;
+            } finally {
+                armedDeadline.remove();
+            }
+        }
+        
+        @Override
+        protected void postProcessHttpRequest(ClassicHttpRequest request) {
+            if (overallTimeoutMs > 0 && request instanceof HttpUriRequestBase cancellable) {
+                armedDeadline.set(scheduler.schedule(cancellable::cancel, overallTimeoutMs, TimeUnit.MILLISECONDS));
+            }
+        }
+    }
+    
+    /**
+     * Request whose deadline is cancelled when its response is closed
+     */
+    private record DeadlineRequest(ClientHttpRequest delegate, ScheduledFuture<?> deadline) implements ClientHttpRequest {
+        
+        @Override
+        public ClientHttpResponse execute() throws IOException {
+            try {
+                return new DeadlineResponse(delegate.execute(), deadline);
+            } catch (IOException | RuntimeException e) {
+                deadline.cancel(false);
+                throw e;
+            }
+        }
+        
+        @Override
+        public OutputStream getBody() throws IOException {
+            return delegate.getBody();
+        }
+        
+        @Override
+        public HttpMethod getMethod() {
+            return delegate.getMethod();
+        }
+        
+        @Override
+        public URI getURI() {
+            return delegate.getURI();
+        }
+        
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+    }
+    
+    private record DeadlineResponse(ClientHttpResponse delegate, ScheduledFuture<?> deadline) implements ClientHttpResponse {
+        
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+        
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+        
+        @Override
+        public InputStream getBody() throws IOException {
+            return delegate.getBody();
+        }
+        
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+        
+        @Override
+        public void close() {
+            deadline.cancel(false);
+            delegate.close();
+        }
+    }
+}
\ No newline at end of file
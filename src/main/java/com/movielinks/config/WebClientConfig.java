@@ -0,0 +1,72 @@
+package com.movielinks.config;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/**
+ * Non-blocking WebClients for the reactive search pipeline, configured from the same
+ * http-client.* settings as the blocking RestTemplates. Reactor Netty keeps one pool per
+ * remote host, so max-per-route sizes those pools; there is no cap across hosts, so
+ * max-connections only applies to the RestTemplates. The overall deadline bounds the
+ * time until the response arrives; bodies are bounded by the read timeout and by how
+ * much each caller reads.
+ */
+@Configuration
+public class WebClientConfig {
+    
+    /**
+     * HEAD probes against candidate movie site URLs
+     */
+    @Bean
+    public WebClient probeWebClient(
+            WebClient.Builder builder,
+            @Value("${http-client.probe.max-per-route:4}") int maxPerRoute,
+            @Value("${http-client.probe.connect-timeout-ms:${movie-search.url-validation-timeout:5000}}") int connectTimeoutMs,
+            @Value("${http-client.probe.read-timeout-ms:${movie-search.url-validation-timeout:5000}}") long readTimeoutMs,
+            @Value("${http-client.probe.overall-timeout-ms:8000}") long overallTimeoutMs) {
+        return buildWebClient(builder, "probe-reactive", maxPerRoute, connectTimeoutMs, readTimeoutMs, overallTimeoutMs);
+    }
+    
+    /**
+     * Browserless /function calls
+     */
+    @Bean
+    public WebClient browserlessWebClient(
+            WebClient.Builder builder,
+            @Value("${http-client.browserless.max-per-route:16}") int maxPerRoute,
+            @Value("${http-client.browserless.connect-timeout-ms:10000}") int connectTimeoutMs,
+            @Value("${http-client.browserless.read-timeout-ms:${browserless.api.timeout:60000}}") long readTimeoutMs,
+            @Value("${http-client.browserless.overall-timeout-ms:90000}") long overallTimeoutMs) {
+        return buildWebClient(builder, "browserless-reactive", maxPerRoute, connectTimeoutMs, readTimeoutMs, overallTimeoutMs);
+    }
+    
+    private WebClient buildWebClient(WebClient.Builder builder, String poolName, int maxPerRoute,
+                                     int connectTimeoutMs, long readTimeoutMs, long overallTimeoutMs) {
+        ConnectionProvider provider = ConnectionProvider.builder(poolName)
+            .maxConnections(maxPerRoute)
+            .pendingAcquireTimeout(Duration.ofMillis(connectTimeoutMs))
+            .maxIdleTime(Duration.ofSeconds(30))
+            .build();
+            
+        HttpClient httpClient = HttpClient.create(provider)
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+            .responseTimeout(Duration.ofMillis(readTimeoutMs))
+            .followRedirect(true);
+            
+        WebClient.Builder configured = builder.clone()
+            .clientConnector(new ReactorClientHttpConnector(httpClient));
+        if (overallTimeoutMs > 0) {
+            Duration deadline = Duration.ofMillis(overallTimeoutMs);
+            configured.filter((request, next) -> next.exchange(request).timeout(deadline));
+        }
+        return configured.build();
+    }
+}
\ No newline at end of file
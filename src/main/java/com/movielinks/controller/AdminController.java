@@ -1,10 +1,21 @@
 package com.movielinks.controller;
 
+import com.movielinks.config.HttpClientPools;
 import com.movielinks.model.MovieSite;
 import com.movielinks.repository.MovieSiteRepository;
+import com.movielinks.service.CheckHistoryService;
+import com.movielinks.service.ContentVerifier;
+import com.movielinks.service.DependencyGuard;
+import com.movielinks.service.DnsResolver;
+import com.movielinks.service.HedgePolicy;
+import com.movielinks.service.HostHistory;
+import com.movielinks.service.LeaseManager;
 import com.movielinks.service.MonitoringService;
 import com.movielinks.service.MovieSiteSearchService;
 import com.movielinks.service.NotificationService;
+import com.movielinks.service.ProbeFailureCache;
+import com.movielinks.service.SearchResultCache;
+import com.movielinks.service.SiteCheckScheduler;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -34,6 +45,39 @@ public class AdminController {
     @Autowired
     private NotificationService notificationService;
     
+    @Autowired
+    private HttpClientPools httpClientPools;
+    
+    @Autowired
+    private SearchResultCache searchResultCache;
+    
+    @Autowired
+    private DnsResolver dnsResolver;
+    
+    @Autowired
+    private ProbeFailureCache probeFailureCache;
+    
+    @Autowired
+    private HostHistory hostHistory;
+    
+    @Autowired
+    private DependencyGuard dependencyGuard;
+    
+    @Autowired
+    private HedgePolicy hedgePolicy;
+    
+    @Autowired
+    private ContentVerifier contentVerifier;
+    
+    @Autowired
+    private SiteCheckScheduler siteCheckScheduler;
+    
+    @Autowired
+    private LeaseManager leaseManager;
+    
+    @Autowired
+    private CheckHistoryService checkHistoryService;
+    
     /**
      * Get admin dashboard overview
      */
@@ -282,6 +326,7 @@ public class AdminController {
             Map<String, Object> response = new HashMap<>();
             response.put("healthStatus", healthStatus);
             response.put("statistics", statistics);
+            response.put("healthCheck", monitoringService.getHealthCheckStatistics());
             response.put("timestamp", LocalDateTime.now());
             
             return ResponseEntity.ok(response);
@@ -292,12 +337,188 @@ public class AdminController {
         }
     }
     
+    /**
+     * Get outbound HTTP connection pool statistics
+     */
+    @GetMapping("/monitoring/http-pools")
+    public ResponseEntity<Map<String, Object>> getHttpPoolStats() {
+        try {
+            Map<String, Object> response = new HashMap<>();
+            response.put("pools", httpClientPools.getPoolStatistics());
+            response.put("timestamp", LocalDateTime.now());
+            
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            logger.error("Error getting HTTP pool stats: {}", e.getMessage());
+            return ResponseEntity.status(500).body(Map.of("error", "Failed to load HTTP pool stats"));
+        }
+    }
+    
+    /**
+     * Get search result cache statistics
+     */
+    @GetMapping("/monitoring/search-cache")
+    public ResponseEntity<Map<String, Object>> getSearchCacheStats() {
+        try {
+            Map<String, Object> response = new HashMap<>();
+            response.put("cache", searchResultCache.getStatistics());
+            response.put("timestamp", LocalDateTime.now());
+            
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            logger.error("Error getting search cache stats: {}", e.getMessage());
+            return ResponseEntity.status(500).body(Map.of("error", "Failed to load search cache stats"));
+        }
+    }
+    
+    /**
+     * Get DNS cache statistics
+     */
+    @GetMapping("/monitoring/dns-cache")
+    public ResponseEntity<Map<String, Object>> getDnsCacheStats() {
+        try {
+            Map<String, Object> response = new HashMap<>();
+            response.put("dns", dnsResolver.getStatistics());
+            response.put("timestamp", LocalDateTime.now());
+            
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            logger.error("Error getting DNS cache stats: {}", e.getMessage());
+            return ResponseEntity.status(500).body(Map.of("error", "Failed to load DNS cache stats"));
+        }
+    }
+    
+    /**
+     * Get candidate URLs that are backing off after failed validation, and how often
+     * content checks fell back from HEAD or rejected a page
+     */
+    @GetMapping("/monitoring/failure-cache")
+    public ResponseEntity<Map<String, Object>> getFailureCacheStats() {
+        try {
+            Map<String, Object> response = new HashMap<>();
+            response.put("cache", probeFailureCache.getStatistics());
+            response.put("backingOff", probeFailureCache.getActiveEntries());
+            response.put("contentCheck", contentVerifier.getStatistics());
+            response.put("timestamp", LocalDateTime.now());
+            
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            logger.error("Error getting failure cache stats: {}", e.getMessage());
+            return ResponseEntity.status(500).body(Map.of("error", "Failed to load failure cache stats"));
+        }
+    }
+    
+    /**
+     * Get circuit breaker states and retry budgets per outbound dependency
+     */
+    @GetMapping("/monitoring/circuit-breakers")
+    public ResponseEntity<Map<String, Object>> getCircuitBreakerStats() {
+        try {
+            Map<String, Object> response = new HashMap<>();
+            response.put("dependencies", dependencyGuard.getStatistics());
+            response.put("timestamp", LocalDateTime.now());
+            
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            logger.error("Error getting circuit breaker stats: {}", e.getMessage());
+            return ResponseEntity.status(500).body(Map.of("error", "Failed to load circuit breaker stats"));
+        }
+    }
+    
+    /**
+     * Get probe latency percentiles per host, fastest first
+     */
+    @GetMapping("/monitoring/latency")
+    public ResponseEntity<Map<String, Object>> getLatencyStats() {
+        try {
+            Map<String, Object> response = new HashMap<>();
+            response.put("hosts", hostHistory.getLatencySummaries());
+            response.put("hedging", hedgePolicy.getStatistics());
+            response.put("timestamp", LocalDateTime.now());
+            
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            logger.error("Error getting latency stats: {}", e.getMessage());
+            return ResponseEntity.status(500).body(Map.of("error", "Failed to load latency stats"));
+        }
+    }
+    
+    /**
+     * Get the adaptive check schedule, next due site first
+     */
+    @GetMapping("/monitoring/schedule")
+    public ResponseEntity<Map<String, Object>> getCheckSchedule() {
+        try {
+            Map<String, Object> response = new HashMap<>();
+            response.put("schedule", siteCheckScheduler.getStatistics());
+            response.put("timestamp", LocalDateTime.now());
+            
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            logger.error("Error getting check schedule: {}", e.getMessage());
+            return ResponseEntity.status(500).body(Map.of("error", "Failed to load check schedule"));
+        }
+    }
+    
+    /**
+     * Get this instance's cluster role and the leases currently held across instances
+     */
+    @GetMapping("/monitoring/cluster")
+    public ResponseEntity<Map<String, Object>> getClusterStatus() {
+        try {
+            Map<String, Object> response = new HashMap<>();
+            response.put("cluster", leaseManager.getStatistics());
+            response.put("timestamp", LocalDateTime.now());
+            
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            logger.error("Error getting cluster status: {}", e.getMessage());
+            return ResponseEntity.status(500).body(Map.of("error", "Failed to load cluster status"));
+        }
+    }
+    
+    /**
+     * Get a site's uptime and latency over 24h, 7d and 30d with its most recent checks
+     */
+    @GetMapping("/monitoring/history/{siteName}")
+    public ResponseEntity<Map<String, Object>> getCheckHistory(@PathVariable String siteName) {
+        try {
+            Map<String, Object> response = new HashMap<>();
+            response.put("siteName", siteName);
+            response.put("availability", checkHistoryService.getAvailability(siteName));
+            response.put("recentChecks", checkHistoryService.getRecentResults(siteName));
+            response.put("history", checkHistoryService.getStatistics());
+            response.put("timestamp", LocalDateTime.now());
+            
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            logger.error("Error getting check history for {}: {}", siteName, e.getMessage());
+            return ResponseEntity.status(500).body(Map.of("error", "Failed to load check history"));
+        }
+    }
+    
     /**
      * Trigger manual health check
      */
     @PostMapping("/monitoring/health-check")
     public ResponseEntity<Map<String, Object>> triggerHealthCheck() {
         try {
+            if (monitoringService.isHealthCheckRunning()) {
+                return ResponseEntity.status(409).body(Map.of(
+                    "success", false,
+                    "message", "A health check is already running"
+                ));
+            }
+            
             // Run health check in background
             new Thread(() -> {
                 try {
@@ -2,11 +2,13 @@ package com.movielinks.controller;
 
 import com.movielinks.model.MovieSite;
 import com.movielinks.service.MovieSiteSearchService;
+import com.movielinks.service.ReactiveMovieSiteSearchService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -23,6 +25,9 @@ public class MovieSiteController {
     @Autowired
     private MovieSiteSearchService movieSiteSearchService;
     
+    @Autowired
+    private ReactiveMovieSiteSearchService reactiveSearchService;
+    
     /**
      * Health check endpoint
      */
@@ -105,6 +110,52 @@ public class MovieSiteController {
         }
     }
     
+    /**
+     * Search for a single movie site using the non-blocking pipeline
+     */
+    @GetMapping("/reactive/search/{siteName}")
+    public Mono<ResponseEntity<Map<String, Object>>> searchSiteReactive(@PathVariable String siteName) {
+        logger.info("Received reactive request to search for site: {}", siteName);
+        
+        return reactiveSearchService.findWorkingLink(siteName)
+            .map(result -> {
+                Map<String, Object> response = new HashMap<>();
+                response.put("success", true);
+                response.put("siteName", siteName);
+                response.put("result", result);
+                response.put("timestamp", LocalDateTime.now());
+                return ResponseEntity.ok(response);
+            });
+    }
+    
+    /**
+     * Search for multiple movie sites using the non-blocking pipeline
+     */
+    @PostMapping("/reactive/search/batch")
+    public Mono<ResponseEntity<Map<String, Object>>> searchMultipleSitesReactive(@RequestBody Map<String, List<String>> request) {
+        List<String> siteNames = request.get("siteNames");
+        
+        if (siteNames == null || siteNames.isEmpty()) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("error", "siteNames array is required");
+            return Mono.just(ResponseEntity.badRequest().body(response));
+        }
+        
+        logger.info("Received reactive batch request for {} sites: {}", siteNames.size(), siteNames);
+        
+        return reactiveSearchService.findWorkingLinks(siteNames)
+            .collectList()
+            .map(results -> {
+                Map<String, Object> response = new HashMap<>();
+                response.put("success", true);
+                response.put("totalSites", siteNames.size());
+                response.put("results", results);
+                response.put("timestamp", LocalDateTime.now());
+                return ResponseEntity.ok(response);
+            });
+    }
+    
     /**
      * Search for Movierulz specifically
      */
@@ -0,0 +1,119 @@
+package com.movielinks.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * One monitoring check of one site. Rows are only ever inserted, then rolled up into
+ * {@link CheckRollup} buckets and deleted once they are old.
+ */
+@Entity
+@Table(name = "check_results", indexes = {
+    @Index(name = "idx_check_results_checked_at", columnList = "checkedAt"),
+    @Index(name = "idx_check_results_site", columnList = "siteName, checkedAt")
+})
+public class CheckResult {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false)
+    private String siteName;
+    
+    @Column
+    private String url; // the working URL, null if none was found
+    
+    @Column(nullable = false)
+    private String status; // WORKING, NOT_FOUND, ERROR
+    
+    @Column
+    private String tier; // LIVENESS or REDISCOVERY
+    
+    @Column
+    private Integer latencyMs;
+    
+    @Column
+    private Long coveredSeconds; // time until the site's next check, which this result stands for
+    
+    @Column(nullable = false)
+    private LocalDateTime checkedAt;
+    
+    // Constructors
+    public CheckResult() {}
+    
+    public CheckResult(String siteName, String url, String status, String tier, Integer latencyMs, Long coveredSeconds) {
+        this.siteName = siteName;
+        this.url = url;
+        this.status = status;
+        this.tier = tier;
+        this.latencyMs = latencyMs;
+        this.coveredSeconds = coveredSeconds;
+        this.checkedAt = LocalDateTime.now();
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getSiteName() {
+        return siteName;
+    }
+    
+    public void setSiteName(String siteName) {
+        this.siteName = siteName;
+    }
+    
+    public String getUrl() {
+        return url;
+    }
+    
+    public void setUrl(String url) {
+        this.url = url;
+    }
+    
+    public String getStatus() {
+        return status;
+    }
+    
+    public void setStatus(String status) {
+        this.status = status;
+    }
+    
+    public String getTier() {
+        return tier;
+    }
+    
+    public void setTier(String tier) {
+        this.tier = tier;
+    }
+    
+    public Integer getLatencyMs() {
+        return latencyMs;
+    }
+    
+    public void setLatencyMs(Integer latencyMs) {
+        this.latencyMs = latencyMs;
+    }
+    
+    public Long getCoveredSeconds() {
+        return coveredSeconds;
+    }
+    
+    public void setCoveredSeconds(Long coveredSeconds) {
+        this.coveredSeconds = coveredSeconds;
+    }
+    
+    public LocalDateTime getCheckedAt() {
+        return checkedAt;
+    }
+    
+    public void setCheckedAt(LocalDateTime checkedAt) {
+        this.checkedAt = checkedAt;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,142 @@
+package com.movielinks.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Check results of one site aggregated over an hour or a day. Latencies are kept as
+ * the non-empty buckets of a latency histogram, so rollups can be merged and still
+ * give percentiles.
+ */
+@Entity
+@Table(name = "check_rollups",
+    uniqueConstraints = @UniqueConstraint(columnNames = {"granularity", "bucketStart", "siteName"}),
+    indexes = @Index(name = "idx_check_rollups_site", columnList = "siteName, granularity, bucketStart"))
+public class CheckRollup {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false)
+    private String siteName;
+    
+    @Column(nullable = false, length = 10)
+    private String granularity; // HOUR or DAY
+    
+    @Column(nullable = false)
+    private LocalDateTime bucketStart;
+    
+    @Column(nullable = false)
+    private Long checks;
+    
+    @Column(nullable = false)
+    private Long workingChecks;
+    
+    @Column
+    private Long coveredSeconds; // sum of the results' time until their site's next check
+    
+    @Column
+    private Long workingSeconds; // the part of coveredSeconds the site was working
+    
+    @Column(nullable = false)
+    private Long latencySumMs;
+    
+    @Column(nullable = false)
+    private Long latencyMaxMs;
+    
+    @Column(length = 8000)
+    private String latencyBuckets; // LatencyHistogram.encodeBuckets()
+    
+    // Constructors
+    public CheckRollup() {}
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getSiteName() {
+        return siteName;
+    }
+    
+    public void setSiteName(String siteName) {
+        this.siteName = siteName;
+    }
+    
+    public String getGranularity() {
+        return granularity;
+    }
+    
+    public void setGranularity(String granularity) {
+        this.granularity = granularity;
+    }
+    
+    public LocalDateTime getBucketStart() {
+        return bucketStart;
+    }
+    
+    public void setBucketStart(LocalDateTime bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+    
+    public Long getChecks() {
+        return checks;
+    }
+    
+    public void setChecks(Long checks) {
+        this.checks = checks;
+    }
+    
+    public Long getWorkingChecks() {
+        return workingChecks;
+    }
+    
+    public void setWorkingChecks(Long workingChecks) {
+        this.workingChecks = workingChecks;
+    }
+    
+    public Long getCoveredSeconds() {
+        return coveredSeconds;
+    }
+    
+    public void setCoveredSeconds(Long coveredSeconds) {
+        this.coveredSeconds = coveredSeconds;
+    }
+    
+    public Long getWorkingSeconds() {
+        return workingSeconds;
+    }
+    
+    public void setWorkingSeconds(Long workingSeconds) {
+        this.workingSeconds = workingSeconds;
+    }
+    
+    public Long getLatencySumMs() {
+        return latencySumMs;
+    }
+    
+    public void setLatencySumMs(Long latencySumMs) {
+        this.latencySumMs = latencySumMs;
+    }
+    
+    public Long getLatencyMaxMs() {
+        return latencyMaxMs;
+    }
+    
+    public void setLatencyMaxMs(Long latencyMaxMs) {
+        this.latencyMaxMs = latencyMaxMs;
+    }
+    
+    public String getLatencyBuckets() {
+        return latencyBuckets;
+    }
+    
+    public void setLatencyBuckets(String latencyBuckets) {
+        this.latencyBuckets = latencyBuckets;
+    }
+}
\ No newline at end of file
@@ -38,6 +38,30 @@ public class MovieSite {
     @Column
     private Integer responseTime; // in milliseconds
     
+    @Column
+    private Integer responseTimeP50; // in milliseconds
+    
+    @Column
+    private Integer responseTimeP95; // in milliseconds
+    
+    @Column
+    private Integer responseTimeP99; // in milliseconds
+    
+    @Column
+    private String contentTitle; // normalized <title> of the working page
+    
+    @Column
+    private Long contentSimhash; // simhash of the start of the working page
+    
+    @Column
+    private LocalDateTime domainSince; // when the current working domain was first seen
+    
+    @Column
+    private Double domainLifetimeMinutes; // moving average of how long a domain lasts
+    
+    @Column
+    private LocalDateTime nextCheckAt;
+    
     @Column(length = 1000)
     private String notes;
     
@@ -127,6 +151,70 @@ public class MovieSite {
         this.responseTime = responseTime;
     }
     
+    public Integer getResponseTimeP50() {
+        return responseTimeP50;
+    }
+    
+    public void setResponseTimeP50(Integer responseTimeP50) {
+        this.responseTimeP50 = responseTimeP50;
+    }
+    
+    public Integer getResponseTimeP95() {
+        return responseTimeP95;
+    }
+    
+    public void setResponseTimeP95(Integer responseTimeP95) {
+        this.responseTimeP95 = responseTimeP95;
+    }
+    
+    public Integer getResponseTimeP99() {
+        return responseTimeP99;
+    }
+    
+    public void setResponseTimeP99(Integer responseTimeP99) {
+        this.responseTimeP99 = responseTimeP99;
+    }
+    
+    public String getContentTitle() {
+        return contentTitle;
+    }
+    
+    public void setContentTitle(String contentTitle) {
+        this.contentTitle = contentTitle;
+    }
+    
+    public Long getContentSimhash() {
+        return contentSimhash;
+    }
+    
+    public void setContentSimhash(Long contentSimhash) {
+        this.contentSimhash = contentSimhash;
+    }
+    
+    public LocalDateTime getDomainSince() {
+        return domainSince;
+    }
+    
+    public void setDomainSince(LocalDateTime domainSince) {
+        this.domainSince = domainSince;
+    }
+    
+    public Double getDomainLifetimeMinutes() {
+        return domainLifetimeMinutes;
+    }
+    
+    public void setDomainLifetimeMinutes(Double domainLifetimeMinutes) {
+        this.domainLifetimeMinutes = domainLifetimeMinutes;
+    }
+    
+    public LocalDateTime getNextCheckAt() {
+        return nextCheckAt;
+    }
+    
+    public void setNextCheckAt(LocalDateTime nextCheckAt) {
+        this.nextCheckAt = nextCheckAt;
+    }
+    
     public String getNotes() {
         return notes;
     }
@@ -0,0 +1,62 @@
+package com.movielinks.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A named, expiring claim held by one instance: the scheduler leader lease or the lease
+ * on one site's check. A lease past its expiry is free for any instance to take.
+ */
+@Entity
+@Table(name = "scheduler_leases")
+public class SchedulerLease {
+    
+    @Id
+    @Column(nullable = false, length = 100)
+    private String name; // "leader" or "site:<site name>"
+    
+    @Column(nullable = false)
+    private String holder; // node id of the instance holding the lease
+    
+    @Column(nullable = false)
+    private LocalDateTime acquiredAt;
+    
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+    
+    // Constructors
+    public SchedulerLease() {}
+    
+    // Getters and Setters
+    public String getName() {
+        return name;
+    }
+    
+    public void setName(String name) {
+        this.name = name;
+    }
+    
+    public String getHolder() {
+        return holder;
+    }
+    
+    public void setHolder(String holder) {
+        this.holder = holder;
+    }
+    
+    public LocalDateTime getAcquiredAt() {
+        return acquiredAt;
+    }
+    
+    public void setAcquiredAt(LocalDateTime acquiredAt) {
+        this.acquiredAt = acquiredAt;
+    }
+    
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+    
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,43 @@
+package com.movielinks.repository;
+
+import com.movielinks.model.CheckResult;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CheckResultRepository extends JpaRepository<CheckResult, Long> {
+    
+    /**
+     * Results checked in [from, until)
+     */
+    List<CheckResult> findByCheckedAtGreaterThanEqualAndCheckedAtLessThan(LocalDateTime from, LocalDateTime until);
+    
+    /**
+     * Results of one site checked in [from, until)
+     */
+    List<CheckResult> findBySiteNameIgnoreCaseAndCheckedAtGreaterThanEqualAndCheckedAtLessThan(
+        String siteName, LocalDateTime from, LocalDateTime until);
+        
+    /**
+     * Oldest result still stored
+     */
+    Optional<CheckResult> findFirstByOrderByCheckedAtAsc();
+    
+    /**
+     * Most recent results, newest first
+     */
+    List<CheckResult> findTop50BySiteNameIgnoreCaseOrderByCheckedAtDesc(String siteName);
+    
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM CheckResult r WHERE r.checkedAt < :before")
+    int deleteCheckedBefore(@Param("before") LocalDateTime before);
+}
\ No newline at end of file
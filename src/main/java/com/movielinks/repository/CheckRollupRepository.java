@@ -0,0 +1,49 @@
+package com.movielinks.repository;
+
+import com.movielinks.model.CheckRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CheckRollupRepository extends JpaRepository<CheckRollup, Long> {
+    
+    /**
+     * Rollups of every site whose bucket starts in [from, until)
+     */
+    List<CheckRollup> findByGranularityAndBucketStartGreaterThanEqualAndBucketStartLessThan(
+        String granularity, LocalDateTime from, LocalDateTime until);
+        
+    /**
+     * Rollups of one site whose bucket starts in [from, until)
+     */
+    List<CheckRollup> findBySiteNameIgnoreCaseAndGranularityAndBucketStartGreaterThanEqualAndBucketStartLessThan(
+        String siteName, String granularity, LocalDateTime from, LocalDateTime until);
+        
+    /**
+     * Latest bucket rolled up at this granularity
+     */
+    Optional<CheckRollup> findFirstByGranularityOrderByBucketStartDesc(String granularity);
+    
+    /**
+     * Earliest bucket still stored at this granularity
+     */
+    Optional<CheckRollup> findFirstByGranularityOrderByBucketStartAsc(String granularity);
+    
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM CheckRollup r WHERE r.granularity = :granularity AND r.bucketStart = :bucketStart")
+    int deleteBucket(@Param("granularity") String granularity, @Param("bucketStart") LocalDateTime bucketStart);
+    
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM CheckRollup r WHERE r.granularity = :granularity AND r.bucketStart < :before")
+    int deleteBucketsBefore(@Param("granularity") String granularity, @Param("before") LocalDateTime before);
+}
\ No newline at end of file
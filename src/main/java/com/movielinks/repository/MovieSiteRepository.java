@@ -2,9 +2,11 @@ package com.movielinks.repository;
 
 import com.movielinks.model.MovieSite;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -57,4 +59,21 @@ public interface MovieSiteRepository extends JpaRepository<MovieSite, Long> {
      */
     @Query("SELECT ms FROM MovieSite ms WHERE ms.lastUpdated >= :since ORDER BY ms.lastUpdated DESC")
     List<MovieSite> findRecentlyUpdated(@Param("since") LocalDateTime since);
+    
+    /**
+     * Record a passed liveness check: only the check time, response times and next
+     * check time change, the rest of the row is left as it is
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE MovieSite ms SET ms.lastChecked = :checkedAt, ms.responseTime = :responseTime, "
+        + "ms.responseTimeP50 = :p50, ms.responseTimeP95 = :p95, ms.responseTimeP99 = :p99, "
+        + "ms.nextCheckAt = :nextCheckAt WHERE ms.id = :id")
+    int updateLiveness(@Param("id") Long id,
+                       @Param("checkedAt") LocalDateTime checkedAt,
+                       @Param("responseTime") Integer responseTime,
+                       @Param("p50") Integer p50,
+                       @Param("p95") Integer p95,
+                       @Param("p99") Integer p99,
+                       @Param("nextCheckAt") LocalDateTime nextCheckAt);
 }
\ No newline at end of file
@@ -0,0 +1,73 @@
+package com.movielinks.repository;
+
+import com.movielinks.model.SchedulerLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface SchedulerLeaseRepository extends JpaRepository<SchedulerLease, String> {
+    
+    /**
+     * Take over an existing lease if it has expired or is already held by this holder.
+     * Returns 1 if the lease is now held for ttlSeconds, 0 if someone else holds it. Expiry
+     * is compared and set on the database clock, so instances need not agree on the time.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE SchedulerLease l SET l.holder = :holder, "
+        + "l.acquiredAt = CASE WHEN l.holder = :holder AND l.expiresAt >= CURRENT_TIMESTAMP THEN l.acquiredAt ELSE CURRENT_TIMESTAMP END, "
+        + "l.expiresAt = CURRENT_TIMESTAMP + :ttlSeconds SECOND "
+        + "WHERE l.name = :name AND (l.holder = :holder OR l.expiresAt < CURRENT_TIMESTAMP)")
+    int takeOver(@Param("name") String name,
+                 @Param("holder") String holder,
+                 @Param("ttlSeconds") long ttlSeconds);
+                 
+    /**
+     * Create a lease that does not exist yet; fails with a duplicate key if another
+     * holder created it first
+     */
+    @Modifying
+    @Transactional
+    @Query("INSERT INTO SchedulerLease (name, holder, acquiredAt, expiresAt) "
+        + "VALUES (:name, :holder, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP + :ttlSeconds SECOND)")
+    int create(@Param("name") String name,
+               @Param("holder") String holder,
+               @Param("ttlSeconds") long ttlSeconds);
+               
+    /**
+     * Hold a lease this holder still holds for ttlSeconds from now
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE SchedulerLease l SET l.expiresAt = CURRENT_TIMESTAMP + :ttlSeconds SECOND "
+        + "WHERE l.name = :name AND l.holder = :holder")
+    int extend(@Param("name") String name,
+               @Param("holder") String holder,
+               @Param("ttlSeconds") long ttlSeconds);
+               
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM SchedulerLease l WHERE l.name = :name AND l.holder = :holder")
+    int release(@Param("name") String name, @Param("holder") String holder);
+    
+    /**
+     * Seconds until the lease expires on the database clock; empty if there is no such
+     * lease or it has expired
+     */
+    @Query("SELECT (l.expiresAt - CURRENT_TIMESTAMP) BY SECOND FROM SchedulerLease l "
+        + "WHERE l.name = :name AND l.expiresAt > CURRENT_TIMESTAMP")
+    Optional<Long> findSecondsLeft(@Param("name") String name);
+    
+    /**
+     * Leases that have not expired, for the admin view
+     */
+    @Query("SELECT l FROM SchedulerLease l WHERE l.expiresAt > CURRENT_TIMESTAMP ORDER BY l.name")
+    List<SchedulerLease> findActive();
+}
\ No newline at end of file
@@ -0,0 +1,380 @@
+package com.movielinks.service;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.http.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Runs search scripts on Browserless through its /function endpoint.
+ * In batch mode all search terms for an engine go to one /function call, which runs
+ * every query in a single page session instead of one browser context per term.
+ * Responses are parsed straight off the response stream into {@link SearchResult}s.
+ * Calls go through the Browserless circuit breaker and retry budget. Each engine also
+ * has a breaker, which counts a call that returned no results for any term as a failure,
+ * since that is how captchas and blocked queries show up.
+ */
+@Component
+public class BrowserlessClient {
+    
+    @Value("${browserless.api.key}")
+    private String browserlessApiKey;
+    
+    @Value("${browserless.api.url:https://chrome.browserless.io}")
+    private String browserlessUrl;
+    
+    @Value("${browserless.batch.enabled:true}")
+    private boolean batchEnabled;
+    
+    @Value("${browserless.batch.max-terms:12}")
+    private int batchMaxTerms;
+    
+    private final RestTemplate restTemplate;
+    
+    private final WebClient webClient;
+    
+    private final SearchRateLimiter rateLimiter;
+    
+    private final SearchResultParser resultParser;
+    
+    private final DependencyGuard dependencyGuard;
+    
+    public BrowserlessClient(@Qualifier("browserlessRestTemplate") RestTemplate restTemplate,
+                             @Qualifier("browserlessWebClient") WebClient webClient,
+                             SearchRateLimiter rateLimiter,
+                             SearchResultParser resultParser,
+                             DependencyGuard dependencyGuard) {
+        this.restTemplate = restTemplate;
+        this.webClient = webClient;
+        this.rateLimiter = rateLimiter;
+        this.resultParser = resultParser;
+        this.dependencyGuard = dependencyGuard;
+    }
+    
+    /**
+     * Split search terms into the groups that each go to one Browserless call:
+     * batches of up to max-terms in batch mode, otherwise one term per call
+     */
+    public List<List<String>> partitionTerms(List<String> searchTerms) {
+        return partitionTerms(searchTerms, batchMaxTerms);
+    }
+    
+    /**
+     * Like {@link #partitionTerms(List)}, with groups capped at maxTermsPerCall
+     */
+    public List<List<String>> partitionTerms(List<String> searchTerms, int maxTermsPerCall) {
+        int groupSize = batchEnabled ? Math.max(1, Math.min(maxTermsPerCall, batchMaxTerms)) : 1;
+        List<List<String>> groups = new ArrayList<>();
+        for (int i = 0; i < searchTerms.size(); i += groupSize) {
+            groups.add(List.copyOf(searchTerms.subList(i, Math.min(i + groupSize, searchTerms.size()))));
+        }
+        return groups;
+    }
+    
+    /**
+     * Search the given terms on an engine and return the ranked results per term
+     */
+    public Map<String, List<SearchResult>> search(SearchEngine engine, List<String> searchTerms) {
+        return dependencyGuard.executeJudged(DependencyGuard.Dependency.of(engine), () -> {
+            if (!batchEnabled && searchTerms.size() == 1) {
+                String term = searchTerms.get(0);
+                return Map.of(term, execute(createSearchScript(engine, term), Map.of(),
+                    body -> resultParser.parseResults(body, engine)));
+            }
+            return execute(createBatchSearchScript(engine), Map.of("terms", searchTerms),
+                body -> resultParser.parseBatch(body, engine));
+        }, BrowserlessClient::hasResults);
+    }
+    
+    /**
+     * Non-blocking variant of {@link #search(SearchEngine, List)}
+     */
+    public Mono<Map<String, List<SearchResult>>> searchReactive(SearchEngine engine, List<String> searchTerms) {
+        return dependencyGuard.executeJudgedReactive(DependencyGuard.Dependency.of(engine), () -> {
+            if (!batchEnabled && searchTerms.size() == 1) {
+                String term = searchTerms.get(0);
+                return executeReactive(createSearchScript(engine, term), Map.of(),
+                        body -> resultParser.parseResults(body, engine))
+                    .map(results -> Map.of(term, results));
+            }
+            return executeReactive(createBatchSearchScript(engine), Map.of("terms", searchTerms),
+                body -> resultParser.parseBatch(body, engine));
+        }, BrowserlessClient::hasResults);
+    }
+    
+    private static boolean hasResults(Map<String, List<SearchResult>> resultsByTerm) {
+        for (List<SearchResult> results : resultsByTerm.values()) {
+            if (!results.isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Create the single-term search script for the given engine
+     */
+    private String createSearchScript(SearchEngine engine, String searchTerm) {
+        return engine == SearchEngine.GOOGLE
+            ? createGoogleSearchScript(searchTerm)
+            : createDuckDuckGoSearchScript(searchTerm);
+    }
+    
+    /**
+     * Create the batch search script for the given engine. Terms are read from
+     * the function context, and each term yields one {term, results} entry.
+     */
+    private String createBatchSearchScript(SearchEngine engine) {
+        return engine == SearchEngine.GOOGLE ? GOOGLE_BATCH_SCRIPT : DUCKDUCKGO_BATCH_SCRIPT;
+    }
+    
+    private static final String GOOGLE_BATCH_SCRIPT = """
+        const puppeteer = require("puppeteer-extra");
+        const StealthPlugin = require("puppeteer-extra-plugin-stealth");
+        
+        puppeteer.use(StealthPlugin());
+        
+        async function humanType(page, selector, text) {
+            await page.focus(selector);
+            for (const char of text) {
+                await page.keyboard.type(char);
+                await page.waitForTimeout(100 + Math.random() * 200);
+            }
+        }
+        
+        async function searchTerm(page, term) {
+            await page.goto("https://www.google.com", { waitUntil: "domcontentloaded" });
+            
+            // Accept cookies if present
+            try {
+                await page.click('button[id="L2AGLb"]', { timeout: 3000 });
+            } catch (e) {}
+            
+            await humanType(page, "input[name='q']", term);
+            await page.waitForTimeout(1500);
+            await page.keyboard.press("Enter");
+            
+            await page.waitForSelector("h3", { timeout: 10000 });
+            
+            return await page.evaluate(() => {
+                return Array.from(document.querySelectorAll("h3"))
+                    .slice(0, 10)
+                    .map(el => {
+                        const link = el.closest('a');
+                        return {
+                            title: el.innerText,
+                            url: link ? link.href : null
+                        };
+                    })
+                    .filter(result => result.url);
+            });
+        }
+        
+        module.exports = async ({ page, context }) => {
+            const output = [];
+            for (const term of context.terms) {
+                try {
+                    output.push({ term, results: await searchTerm(page, term) });
+                } catch (e) {
+                    output.push({ term, results: [], error: e.message });
+                }
+            }
+            return { data: output, type: "application/json" };
+        };
+        """;
+    
+    private static final String DUCKDUCKGO_BATCH_SCRIPT = """
+        const puppeteer = require("puppeteer-extra");
+        const StealthPlugin = require("puppeteer-extra-plugin-stealth");
+        
+        puppeteer.use(StealthPlugin());
+        
+        async function searchTerm(page, term) {
+            await page.goto("https://duckduckgo.com", { waitUntil: "domcontentloaded" });
+            
+            await page.type("input[name='q']", term);
+            await page.waitForTimeout(1000);
+            await page.keyboard.press("Enter");
+            
+            await page.waitForSelector("h2 a", { timeout: 10000 });
+            
+            return await page.evaluate(() => {
+                return Array.from(document.querySelectorAll("h2 a"))
+                    .slice(0, 10)
+                    .map(el => ({
+                        title: el.innerText,
+                        url: el.href
+                    }))
+                    .filter(result => result.url);
+            });
+        }
+        
+        module.exports = async ({ page, context }) => {
+            const output = [];
+            for (const term of context.terms) {
+                try {
+                    output.push({ term, results: await searchTerm(page, term) });
+                } catch (e) {
+                    output.push({ term, results: [], error: e.message });
+                }
+            }
+            return { data: output, type: "application/json" };
+        };
+        """;
+    
+    /**
+     * Create Google search script for Browserless
+     */
+    private String createGoogleSearchScript(String searchTerm) {
+        return String.format("""
+            const puppeteer = require("puppeteer-extra");
+            const StealthPlugin = require("puppeteer-extra-plugin-stealth");
+            
+            puppeteer.use(StealthPlugin());
+            
+            async function humanType(page, selector, text) {
+                await page.focus(selector);
+                for (const char of text) {
+                    await page.keyboard.type(char);
+                    await page.waitForTimeout(100 + Math.random() * 200);
+                }
+            }
+            
+            module.exports = async ({ page }) => {
+                await page.goto("https://www.google.com", { waitUntil: "domcontentloaded" });
+                
+                // Accept cookies if present
+                try {
+                    await page.click('button[id="L2AGLb"]', { timeout: 3000 });
+                } catch (e) {}
+                
+                await humanType(page, "input[name='q']", "%s");
+                await page.waitForTimeout(1500);
+                await page.keyboard.press("Enter");
+                
+                await page.waitForSelector("h3", { timeout: 10000 });
+                
+                const results = await page.evaluate(() => {
+                    return Array.from(document.querySelectorAll("h3"))
+                        .slice(0, 10)
+                        .map(el => {
+                            const link = el.closest('a');
+                            return {
+                                title: el.innerText,
+                                url: link ? link.href : null
+                            };
+                        })
+                        .filter(result => result.url);
+                });
+                
+                return { data: results, type: "application/json" };
+            };
+            """, searchTerm);
+    }
+    
+    /**
+     * Create DuckDuckGo search script for Browserless
+     */
+    private String createDuckDuckGoSearchScript(String searchTerm) {
+        return String.format("""
+            const puppeteer = require("puppeteer-extra");
+            const StealthPlugin = require("puppeteer-extra-plugin-stealth");
+            
+            puppeteer.use(StealthPlugin());
+            
+            module.exports = async ({ page }) => {
+                await page.goto("https://duckduckgo.com", { waitUntil: "domcontentloaded" });
+                
+                await page.type("input[name='q']", "%s");
+                await page.waitForTimeout(1000);
+                await page.keyboard.press("Enter");
+                
+                await page.waitForSelector("h2 a", { timeout: 10000 });
+                
+                const results = await page.evaluate(() => {
+                    return Array.from(document.querySelectorAll("h2 a"))
+                        .slice(0, 10)
+                        .map(el => ({
+                            title: el.innerText,
+                            url: el.href
+                        }))
+                        .filter(result => result.url);
+                });
+                
+                return { data: results, type: "application/json" };
+            };
+            """, searchTerm);
+    }
+    
+    /**
+     * Execute script on Browserless with the given function context, reading the
+     * response body straight from the connection
+     */
+    private <T> T execute(String script, Map<String, Object> context, ResponseReader<T> reader) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        
+        HttpEntity<Map<String, Object>> request = new HttpEntity<>(functionRequestBody(script, context), headers);
+        
+        return dependencyGuard.execute(DependencyGuard.Dependency.BROWSERLESS, () -> {
+            // Every attempt, retries included, waits for its own rate limit permit
+            if (!rateLimiter.acquireBrowserless()) {
+                throw new IllegalStateException("Interrupted while waiting for Browserless rate limit");
+            }
+            return restTemplate.execute(functionUrl(), HttpMethod.POST, restTemplate.httpEntityCallback(request),
+                response -> reader.read(response.getBody()));
+        });
+    }
+    
+    /**
+     * Execute script on Browserless without blocking the calling thread. Each body buffer
+     * is parsed as it arrives, so the body is never joined or decoded into one String.
+     */
+    private <T> Mono<T> executeReactive(String script, Map<String, Object> context,
+                                        Function<Flux<DataBuffer>, Mono<T>> reader) {
+        return dependencyGuard.executeReactive(DependencyGuard.Dependency.BROWSERLESS, () -> Mono.defer(() -> {
+            // Reserve on subscription so the delay starts when the call would actually be made
+            Duration wait = rateLimiter.reserveBrowserless();
+            Mono<T> call = reader.apply(webClient.post()
+                .uri(functionUrl())
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(functionRequestBody(script, context))
+                .retrieve()
+                .bodyToFlux(DataBuffer.class));
+            
+            return wait.isZero() ? call : Mono.delay(wait).then(call);
+        }));
+    }
+    
+    private String functionUrl() {
+        return browserlessUrl + "/function?token=" + browserlessApiKey;
+    }
+    
+    private Map<String, Object> functionRequestBody(String script, Map<String, Object> context) {
+        return Map.of(
+            "code", script,
+            "context", context
+        );
+    }
+    
+    /**
+     * Parses a Browserless response body
+     */
+    @FunctionalInterface
+    private interface ResponseReader<T> {
+        T read(InputStream body) throws IOException;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,214 @@
+package com.movielinks.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scores search results before validation so the most likely working URL is probed
+ * first and only the top-k are probed at all. A candidate's score is a weighted sum of
+ * cross-engine agreement, best result position, how closely the host matches the site
+ * name, the host's probe history, its last measured response time and how long the host
+ * has been known. Ties break on position and then URL, so the order is deterministic.
+ */
+@Component
+public class CandidateRanker {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CandidateRanker.class);
+    
+    @Value("${movie-search.ranking.top-k:5}")
+    private int topK;
+    
+    @Value("${movie-search.ranking.weights.agreement:0.25}")
+    private double agreementWeight;
+    
+    @Value("${movie-search.ranking.weights.position:0.20}")
+    private double positionWeight;
+    
+    @Value("${movie-search.ranking.weights.alias-match:0.20}")
+    private double aliasMatchWeight;
+    
+    @Value("${movie-search.ranking.weights.history:0.20}")
+    private double historyWeight;
+    
+    @Value("${movie-search.ranking.weights.response-time:0.10}")
+    private double responseTimeWeight;
+    
+    @Value("${movie-search.ranking.weights.domain-age:0.05}")
+    private double domainAgeWeight;
+    
+    @Value("${movie-search.url-validation-timeout:5000}")
+    private long slowResponseMs;
+    
+    private static final long MATURE_DOMAIN_DAYS = 30;
+    
+    private final HostHistory hostHistory;
+    
+    public CandidateRanker(HostHistory hostHistory) {
+        this.hostHistory = hostHistory;
+    }
+    
+    public int getTopK() {
+        return Math.max(1, topK);
+    }
+    
+    /**
+     * Candidate URLs, one per host (ignoring www.) and best first. Hosts in knownLocations (the site's stored
+     * domains and mirrors) count as proven even if this instance has not probed them yet.
+     */
+    public List<String> rank(List<SearchResult> results, String siteName, Collection<String> knownLocations) {
+        List<String> urls = new ArrayList<>();
+        rankScored(results, siteName, knownLocations).forEach(candidate -> urls.add(candidate.url()));
+        return urls;
+    }
+    
+    /**
+     * Like {@link #rank}, keeping each candidate's score; the score doubles as a confidence
+     * that the candidate is the site's current domain
+     */
+    public List<ScoredCandidate> rankScored(List<SearchResult> results, String siteName, Collection<String> knownLocations) {
+        Map<String, Candidate> candidates = new LinkedHashMap<>();
+        for (SearchResult result : results) {
+            // Engines rarely return the same URL for a site, so agreement is counted per host
+            candidates.computeIfAbsent(UrlHosts.stripWww(result.host()), host -> new Candidate(result)).add(result);
+        }
+        if (candidates.isEmpty()) {
+            return List.of();
+        }
+        
+        Set<String> knownHosts = new HashSet<>();
+        for (String location : knownLocations) {
+            String domain = UrlHosts.domainOf(location);
+            if (domain != null) {
+                knownHosts.add(domain);
+            }
+        }
+        String baseName = SiteHostMatcher.normalizeSiteName(siteName);
+        long now = System.currentTimeMillis();
+        
+        for (Candidate candidate : candidates.values()) {
+            candidate.score = score(candidate, baseName, knownHosts, now);
+        }
+        
+        List<Candidate> ranked = new ArrayList<>(candidates.values());
+        ranked.sort(Comparator.comparingDouble((Candidate c) -> c.score).reversed()
+            .thenComparingInt(c -> c.bestRank)
+            .thenComparing(c -> c.url));
+        
+        if (logger.isDebugEnabled()) {
+            ranked.forEach(c -> logger.debug("Candidate {} for {} scored {}", c.url, siteName, String.format("%.3f", c.score)));
+        }
+        
+        List<ScoredCandidate> scored = new ArrayList<>(ranked.size());
+        ranked.forEach(candidate -> scored.add(new ScoredCandidate(candidate.url, candidate.score)));
+        return scored;
+    }
+    
+    private double score(Candidate candidate, String baseName, Set<String> knownHosts, long now) {
+        double agreement = (double) candidate.engines.size() / SearchEngine.values().length;
+        double position = 1.0 / Math.sqrt(candidate.bestRank);
+        double aliasMatch = aliasMatchStrength(candidate, baseName);
+        
+        String host = UrlHosts.stripWww(candidate.host);
+        HostHistory.HostRecord record = hostHistory.get(candidate.host);
+        double history;
+        if (record != null && record.getSuccesses() + record.getFailures() > 0) {
+            // Laplace-smoothed success rate, so one probe does not swing the score to an extreme
+            history = (record.getSuccesses() + 1.0) / (record.getSuccesses() + record.getFailures() + 2.0);
+        } else {
+            history = 0.5;
+        }
+        if (knownHosts.contains(host)) {
+            history = Math.max(history, 0.9);
+        }
+        
+        double responseTime = 0.5;
+        if (record != null && record.getLastResponseTimeMs() >= 0) {
+            responseTime = Math.max(0.0, 1.0 - (double) record.getLastResponseTimeMs() / Math.max(1, slowResponseMs));
+        }
+        
+        // Registration dates are not available, so age is how long this host has been known to us
+        double domainAge = knownHosts.contains(host) ? 1.0 : 0.0;
+        if (record != null) {
+            long ageDays = TimeUnit.MILLISECONDS.toDays(now - record.getFirstSeenMillis());
+            domainAge = Math.max(domainAge, Math.min(1.0, (double) ageDays / MATURE_DOMAIN_DAYS));
+        }
+        
+        return agreementWeight * agreement
+            + positionWeight * position
+            + aliasMatchWeight * aliasMatch
+            + historyWeight * history
+            + responseTimeWeight * responseTime
+            + domainAgeWeight * domainAge;
+    }
+    
+    /**
+     * 1.0 for name.tld, less for hosts that only contain the name, plus a bonus when
+     * a result title mentions the site
+     */
+    private double aliasMatchStrength(Candidate candidate, String baseName) {
+        String host = UrlHosts.stripWww(candidate.host);
+        double strength;
+        if (host.startsWith(baseName + ".")) {
+            // name.tld beats name.something.tld, which is usually a proxy or clone
+            strength = host.indexOf('.', baseName.length() + 1) < 0 ? 1.0 : 0.7;
+        } else if (host.contains(baseName)) {
+            strength = 0.4;
+        } else {
+            strength = 0.0;
+        }
+        if (candidate.titleMentionsSite(baseName)) {
+            strength = Math.min(1.0, strength + 0.2);
+        }
+        return strength;
+    }
+    
+    public record ScoredCandidate(String url, double score) {
+    }
+    
+    /**
+     * All results that point at one host; the URL is that of its best-ranked result
+     */
+    private static class Candidate {
+        
+        String url;
+        String host;
+        final Set<SearchEngine> engines = EnumSet.noneOf(SearchEngine.class);
+        final List<String> titles = new ArrayList<>(2);
+        int bestRank = Integer.MAX_VALUE;
+        double score;
+        
+        Candidate(SearchResult first) {
+            this.url = first.url();
+            this.host = first.host();
+        }
+        
+        void add(SearchResult result) {
+            if (result.engine() != null) {
+                engines.add(result.engine());
+            }
+            if (result.title() != null) {
+                titles.add(result.title());
+            }
+            int rank = Math.max(1, result.rank());
+            if (rank < bestRank) {
+                bestRank = rank;
+                url = result.url();
+                host = result.host();
+            }
+        }
+        
+        boolean titleMentionsSite(String baseName) {
+            for (String title : titles) {
+                if (title.toLowerCase().contains(baseName)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
\ No newline at end of file
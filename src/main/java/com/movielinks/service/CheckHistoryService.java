@@ -0,0 +1,351 @@
+package com.movielinks.service;
+
+import com.movielinks.model.CheckResult;
+import com.movielinks.model.CheckRollup;
+import com.movielinks.repository.CheckResultRepository;
+import com.movielinks.repository.CheckRollupRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Check history. Every monitoring check appends one row with its status, URL, latency and
+ * the time until the site's next check. Uptime is weighted by that time rather than per
+ * check, so a site checked every few minutes counts no more than one checked every few
+ * hours over the same stretch.
+ * The leader rolls completed hours up into hourly buckets and completed days into daily
+ * buckets, and deletes raw rows and hourly buckets once they are old and rolled up.
+ * Availability windows are then read from at most a day's worth of hourly buckets plus
+ * one daily bucket per day, and the raw rows of the hour not yet rolled up, however many
+ * checks were made.
+ */
+@Service
+public class CheckHistoryService implements MeterBinder {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CheckHistoryService.class);
+    
+    private static final String HOUR = "HOUR";
+    private static final String DAY = "DAY";
+    
+    @Value("${monitoring.history.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${monitoring.history.raw-retention-hours:48}")
+    private long rawRetentionHours;
+    
+    @Value("${monitoring.history.hourly-retention-days:8}")
+    private long hourlyRetentionDays;
+    
+    @Value("${monitoring.history.daily-retention-days:400}")
+    private long dailyRetentionDays;
+    
+    private final CheckResultRepository resultRepository;
+    
+    private final CheckRollupRepository rollupRepository;
+    
+    private final LeaseManager leaseManager;
+    
+    private final TransactionTemplate transactionTemplate;
+    
+    private final AtomicLong recorded = new AtomicLong();
+    private final AtomicLong bucketsRolledUp = new AtomicLong();
+    private final AtomicLong rowsDownsampled = new AtomicLong();
+    
+    public CheckHistoryService(CheckResultRepository resultRepository,
+                               CheckRollupRepository rollupRepository,
+                               LeaseManager leaseManager,
+                               TransactionTemplate transactionTemplate) {
+        this.resultRepository = resultRepository;
+        this.rollupRepository = rollupRepository;
+        this.leaseManager = leaseManager;
+        this.transactionTemplate = transactionTemplate;
+    }
+    
+    /**
+     * Append the result of one check, which stands for the site until nextCheckAt; latency
+     * is only kept for working sites
+     */
+    public void record(String siteName, String url, String status, String tier, Integer latencyMs,
+                       LocalDateTime nextCheckAt) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            boolean working = "WORKING".equals(status);
+            Long coveredSeconds = nextCheckAt != null
+                ? Math.max(0, Duration.between(LocalDateTime.now(), nextCheckAt).getSeconds())
+                : null;
+            resultRepository.save(new CheckResult(siteName.toLowerCase(Locale.ROOT), working ? url : null,
+                status, tier, working ? latencyMs : null, coveredSeconds));
+            recorded.incrementAndGet();
+        } catch (Exception e) {
+            logger.warn("Could not record check of {}: {}", siteName, e.getMessage());
+        }
+    }
+    
+    /**
+     * Roll completed hours and days up and downsample old rows. Only the leader does this,
+     * so replicas never write the same bucket.
+     */
+    @Scheduled(fixedDelayString = "${monitoring.history.rollup-ms:300000}", initialDelayString = "${monitoring.history.rollup-ms:300000}")
+    public void rollUp() {
+        if (!enabled || !leaseManager.isLeader()) {
+            return;
+        }
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            // Checks finishing right at the turn of the hour may still be being written
+            LocalDateTime hoursUntil = rollUpHours(now.minusMinutes(1).truncatedTo(ChronoUnit.HOURS));
+            // A day is only complete once its last hour has been rolled up
+            LocalDateTime daysUntil = rollUpDays(hoursUntil.truncatedTo(ChronoUnit.DAYS));
+            
+            // Only rows that are already part of a rollup are ever deleted
+            long deleted = resultRepository.deleteCheckedBefore(earliest(now.minusHours(rawRetentionHours), hoursUntil));
+            deleted += rollupRepository.deleteBucketsBefore(HOUR, earliest(now.minusDays(hourlyRetentionDays), daysUntil));
+            deleted += rollupRepository.deleteBucketsBefore(DAY, now.minusDays(dailyRetentionDays));
+            rowsDownsampled.addAndGet(deleted);
+        } catch (Exception e) {
+            logger.error("Error rolling up check history: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * Roll every completed hour not rolled up yet into hourly buckets; returns the end of
+     * the last hour rolled up
+     */
+    private LocalDateTime rollUpHours(LocalDateTime currentHour) {
+        Optional<CheckResult> oldest = resultRepository.findFirstByOrderByCheckedAtAsc();
+        LocalDateTime from = next(rolledUpUntil(HOUR),
+            oldest.map(result -> result.getCheckedAt().truncatedTo(ChronoUnit.HOURS)).orElse(currentHour));
+        for (LocalDateTime hour = from; hour.isBefore(currentHour); hour = hour.plusHours(1)) {
+            Map<String, Bucket> buckets = new TreeMap<>();
+            resultRepository.findByCheckedAtGreaterThanEqualAndCheckedAtLessThan(hour, hour.plusHours(1))
+                .forEach(result -> buckets.computeIfAbsent(result.getSiteName(), name -> new Bucket()).add(result));
+            saveBuckets(HOUR, hour, buckets);
+        }
+        return from.isBefore(currentHour) ? currentHour : from;
+    }
+    
+    /**
+     * Roll every completed day not rolled up yet into daily buckets, from the hourly ones;
+     * returns the end of the last day rolled up
+     */
+    private LocalDateTime rollUpDays(LocalDateTime today) {
+        Optional<CheckRollup> oldest = rollupRepository.findFirstByGranularityOrderByBucketStartAsc(HOUR);
+        LocalDateTime from = next(rolledUpUntil(DAY),
+            oldest.map(rollup -> rollup.getBucketStart().truncatedTo(ChronoUnit.DAYS)).orElse(today));
+        for (LocalDateTime day = from; day.isBefore(today); day = day.plusDays(1)) {
+            Map<String, Bucket> buckets = new TreeMap<>();
+            rollupRepository.findByGranularityAndBucketStartGreaterThanEqualAndBucketStartLessThan(HOUR, day, day.plusDays(1))
+                .forEach(rollup -> buckets.computeIfAbsent(rollup.getSiteName(), name -> new Bucket()).add(rollup));
+            saveBuckets(DAY, day, buckets);
+        }
+        return from.isBefore(today) ? today : from;
+    }
+    
+    private void saveBuckets(String granularity, LocalDateTime bucketStart, Map<String, Bucket> buckets) {
+        if (buckets.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            // A bucket is rewritten whole, so a run interrupted halfway can simply be repeated
+            rollupRepository.deleteBucket(granularity, bucketStart);
+            List<CheckRollup> rollups = new ArrayList<>();
+            buckets.forEach((siteName, bucket) -> rollups.add(bucket.toRollup(siteName, granularity, bucketStart)));
+            rollupRepository.saveAll(rollups);
+        });
+        bucketsRolledUp.addAndGet(buckets.size());
+    }
+    
+    /**
+     * End of the latest bucket rolled up at this granularity, or null if there is none
+     */
+    private LocalDateTime rolledUpUntil(String granularity) {
+        return rollupRepository.findFirstByGranularityOrderByBucketStartDesc(granularity)
+            .map(rollup -> HOUR.equals(granularity) ? rollup.getBucketStart().plusHours(1) : rollup.getBucketStart().plusDays(1))
+            .orElse(null);
+    }
+    
+    private static LocalDateTime next(LocalDateTime rolledUpUntil, LocalDateTime oldestUnrolled) {
+        return rolledUpUntil == null || rolledUpUntil.isBefore(oldestUnrolled) ? oldestUnrolled : rolledUpUntil;
+    }
+    
+    private static LocalDateTime earliest(LocalDateTime first, LocalDateTime second) {
+        return second == null || first.isBefore(second) ? first : second;
+    }
+    
+    /**
+     * Uptime and latency of one site (all sites if siteName is null) over the last 24 hours,
+     * 7 days and 30 days. The 24-hour window is the current hour and the 23 before it; the
+     * day windows are today and the whole days before it.
+     */
+    public Map<String, Object> getAvailability(String siteName) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime hoursUntil = rolledUpUntil(HOUR);
+        LocalDateTime daysUntil = rolledUpUntil(DAY);
+        
+        Map<String, Object> windows = new LinkedHashMap<>();
+        windows.put("24h", window(siteName, now.truncatedTo(ChronoUnit.HOURS).minusHours(23), null, hoursUntil, now).toMap());
+        windows.put("7d", window(siteName, now.truncatedTo(ChronoUnit.DAYS).minusDays(6), daysUntil, hoursUntil, now).toMap());
+        windows.put("30d", window(siteName, now.truncatedTo(ChronoUnit.DAYS).minusDays(29), daysUntil, hoursUntil, now).toMap());
+        return windows;
+    }
+    
+    /**
+     * Uptime of all sites over the last 24 hours, or null if nothing was checked in that time
+     */
+    public Double getFleetUptime24h() {
+        if (!enabled) {
+            return null;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        Bucket bucket = window(null, now.truncatedTo(ChronoUnit.HOURS).minusHours(23), null, rolledUpUntil(HOUR), now);
+        return bucket.checks == 0 ? null : bucket.uptimePercentage();
+    }
+    
+    /**
+     * Sum daily buckets up to the end of the last rolled-up day, hourly buckets from there
+     * up to the end of the last rolled-up hour, and raw rows after that
+     */
+    private Bucket window(String siteName, LocalDateTime from, LocalDateTime daysUntil, LocalDateTime hoursUntil, LocalDateTime now) {
+        Bucket total = new Bucket();
+        LocalDateTime covered = from;
+        if (daysUntil != null && daysUntil.isAfter(covered)) {
+            rollups(siteName, DAY, covered, daysUntil).forEach(total::add);
+            covered = daysUntil;
+        }
+        if (hoursUntil != null && hoursUntil.isAfter(covered)) {
+            rollups(siteName, HOUR, covered, hoursUntil).forEach(total::add);
+            covered = hoursUntil;
+        }
+        (siteName == null
+            ? resultRepository.findByCheckedAtGreaterThanEqualAndCheckedAtLessThan(covered, now)
+            : resultRepository.findBySiteNameIgnoreCaseAndCheckedAtGreaterThanEqualAndCheckedAtLessThan(siteName, covered, now))
+            .forEach(total::add);
+        total.from = from;
+        return total;
+    }
+    
+    private List<CheckRollup> rollups(String siteName, String granularity, LocalDateTime from, LocalDateTime until) {
+        return siteName == null
+            ? rollupRepository.findByGranularityAndBucketStartGreaterThanEqualAndBucketStartLessThan(granularity, from, until)
+            : rollupRepository.findBySiteNameIgnoreCaseAndGranularityAndBucketStartGreaterThanEqualAndBucketStartLessThan(
+                siteName, granularity, from, until);
+    }
+    
+    /**
+     * The most recent raw check results of a site
+     */
+    public List<CheckResult> getRecentResults(String siteName) {
+        return resultRepository.findTop50BySiteNameIgnoreCaseOrderByCheckedAtDesc(siteName);
+    }
+    
+    /**
+     * Running totals of checks, the time they cover and their latencies
+     */
+    private static final class Bucket {
+        private long checks;
+        private long workingChecks;
+        private long coveredSeconds;
+        private long workingSeconds;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private LocalDateTime from;
+        
+        void add(CheckResult result) {
+            boolean working = "WORKING".equals(result.getStatus());
+            long covered = result.getCoveredSeconds() != null ? result.getCoveredSeconds() : 0;
+            checks++;
+            coveredSeconds += covered;
+            if (working) {
+                workingChecks++;
+                workingSeconds += covered;
+            }
+            if (result.getLatencyMs() != null) {
+                latency.record(result.getLatencyMs());
+            }
+        }
+        
+        void add(CheckRollup rollup) {
+            checks += rollup.getChecks();
+            workingChecks += rollup.getWorkingChecks();
+            coveredSeconds += rollup.getCoveredSeconds() != null ? rollup.getCoveredSeconds() : 0;
+            workingSeconds += rollup.getWorkingSeconds() != null ? rollup.getWorkingSeconds() : 0;
+            latency.add(LatencyHistogram.decodeBuckets(
+                rollup.getLatencyBuckets(), rollup.getLatencySumMs(), rollup.getLatencyMaxMs()));
+        }
+        
+        /**
+         * Share of the covered time the sites were working; per check only for history
+         * recorded before results carried the time they cover
+         */
+        double uptimePercentage() {
+            if (coveredSeconds > 0) {
+                return (double) workingSeconds / coveredSeconds * 100;
+            }
+            return checks == 0 ? 0.0 : (double) workingChecks / checks * 100;
+        }
+        
+        CheckRollup toRollup(String siteName, String granularity, LocalDateTime bucketStart) {
+            CheckRollup rollup = new CheckRollup();
+            rollup.setSiteName(siteName);
+            rollup.setGranularity(granularity);
+            rollup.setBucketStart(bucketStart);
+            rollup.setChecks(checks);
+            rollup.setWorkingChecks(workingChecks);
+            rollup.setCoveredSeconds(coveredSeconds);
+            rollup.setWorkingSeconds(workingSeconds);
+            rollup.setLatencySumMs(latency.getTotalMs());
+            rollup.setLatencyMaxMs(latency.getMax());
+            rollup.setLatencyBuckets(latency.encodeBuckets());
+            return rollup;
+        }
+        
+        Map<String, Object> toMap() {
+            LatencyHistogram.Summary summary = latency.summary();
+            Map<String, Object> window = new LinkedHashMap<>();
+            window.put("from", from);
+            window.put("checks", checks);
+            window.put("workingChecks", workingChecks);
+            window.put("coveredSeconds", coveredSeconds);
+            window.put("uptimePercentage", checks == 0 ? null : uptimePercentage());
+            window.put("p50ResponseTime", summary.p50());
+            window.put("p95ResponseTime", summary.p95());
+            window.put("p99ResponseTime", summary.p99());
+            return window;
+        }
+    }
+    
+    public Map<String, Object> getStatistics() {
+        return Map.of(
+            "enabled", enabled,
+            "recorded", recorded.get(),
+            "bucketsRolledUp", bucketsRolledUp.get(),
+            "rowsDownsampled", rowsDownsampled.get()
+        );
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("monitoring.history.recorded", recorded, AtomicLong::get).register(registry);
+        FunctionCounter.builder("monitoring.history.rollups", bucketsRolledUp, AtomicLong::get).register(registry);
+        FunctionCounter.builder("monitoring.history.downsampled", rowsDownsampled, AtomicLong::get).register(registry);
+    }
+}
\ No newline at end of file
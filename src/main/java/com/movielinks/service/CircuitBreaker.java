@@ -0,0 +1,189 @@
+package com.movielinks.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker over a sliding window of the last call outcomes. It opens once
+ * at least minimum-calls outcomes are in the window and the failure rate reaches the
+ * threshold. While open, calls are rejected without being made. After the open
+ * duration a few trial calls are let through (half-open). Any trial failure reopens
+ * the breaker, and enough trial successes close it with a fresh window.
+ */
+public class CircuitBreaker {
+    
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+    
+    private final boolean[] window;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    private final LongSupplier nanoClock;
+    
+    private State state = State.CLOSED;
+    private int windowIndex;
+    private int windowCount;
+    private int windowFailures;
+    private long openedAtNanos;
+    private int trialsInFlight;
+    private int trialSuccesses;
+    private long trialsStartedNanos;
+    private long rejectedCalls;
+    private long timesOpened;
+    
+    public CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold,
+                          long openMillis, int halfOpenCalls) {
+        this(windowSize, minimumCalls, failureRateThreshold, openMillis, halfOpenCalls, System::nanoTime);
+    }
+    
+    CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold,
+                   long openMillis, int halfOpenCalls, LongSupplier nanoClock) {
+        this.window = new boolean[Math.max(1, windowSize)];
+        this.minimumCalls = Math.max(1, Math.min(minimumCalls, window.length));
+        this.failureRateThreshold = failureRateThreshold;
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+        this.halfOpenCalls = Math.max(1, halfOpenCalls);
+        this.nanoClock = nanoClock;
+    }
+    
+    /**
+     * Whether a call would be let through right now, without taking a permit
+     */
+    public synchronized boolean isCallPermitted() {
+        long now = nanoClock.getAsLong();
+        return switch (state) {
+            case CLOSED -> true;
+            case OPEN -> now - openedAtNanos >= openNanos;
+            case HALF_OPEN -> trialsInFlight < halfOpenCalls || trialsStale(now);
+        };
+    }
+    
+    /**
+     * Take a permit for one call. Every granted permit must be followed by exactly one
+     * of onSuccess, onFailure or onIgnored.
+     */
+    public synchronized boolean tryAcquire() {
+        long now = nanoClock.getAsLong();
+        if (state == State.OPEN && now - openedAtNanos >= openNanos) {
+            state = State.HALF_OPEN;
+            trialsInFlight = 0;
+            trialSuccesses = 0;
+        }
+        switch (state) {
+            case CLOSED:
+                return true;
+            case HALF_OPEN:
+                // A trial whose outcome never arrived must not wedge the breaker half-open
+                if (trialsInFlight >= halfOpenCalls && trialsStale(now)) {
+                    trialsInFlight = 0;
+                }
+                if (trialsInFlight < halfOpenCalls) {
+                    if (trialsInFlight == 0) {
+                        trialsStartedNanos = now;
+                    }
+                    trialsInFlight++;
+                    return true;
+                }
+                rejectedCalls++;
+                return false;
+            default:
+                rejectedCalls++;
+                return false;
+        }
+    }
+    
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            trialsInFlight = Math.max(0, trialsInFlight - 1);
+            if (++trialSuccesses >= halfOpenCalls) {
+                close();
+            }
+            return;
+        }
+        recordOutcome(false);
+    }
+    
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open(nanoClock.getAsLong());
+            return;
+        }
+        recordOutcome(true);
+        if (state == State.CLOSED && windowCount >= minimumCalls
+                && (double) windowFailures / windowCount >= failureRateThreshold) {
+            open(nanoClock.getAsLong());
+        }
+    }
+    
+    /**
+     * Release a permit without recording an outcome, e.g. when the call was cancelled
+     */
+    public synchronized void onIgnored() {
+        if (state == State.HALF_OPEN) {
+            trialsInFlight = Math.max(0, trialsInFlight - 1);
+        }
+    }
+    
+    public synchronized State getState() {
+        return state;
+    }
+    
+    public synchronized Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("state", state);
+        statistics.put("failureRate", windowCount == 0 ? 0.0 : (double) windowFailures / windowCount);
+        statistics.put("windowCalls", windowCount);
+        statistics.put("rejectedCalls", rejectedCalls);
+        statistics.put("timesOpened", timesOpened);
+        if (state == State.OPEN) {
+            long remainingNanos = Math.max(0, openNanos - (nanoClock.getAsLong() - openedAtNanos));
+            statistics.put("retryInMs", TimeUnit.NANOSECONDS.toMillis(remainingNanos));
+        }
+        return statistics;
+    }
+    
+    synchronized long getRejectedCalls() {
+        return rejectedCalls;
+    }
+    
+    synchronized long getTimesOpened() {
+        return timesOpened;
+    }
+    
+    private boolean trialsStale(long now) {
+        return now - trialsStartedNanos >= openNanos;
+    }
+    
+    private void recordOutcome(boolean failed) {
+        if (windowCount == window.length) {
+            if (window[windowIndex]) {
+                windowFailures--;
+            }
+        } else {
+            windowCount++;
+        }
+        window[windowIndex] = failed;
+        if (failed) {
+            windowFailures++;
+        }
+        windowIndex = (windowIndex + 1) % window.length;
+    }
+    
+    private void open(long now) {
+        state = State.OPEN;
+        openedAtNanos = now;
+        trialsInFlight = 0;
+        timesOpened++;
+    }
+    
+    private void close() {
+        state = State.CLOSED;
+        windowIndex = 0;
+        windowCount = 0;
+        windowFailures = 0;
+        trialsInFlight = 0;
+    }
+}
\ No newline at end of file
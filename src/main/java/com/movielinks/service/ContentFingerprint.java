@@ -0,0 +1,191 @@
+package com.movielinks.service;
+
+import com.movielinks.model.MovieSite;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Lightweight fingerprint of the start of a page: its normalized title and a 64-bit
+ * simhash over word pairs of the visible text. Either part may be null when the
+ * content did not have enough of it to be meaningful. A name-only fingerprint stands in
+ * for a site that has none stored yet: a page matches it only if its title names the site.
+ */
+public record ContentFingerprint(String title, Long simhash, boolean nameOnly) {
+    
+    public ContentFingerprint(String title, Long simhash) {
+        this(title, simhash, false);
+    }
+    
+    private static final Pattern TITLE = Pattern.compile("<title[^>]*>(.*?)</title", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private static final Pattern SCRIPT_OR_STYLE = Pattern.compile("<(script|style)[^>]*>.*?(</\\1>|$)", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private static final Pattern TAG = Pattern.compile("<[^>]*>");
+    private static final Pattern ENTITY = Pattern.compile("&#?[a-z0-9]+;", Pattern.CASE_INSENSITIVE);
+    // Rotated domains usually name themselves in the title; only the label is kept
+    private static final Pattern DOMAIN = Pattern.compile("\\b([a-z0-9-]+)(\\.[a-z]{2,})+\\b");
+    private static final Pattern WORD = Pattern.compile("[a-z0-9]{2,}");
+    
+    private static final int MIN_FEATURES = 8;
+    private static final double MIN_TITLE_SIMILARITY = 0.5;
+    
+    /**
+     * Fingerprint the first length bytes of a page
+     */
+    public static ContentFingerprint of(byte[] content, int length) {
+        String html = new String(content, 0, length, StandardCharsets.UTF_8);
+        return new ContentFingerprint(extractTitle(html), simhash(html));
+    }
+    
+    /**
+     * The fingerprint stored on a site, or null if it has none yet
+     */
+    public static ContentFingerprint of(MovieSite site) {
+        if (site == null || (site.getContentTitle() == null && site.getContentSimhash() == null)) {
+            return null;
+        }
+        return new ContentFingerprint(site.getContentTitle(), site.getContentSimhash());
+    }
+    
+    /**
+     * Expectation for a site without a stored fingerprint: a title that names the site
+     */
+    public static ContentFingerprint naming(String siteName) {
+        String name = SiteHostMatcher.normalizeSiteName(siteName).replace("-", "");
+        return name.isEmpty() ? null : new ContentFingerprint(name, null, true);
+    }
+    
+    public void applyTo(MovieSite site) {
+        site.setContentTitle(title);
+        site.setContentSimhash(simhash);
+    }
+    
+    public boolean isEmpty() {
+        return title == null && simhash == null;
+    }
+    
+    /**
+     * Whether this page looks like the expected one: the titles share enough words or
+     * the simhashes are within maxDistance bits. With nothing to compare it is not
+     * rejected, since a missing title is no evidence of a parked domain; a name-only
+     * expectation has to be met by the title.
+     */
+    public boolean matches(ContentFingerprint expected, int maxDistance) {
+        if (expected.nameOnly()) {
+            return titleMatches(expected);
+        }
+        boolean comparable = false;
+        if (title != null && expected.title() != null) {
+            if (titleMatches(expected)) {
+                return true;
+            }
+            comparable = true;
+        }
+        if (simhash != null && expected.simhash() != null) {
+            if (Long.bitCount(simhash ^ expected.simhash()) <= maxDistance) {
+                return true;
+            }
+            comparable = true;
+        }
+        return !comparable;
+    }
+    
+    public boolean titleMatches(ContentFingerprint expected) {
+        if (title == null || expected.title() == null) {
+            return false;
+        }
+        if (expected.nameOnly()) {
+            // Titles split names up ("Movie Rulz"), and domains in them are cut to the label
+            return title.replace(" ", "").contains(expected.title());
+        }
+        Set<String> words = Set.of(title.split(" "));
+        Set<String> expectedWords = Set.of(expected.title().split(" "));
+        Set<String> union = new HashSet<>(words);
+        union.addAll(expectedWords);
+        long shared = words.stream().filter(expectedWords::contains).count();
+        return (double) shared / union.size() >= MIN_TITLE_SIMILARITY;
+    }
+    
+    /**
+     * The normalized title, or null if the content does not contain a complete one yet
+     */
+    static String extractTitle(String html) {
+        Matcher matcher = TITLE.matcher(html);
+        if (!matcher.find()) {
+            return null;
+        }
+        String title = ENTITY.matcher(matcher.group(1).toLowerCase(Locale.ROOT)).replaceAll(" ");
+        title = DOMAIN.matcher(title).replaceAll("$1");
+        
+        Set<String> seen = new HashSet<>();
+        StringBuilder normalized = new StringBuilder();
+        Matcher words = WORD.matcher(title);
+        while (words.find()) {
+            String word = words.group();
+            // Years and episode numbers change between visits to the same site
+            if (!word.chars().allMatch(Character::isDigit) && seen.add(word)) {
+                if (normalized.length() > 0) {
+                    normalized.append(' ');
+                }
+                normalized.append(word);
+            }
+        }
+        if (normalized.length() == 0) {
+            return null;
+        }
+        // Fits the column
+        return normalized.length() <= 255 ? normalized.toString() : normalized.substring(0, 255);
+    }
+    
+    /**
+     * Simhash over consecutive word pairs of the visible text, or null if there are too
+     * few of them for the hash to be stable
+     */
+    static Long simhash(String html) {
+        String text = SCRIPT_OR_STYLE.matcher(html).replaceAll(" ");
+        text = TAG.matcher(text).replaceAll(" ");
+        text = ENTITY.matcher(text.toLowerCase(Locale.ROOT)).replaceAll(" ");
+        
+        int[] weights = new int[64];
+        int features = 0;
+        String previous = null;
+        Matcher words = WORD.matcher(text);
+        while (words.find()) {
+            String word = words.group();
+            if (previous != null) {
+                long hash = fnv1a(previous, word);
+                for (int bit = 0; bit < 64; bit++) {
+                    weights[bit] += (hash >>> bit & 1L) != 0 ? 1 : -1;
+                }
+                features++;
+            }
+            previous = word;
+        }
+        if (features < MIN_FEATURES) {
+            return null;
+        }
+        
+        long simhash = 0;
+        for (int bit = 0; bit < 64; bit++) {
+            if (weights[bit] > 0) {
+                simhash |= 1L << bit;
+            }
+        }
+        return simhash;
+    }
+    
+    private static long fnv1a(String first, String second) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < first.length(); i++) {
+            hash = (hash ^ first.charAt(i)) * 0x100000001b3L;
+        }
+        hash = (hash ^ ' ') * 0x100000001b3L;
+        for (int i = 0; i < second.length(); i++) {
+            hash = (hash ^ second.charAt(i)) * 0x100000001b3L;
+        }
+        return hash;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,177 @@
+package com.movielinks.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ranged GET validation. Many mirrors reject HEAD outright, and parked or clone domains
+ * answer HEAD with a 2xx, so HEAD alone gives both false negatives and false positives.
+ * A candidate whose HEAD is rejected, or whose site has a stored fingerprint, is checked
+ * with a GET of only the first max-bytes. The start of the page is fingerprinted and
+ * compared with the site's stored fingerprint, and reading stops as soon as the title
+ * decides the match.
+ */
+@Component
+public class ContentVerifier implements MeterBinder {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ContentVerifier.class);
+    
+    // Statuses that mean "not HEAD" rather than "not here"
+    private static final Set<Integer> HEAD_REJECTED = Set.of(400, 403, 405, 501);
+    
+    private static final int CHUNK_SIZE = 2048;
+    
+    @Value("${movie-search.validation.content-check.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${movie-search.validation.content-check.max-bytes:16384}")
+    private int maxBytes;
+    
+    @Value("${movie-search.validation.content-check.max-simhash-distance:12}")
+    private int maxSimhashDistance;
+    
+    private final AtomicLong headFallbacks = new AtomicLong();
+    private final AtomicLong verified = new AtomicLong();
+    private final AtomicLong mismatches = new AtomicLong();
+    private final AtomicLong earlyDecisions = new AtomicLong();
+    private final AtomicLong bytesRead = new AtomicLong();
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    /**
+     * Whether a HEAD failure with this status should be retried as a ranged GET
+     */
+    public boolean shouldFallBack(int status) {
+        if (enabled && HEAD_REJECTED.contains(status)) {
+            headFallbacks.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+    
+    /**
+     * What a TLD rotation candidate of the site has to match: its stored fingerprint, or
+     * else a title naming the site. Null when content checks are off, in which case
+     * rotations cannot be told apart from parked or squatted domains and are not probed.
+     */
+    public ContentFingerprint rotationExpectation(ContentFingerprint stored, String siteName) {
+        if (!enabled) {
+            return null;
+        }
+        return stored != null ? stored : ContentFingerprint.naming(siteName);
+    }
+    
+    /**
+     * Whether a candidate that answered HEAD still needs its content checked
+     */
+    public boolean needsVerification(ContentFingerprint expected) {
+        return enabled && expected != null;
+    }
+    
+    public String rangeHeader() {
+        return "bytes=0-" + (Math.max(1, maxBytes) - 1);
+    }
+    
+    public int getMaxBytes() {
+        return Math.max(1, maxBytes);
+    }
+    
+    /**
+     * Read the start of a response body, at most max-bytes of it. With an expected
+     * fingerprint, reading stops once the title has arrived and matches.
+     */
+    public Sample sample(InputStream body, ContentFingerprint expected) throws IOException {
+        byte[] buffer = new byte[getMaxBytes()];
+        int length = 0;
+        boolean titleChecked = expected == null || expected.title() == null;
+        
+        while (length < buffer.length) {
+            int read = body.read(buffer, length, Math.min(CHUNK_SIZE, buffer.length - length));
+            if (read < 0) {
+                bytesRead.addAndGet(length);
+                return new Sample(ContentFingerprint.of(buffer, length), true);
+            }
+            length += read;
+            
+            if (!titleChecked) {
+                String title = ContentFingerprint.extractTitle(new String(buffer, 0, length, StandardCharsets.UTF_8));
+                if (title != null) {
+                    titleChecked = true;
+                    if (new ContentFingerprint(title, null).titleMatches(expected)) {
+                        earlyDecisions.incrementAndGet();
+                        bytesRead.addAndGet(length);
+                        // Only part of the page was read, so its simhash would not compare with
+                        // full samples; the expected one is carried over instead
+                        return new Sample(new ContentFingerprint(title, expected.simhash()), false);
+                    }
+                }
+            }
+        }
+        bytesRead.addAndGet(length);
+        // A server that honoured the range has nothing left; one byte more tells the two apart
+        boolean exhausted = length == buffer.length && body.read() < 0;
+        return new Sample(ContentFingerprint.of(buffer, length), exhausted);
+    }
+    
+    /**
+     * Fingerprint a body prefix that was read elsewhere, e.g. by the reactive client
+     */
+    public ContentFingerprint fingerprint(byte[] content) {
+        bytesRead.addAndGet(content.length);
+        return ContentFingerprint.of(content, content.length);
+    }
+    
+    /**
+     * Whether the sampled page is the site; without an expected fingerprint any page is
+     */
+    public boolean verify(String url, ContentFingerprint actual, ContentFingerprint expected) {
+        verified.incrementAndGet();
+        if (expected == null || actual.matches(expected, maxSimhashDistance)) {
+            return true;
+        }
+        mismatches.incrementAndGet();
+        logger.info("{} answered but does not look like the site (title: {})", url, actual.title());
+        return false;
+    }
+    
+    /**
+     * Fingerprint of the start of a page, and whether the whole body was read. A body that
+     * was not read to the end is aborted rather than drained.
+     */
+    public record Sample(ContentFingerprint fingerprint, boolean exhausted) {
+    }
+    
+    public Map<String, Object> getStatistics() {
+        return Map.of(
+            "enabled", enabled,
+            "maxBytes", getMaxBytes(),
+            "headFallbacks", headFallbacks.get(),
+            "verified", verified.get(),
+            "mismatches", mismatches.get(),
+            "earlyDecisions", earlyDecisions.get(),
+            "bytesRead", bytesRead.get()
+        );
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("probe.content.head.fallbacks", headFallbacks, AtomicLong::get).register(registry);
+        FunctionCounter.builder("probe.content.verified", verified, AtomicLong::get).register(registry);
+        FunctionCounter.builder("probe.content.mismatches", mismatches, AtomicLong::get).register(registry);
+        FunctionCounter.builder("probe.content.bytes", bytesRead, AtomicLong::get).register(registry);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,348 @@
+package com.movielinks.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Circuit breakers and retry budgets for outbound dependencies. Browserless and each
+ * search engine have a breaker, so a dead Browserless or an engine serving captchas
+ * fails fast instead of costing every alias a full failed call. Browserless calls and
+ * probes retry transient failures with jittered backoff, bounded by a retry budget.
+ * Probed hosts have no breaker of their own: ProbeFailureCache already backs off
+ * each failing host.
+ */
+@Component
+public class DependencyGuard implements MeterBinder {
+    
+    private static final Logger logger = LoggerFactory.getLogger(DependencyGuard.class);
+    
+    @Value("${movie-search.resilience.breaker.window-size:20}")
+    private int windowSize;
+    
+    @Value("${movie-search.resilience.breaker.minimum-calls:5}")
+    private int minimumCalls;
+    
+    @Value("${movie-search.resilience.breaker.failure-rate-threshold:0.5}")
+    private double failureRateThreshold;
+    
+    @Value("${movie-search.resilience.breaker.open-seconds:60}")
+    private long openSeconds;
+    
+    @Value("${movie-search.resilience.breaker.half-open-calls:2}")
+    private int halfOpenCalls;
+    
+    @Value("${movie-search.resilience.retry.browserless-max-attempts:3}")
+    private int browserlessMaxAttempts;
+    
+    @Value("${movie-search.resilience.retry.probe-max-attempts:2}")
+    private int probeMaxAttempts;
+    
+    @Value("${movie-search.resilience.retry.budget-ratio:0.2}")
+    private double budgetRatio;
+    
+    @Value("${movie-search.resilience.retry.min-retries:3}")
+    private int minRetries;
+    
+    @Value("${movie-search.resilience.retry.base-backoff-ms:250}")
+    private long baseBackoffMs;
+    
+    @Value("${movie-search.resilience.retry.max-backoff-ms:4000}")
+    private long maxBackoffMs;
+    
+    /**
+     * Outbound dependencies with their own breaker or retry budget
+     */
+    public enum Dependency {
+        BROWSERLESS, GOOGLE, DUCKDUCKGO, PROBE;
+        
+        public static Dependency of(SearchEngine engine) {
+            return engine == SearchEngine.GOOGLE ? GOOGLE : DUCKDUCKGO;
+        }
+    }
+    
+    /**
+     * Thrown instead of making a call while the dependency's breaker is open
+     */
+    public static class CircuitOpenException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        
+        public CircuitOpenException(Dependency dependency) {
+            super("Circuit breaker open for " + dependency);
+        }
+    }
+    
+    private final Map<Dependency, CircuitBreaker> breakers = new EnumMap<>(Dependency.class);
+    private final Map<Dependency, RetryBudget> budgets = new EnumMap<>(Dependency.class);
+    
+    @PostConstruct
+    void initBreakers() {
+        for (Dependency dependency : List.of(Dependency.BROWSERLESS, Dependency.GOOGLE, Dependency.DUCKDUCKGO)) {
+            breakers.put(dependency, new CircuitBreaker(windowSize, minimumCalls, failureRateThreshold,
+                TimeUnit.SECONDS.toMillis(openSeconds), halfOpenCalls));
+        }
+        for (Dependency dependency : List.of(Dependency.BROWSERLESS, Dependency.PROBE)) {
+            budgets.put(dependency, new RetryBudget(budgetRatio, minRetries, baseBackoffMs, maxBackoffMs));
+        }
+    }
+    
+    /**
+     * Whether calls to the dependency are currently let through
+     */
+    public boolean isAvailable(Dependency dependency) {
+        CircuitBreaker breaker = breakers.get(dependency);
+        return breaker == null || breaker.isCallPermitted();
+    }
+    
+    /**
+     * Whether the engine can be searched: both its breaker and the Browserless breaker are closed
+     */
+    public boolean canSearch(SearchEngine engine) {
+        return isAvailable(Dependency.BROWSERLESS) && isAvailable(Dependency.of(engine));
+    }
+    
+    /**
+     * Make the call through the dependency's breaker, retrying transient failures
+     * within the retry budget. Any exception counts as a failure of the dependency.
+     */
+    public <T> T execute(Dependency dependency, Supplier<T> call) {
+        CircuitBreaker breaker = breakers.get(dependency);
+        RetryBudget budget = budgets.get(dependency);
+        if (budget != null) {
+            budget.onFirstAttempt();
+        }
+        
+        for (int attempt = 1; ; attempt++) {
+            if (breaker != null && !breaker.tryAcquire()) {
+                throw new CircuitOpenException(dependency);
+            }
+            try {
+                T result = call.get();
+                if (breaker != null) {
+                    breaker.onSuccess();
+                }
+                return result;
+            } catch (RuntimeException e) {
+                boolean interrupted = Thread.currentThread().isInterrupted();
+                if (breaker != null) {
+                    if (interrupted) {
+                        breaker.onIgnored();
+                    } else {
+                        breaker.onFailure();
+                    }
+                }
+                if (interrupted || !shouldRetry(dependency, e, attempt)) {
+                    throw e;
+                }
+                long backoffMs = budget.backoffMillis(attempt);
+                logger.debug("Retrying {} in {} ms after: {}", dependency, backoffMs, e.getMessage());
+                try {
+                    TimeUnit.MILLISECONDS.sleep(backoffMs);
+                } catch (InterruptedException interruptedException) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Non-blocking variant of {@link #execute}; the backoff is a timer, not a sleeping thread
+     */
+    public <T> Mono<T> executeReactive(Dependency dependency, Supplier<Mono<T>> call) {
+        return Mono.defer(() -> {
+            RetryBudget budget = budgets.get(dependency);
+            if (budget != null) {
+                budget.onFirstAttempt();
+            }
+            return attemptReactive(dependency, call, 1);
+        });
+    }
+    
+    /**
+     * Make the call through the dependency's breaker without retrying, judging the
+     * outcome from the result. Exceptions release the permit without counting, for calls
+     * whose errors belong to another dependency.
+     */
+    public <T> T executeJudged(Dependency dependency, Supplier<T> call, Predicate<T> succeeded) {
+        CircuitBreaker breaker = breakers.get(dependency);
+        if (breaker != null && !breaker.tryAcquire()) {
+            throw new CircuitOpenException(dependency);
+        }
+        T result;
+        try {
+            result = call.get();
+        } catch (RuntimeException e) {
+            if (breaker != null) {
+                breaker.onIgnored();
+            }
+            throw e;
+        }
+        if (breaker != null) {
+            if (succeeded.test(result)) {
+                breaker.onSuccess();
+            } else {
+                breaker.onFailure();
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Non-blocking variant of {@link #executeJudged}
+     */
+    public <T> Mono<T> executeJudgedReactive(Dependency dependency, Supplier<Mono<T>> call, Predicate<T> succeeded) {
+        return Mono.defer(() -> {
+            CircuitBreaker breaker = breakers.get(dependency);
+            if (breaker == null) {
+                return call.get();
+            }
+            if (!breaker.tryAcquire()) {
+                return Mono.error(new CircuitOpenException(dependency));
+            }
+            AtomicBoolean settled = new AtomicBoolean();
+            return call.get()
+                .doOnNext(result -> {
+                    if (settled.compareAndSet(false, true)) {
+                        if (succeeded.test(result)) {
+                            breaker.onSuccess();
+                        } else {
+                            breaker.onFailure();
+                        }
+                    }
+                })
+                .doFinally(signal -> {
+                    if (settled.compareAndSet(false, true)) {
+                        breaker.onIgnored();
+                    }
+                });
+        });
+    }
+    
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        for (Dependency dependency : Dependency.values()) {
+            Map<String, Object> dependencyStatistics = new LinkedHashMap<>();
+            CircuitBreaker breaker = breakers.get(dependency);
+            if (breaker != null) {
+                dependencyStatistics.put("breaker", breaker.getStatistics());
+            }
+            RetryBudget budget = budgets.get(dependency);
+            if (budget != null) {
+                dependencyStatistics.put("retryBudget", Map.of(
+                    "balance", budget.getBalance(),
+                    "retries", budget.getRetries(),
+                    "exhausted", budget.getExhausted()
+                ));
+            }
+            statistics.put(dependency.name().toLowerCase(), dependencyStatistics);
+        }
+        return statistics;
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        breakers.forEach((dependency, breaker) -> {
+            String tag = dependency.name().toLowerCase();
+            Gauge.builder("dependency.circuit.state", breaker, b -> b.getState().ordinal())
+                .description("0 closed, 1 open, 2 half-open")
+                .tag("dependency", tag)
+                .register(registry);
+            FunctionCounter.builder("dependency.circuit.rejected", breaker, CircuitBreaker::getRejectedCalls)
+                .tag("dependency", tag)
+                .register(registry);
+            FunctionCounter.builder("dependency.circuit.opened", breaker, CircuitBreaker::getTimesOpened)
+                .tag("dependency", tag)
+                .register(registry);
+        });
+        budgets.forEach((dependency, budget) -> {
+            String tag = dependency.name().toLowerCase();
+            FunctionCounter.builder("dependency.retries", budget, RetryBudget::getRetries)
+                .tag("dependency", tag)
+                .register(registry);
+            FunctionCounter.builder("dependency.retries.exhausted", budget, RetryBudget::getExhausted)
+                .tag("dependency", tag)
+                .register(registry);
+        });
+    }
+    
+    private <T> Mono<T> attemptReactive(Dependency dependency, Supplier<Mono<T>> call, int attempt) {
+        return Mono.defer(() -> {
+            CircuitBreaker breaker = breakers.get(dependency);
+            if (breaker != null && !breaker.tryAcquire()) {
+                return Mono.<T>error(new CircuitOpenException(dependency));
+            }
+            AtomicBoolean settled = new AtomicBoolean();
+            Mono<T> guarded = call.get();
+            if (breaker != null) {
+                guarded = guarded
+                    .doOnEach(signal -> {
+                        if ((signal.isOnNext() || signal.isOnComplete()) && settled.compareAndSet(false, true)) {
+                            breaker.onSuccess();
+                        } else if (signal.isOnError() && settled.compareAndSet(false, true)) {
+                            breaker.onFailure();
+                        }
+                    })
+                    .doOnCancel(() -> {
+                        if (settled.compareAndSet(false, true)) {
+                            breaker.onIgnored();
+                        }
+                    });
+            }
+            return guarded.onErrorResume(e -> {
+                if (!shouldRetry(dependency, e, attempt)) {
+                    return Mono.error(e);
+                }
+                long backoffMs = budgets.get(dependency).backoffMillis(attempt);
+                logger.debug("Retrying {} in {} ms after: {}", dependency, backoffMs, e.getMessage());
+                return Mono.delay(Duration.ofMillis(backoffMs)).then(attemptReactive(dependency, call, attempt + 1));
+            });
+        });
+    }
+    
+    private boolean shouldRetry(Dependency dependency, Throwable error, int attempt) {
+        RetryBudget budget = budgets.get(dependency);
+        int maxAttempts = dependency == Dependency.PROBE ? probeMaxAttempts : browserlessMaxAttempts;
+        return budget != null
+            && attempt < maxAttempts
+            && isTransient(dependency, error)
+            && budget.tryRetry();
+    }
+    
+    /**
+     * Timeouts, throttling and gateway errors are worth retrying. A refused connection is
+     * too for Browserless, which may be restarting, but not for a probe, where it almost
+     * always means the mirror is gone.
+     */
+    private boolean isTransient(Dependency dependency, Throwable error) {
+        Integer status = null;
+        if (error instanceof RestClientResponseException responseError) {
+            status = responseError.getStatusCode().value();
+        } else if (error instanceof WebClientResponseException responseError) {
+            status = responseError.getStatusCode().value();
+        }
+        if (status != null) {
+            return status == 429 || status == 502 || status == 503 || status == 504;
+        }
+        
+        ProbeFailureCache.FailureReason reason = ProbeFailureCache.FailureReason.classify(error);
+        return reason == ProbeFailureCache.FailureReason.TIMEOUT
+            || (reason == ProbeFailureCache.FailureReason.CONNECT && dependency == Dependency.BROWSERLESS);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,195 @@
+package com.movielinks.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Asynchronous DNS stage in front of HTTP probing. Lookups run on a dedicated pool and
+ * results are cached: resolvable hosts for the positive TTL, NXDOMAIN for the shorter
+ * negative TTL. Dead movie domains usually fail here, so no socket or probe thread is
+ * spent on them. Lookups that time out or fail transiently count as unresolvable but
+ * are not cached.
+ */
+@Component
+public class DnsResolver implements MeterBinder {
+    
+    private static final Logger logger = LoggerFactory.getLogger(DnsResolver.class);
+    
+    @Value("${movie-search.dns.positive-ttl-seconds:300}")
+    private long positiveTtlSeconds;
+    
+    @Value("${movie-search.dns.negative-ttl-seconds:60}")
+    private long negativeTtlSeconds;
+    
+    @Value("${movie-search.dns.timeout-ms:2000}")
+    private long timeoutMs;
+    
+    @Value("${movie-search.dns.pool-size:16}")
+    private int poolSize;
+    
+    @Value("${movie-search.dns.max-entries:5000}")
+    private int maxEntries;
+    
+    private final HostLookup hostLookup;
+    
+    private final ConcurrentMap<String, CacheEntry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, CompletableFuture<Boolean>> inFlight = new ConcurrentHashMap<>();
+    
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong unresolvable = new AtomicLong();
+    
+    private ExecutorService lookupExecutor;
+    
+    public DnsResolver(ObjectProvider<HostLookup> hostLookup) {
+        this.hostLookup = hostLookup.getIfAvailable(() -> InetAddress::getAllByName);
+    }
+    
+    @PostConstruct
+    void initLookupExecutor() {
+        AtomicInteger threadCount = new AtomicInteger();
+        lookupExecutor = Executors.newFixedThreadPool(Math.max(1, poolSize), runnable -> {
+            Thread thread = new Thread(runnable, "dns-lookup-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    @PreDestroy
+    void shutdownLookupExecutor() {
+        lookupExecutor.shutdownNow();
+    }
+    
+    /**
+     * Whether the host resolves. Completes from the cache immediately when possible;
+     * concurrent lookups of the same host share one query. Never completes exceptionally.
+     */
+    public CompletableFuture<Boolean> resolveAsync(String host) {
+        if (host == null || host.isBlank()) {
+            return CompletableFuture.completedFuture(false);
+        }
+        
+        String key = host.trim().toLowerCase();
+        CacheEntry cached = entries.get(key);
+        if (cached != null && cached.expiresAtNanos() - System.nanoTime() > 0) {
+            hits.incrementAndGet();
+            return CompletableFuture.completedFuture(cached.resolvable());
+        }
+        misses.incrementAndGet();
+        
+        CompletableFuture<Boolean> lookup = new CompletableFuture<>();
+        CompletableFuture<Boolean> existing = inFlight.putIfAbsent(key, lookup);
+        if (existing != null) {
+            return existing;
+        }
+        
+        lookup.whenComplete((resolvable, error) -> inFlight.remove(key, lookup));
+        try {
+            lookupExecutor.execute(() -> lookup.complete(lookup(key)));
+        } catch (RejectedExecutionException e) {
+            lookup.complete(false);
+        }
+        
+        // A lookup still running at the timeout finishes in the background and fills the cache
+        return lookup.completeOnTimeout(false, timeoutMs, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Blocking convenience for callers already on a worker thread
+     */
+    public boolean isResolvable(String host) {
+        return resolveAsync(host).join();
+    }
+    
+    /**
+     * Keep only the URLs whose host resolves, in their original order. All hosts are
+     * looked up in parallel, so the batch takes at most one lookup timeout.
+     */
+    public List<String> filterResolvable(List<String> urls) {
+        List<CompletableFuture<Boolean>> lookups = new ArrayList<>(urls.size());
+        for (String url : urls) {
+            lookups.add(resolveAsync(UrlHosts.hostOf(url)));
+        }
+        
+        List<String> resolvable = new ArrayList<>();
+        for (int i = 0; i < urls.size(); i++) {
+            if (lookups.get(i).join()) {
+                resolvable.add(urls.get(i));
+            }
+        }
+        return resolvable;
+    }
+    
+    public int size() {
+        return entries.size();
+    }
+    
+    public Map<String, Object> getStatistics() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long lookups = hitCount + missCount;
+        return Map.of(
+            "size", size(),
+            "inFlight", inFlight.size(),
+            "positiveTtlSeconds", positiveTtlSeconds,
+            "negativeTtlSeconds", negativeTtlSeconds,
+            "hits", hitCount,
+            "misses", missCount,
+            "unresolvable", unresolvable.get(),
+            "hitRate", lookups == 0 ? 0.0 : (double) hitCount / lookups
+        );
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("dns.cache.hits", hits, AtomicLong::get).register(registry);
+        FunctionCounter.builder("dns.cache.misses", misses, AtomicLong::get).register(registry);
+        FunctionCounter.builder("dns.lookups.unresolvable", unresolvable, AtomicLong::get).register(registry);
+        Gauge.builder("dns.cache.size", this, DnsResolver::size).register(registry);
+    }
+    
+    private boolean lookup(String host) {
+        try {
+            boolean resolvable = hostLookup.lookup(host).length > 0;
+            cache(host, resolvable, positiveTtlSeconds);
+            return resolvable;
+        } catch (UnknownHostException e) {
+            unresolvable.incrementAndGet();
+            cache(host, false, negativeTtlSeconds);
+            return false;
+        } catch (Exception e) {
+            logger.debug("DNS lookup failed for {}: {}", host, e.getMessage());
+            return false;
+        }
+    }
+    
+    private void cache(String host, boolean resolvable, long ttlSeconds) {
+        if (entries.size() >= maxEntries) {
+            long now = System.nanoTime();
+            entries.values().removeIf(entry -> entry.expiresAtNanos() - now <= 0);
+            if (entries.size() >= maxEntries) {
+                entries.clear();
+            }
+        }
+        entries.put(host, new CacheEntry(resolvable, System.nanoTime() + TimeUnit.SECONDS.toNanos(ttlSeconds)));
+    }
+    
+    private record CacheEntry(boolean resolvable, long expiresAtNanos) {
+    }
+}
\ No newline at end of file
@@ -0,0 +1,108 @@
+package com.movielinks.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+
+/**
+ * Builds likely hostnames for a site that has moved by swapping its TLD
+ * (movierulz.xyz, movierulz.wiki, movierulz.tel, ...). The neighbours, in the configured
+ * rotation list, of TLDs the site has used before come first, then the rest of the list.
+ * Candidates that do not resolve in DNS are dropped before any HTTP probe is made.
+ */
+@Component
+public class DomainCandidateGenerator {
+    
+    private static final Logger logger = LoggerFactory.getLogger(DomainCandidateGenerator.class);
+    
+    @Value("${movie-search.candidates.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${movie-search.candidates.tlds:xyz,wiki,tel,com,in,ms,pl,tv,gd,sb,sx,cafe,mx,li,vpn}")
+    private List<String> rotationTlds;
+    
+    @Value("${movie-search.candidates.max-candidates:30}")
+    private int maxCandidates;
+    
+    private final DnsResolver dnsResolver;
+    
+    public DomainCandidateGenerator(DnsResolver dnsResolver) {
+        this.dnsResolver = dnsResolver;
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    /**
+     * Candidate URLs for the site in probe order, excluding hosts that are already known
+     */
+    public List<String> generateCandidates(String siteName, Collection<String> knownLocations) {
+        String baseName = baseNameOf(siteName);
+        if (baseName.isEmpty()) {
+            return List.of();
+        }
+        
+        List<String> rotation = new ArrayList<>();
+        for (String tld : rotationTlds) {
+            String normalized = tld.trim().toLowerCase();
+            if (!normalized.isEmpty()) {
+                rotation.add(normalized.startsWith(".") ? normalized.substring(1) : normalized);
+            }
+        }
+        
+        Set<String> knownHosts = new HashSet<>();
+        Set<String> tlds = new LinkedHashSet<>();
+        for (String location : knownLocations) {
+            String host = UrlHosts.domainOf(location);
+            if (host == null) {
+                continue;
+            }
+            knownHosts.add(host);
+            // Sites tend to step through the rotation list, so the neighbours of a TLD the
+            // site has used come first, most recent location first
+            if (host.startsWith(baseName + ".")) {
+                int index = rotation.indexOf(host.substring(baseName.length() + 1));
+                if (index >= 0) {
+                    if (index + 1 < rotation.size()) {
+                        tlds.add(rotation.get(index + 1));
+                    }
+                    if (index > 0) {
+                        tlds.add(rotation.get(index - 1));
+                    }
+                }
+            }
+        }
+        tlds.addAll(rotation);
+        
+        List<String> candidates = new ArrayList<>();
+        for (String tld : tlds) {
+            String host = baseName + "." + tld;
+            if (!knownHosts.contains(host)) {
+                candidates.add("https://" + host);
+            }
+            if (candidates.size() >= maxCandidates) {
+                break;
+            }
+        }
+        return candidates;
+    }
+    
+    /**
+     * Candidate URLs whose host resolves in DNS, keeping probe order. Lookups run in
+     * parallel through the shared DNS cache.
+     */
+    public List<String> findResolvableCandidates(String siteName, Collection<String> knownLocations) {
+        List<String> candidates = generateCandidates(siteName, knownLocations);
+        List<String> resolvable = dnsResolver.filterResolvable(candidates);
+        logger.debug("{} of {} candidate domains for {} resolve", resolvable.size(), candidates.size(), siteName);
+        return resolvable;
+    }
+    
+    private String baseNameOf(String siteName) {
+        return SiteHostMatcher.normalizeSiteName(siteName);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,138 @@
+package com.movielinks.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * When and where to send a hedged HEAD probe. A probe that has not answered within
+ * the host's recent p95 (see {@link WindowedLatency}) gets one duplicate, and whichever
+ * answers first wins. Hosts with too few recent samples fall back to the recent p95
+ * across all hosts; with no recent history at all nothing is hedged. Hedges draw from a global budget of budget-ratio per probe, so a
+ * slow period cannot turn every probe into two.
+ */
+@Component
+public class HedgePolicy implements MeterBinder {
+    
+    @Value("${movie-search.hedging.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${movie-search.hedging.budget-ratio:0.1}")
+    private double budgetRatio;
+    
+    @Value("${movie-search.hedging.min-hedges:2}")
+    private int minHedges;
+    
+    @Value("${movie-search.hedging.min-samples:5}")
+    private int minSamples;
+    
+    @Value("${movie-search.hedging.min-delay-ms:50}")
+    private long minDelayMs;
+    
+    // same: duplicate the request; www: toggle the www. prefix; scheme: toggle http/https
+    @Value("${movie-search.hedging.target:same}")
+    private String target;
+    
+    private final HostHistory hostHistory;
+    
+    private RetryBudget budget;
+    
+    private final AtomicLong hedgesSent = new AtomicLong();
+    private final AtomicLong hedgesWon = new AtomicLong();
+    
+    public HedgePolicy(HostHistory hostHistory) {
+        this.hostHistory = hostHistory;
+    }
+    
+    @PostConstruct
+    void initBudget() {
+        // Backoff settings are unused; hedges are sent at the latency threshold, not after a failure
+        budget = new RetryBudget(budgetRatio, minHedges, 1, 1);
+    }
+    
+    /**
+     * How long to wait for the probe before hedging it, or null if it should not be hedged.
+     * Every primary probe goes through here, which is also what funds the budget.
+     */
+    public Duration hedgeDelay(String url) {
+        if (!enabled) {
+            return null;
+        }
+        budget.onFirstAttempt();
+        
+        HostHistory.HostRecord record = hostHistory.getForUrl(url);
+        LatencyHistogram hostLatency = record != null ? record.getRecentLatency() : null;
+        LatencyHistogram latency = hostLatency != null && hostLatency.getCount() >= minSamples
+            ? hostLatency
+            : hostHistory.getRecentOverallLatency();
+        if (latency.getCount() < minSamples) {
+            return null;
+        }
+        return Duration.ofMillis(Math.max(minDelayMs, latency.percentile(95)));
+    }
+    
+    /**
+     * Take a hedge from the budget
+     */
+    public boolean tryHedge() {
+        if (budget.tryRetry()) {
+            hedgesSent.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+    
+    public void recordHedgeWon() {
+        hedgesWon.incrementAndGet();
+    }
+    
+    /**
+     * URL the hedge goes to: the same URL, its www/non-www twin or its other scheme
+     */
+    public String hedgeTarget(String url) {
+        String host = UrlHosts.hostOf(url);
+        if (host == null) {
+            return url;
+        }
+        switch (target.toLowerCase(Locale.ROOT)) {
+            case "www": {
+                int hostStart = url.toLowerCase(Locale.ROOT).indexOf(host);
+                String twin = host.startsWith("www.") ? host.substring(4) : "www." + host;
+                return url.substring(0, hostStart) + twin + url.substring(hostStart + host.length());
+            }
+            case "scheme":
+                if (url.regionMatches(true, 0, "https://", 0, 8)) {
+                    return "http://" + url.substring(8);
+                }
+                return url.regionMatches(true, 0, "http://", 0, 7) ? "https://" + url.substring(7) : url;
+            default:
+                return url;
+        }
+    }
+    
+    public Map<String, Object> getStatistics() {
+        return Map.of(
+            "enabled", enabled,
+            "target", target,
+            "hedgesSent", hedgesSent.get(),
+            "hedgesWon", hedgesWon.get(),
+            "budgetExhausted", budget.getExhausted(),
+            "budgetBalance", budget.getBalance()
+        );
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("probe.hedges.sent", hedgesSent, AtomicLong::get).register(registry);
+        FunctionCounter.builder("probe.hedges.won", hedgesWon, AtomicLong::get).register(registry);
+        FunctionCounter.builder("probe.hedges.denied", budget, RetryBudget::getExhausted).register(registry);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,195 @@
+package com.movielinks.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Validation history per host: probe successes and failures, the last measured
+ * response time, a latency histogram of successful probes and when the host was
+ * first seen. Feeds candidate ranking and the response-time figures in monitoring.
+ * Past max-hosts, the least recently used host is forgotten.
+ */
+@Component
+public class HostHistory {
+    
+    @Value("${movie-search.host-history.max-hosts:5000}")
+    private int maxHosts;
+    
+    // Access-ordered, so the least recently probed or ranked host is forgotten first
+    private final Map<String, HostRecord> hosts = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, HostRecord> eldest) {
+            return size() > Math.max(1, maxHosts);
+        }
+    };
+    
+    @Value("${movie-search.host-history.latency-window-minutes:10}")
+    private long latencyWindowMinutes;
+    
+    private final LatencyHistogram overallLatency = new LatencyHistogram();
+    
+    private WindowedLatency recentOverallLatency;
+    
+    public void recordSuccess(String url, long responseTimeMs) {
+        HostRecord record = recordFor(url);
+        if (record != null) {
+            record.success(responseTimeMs);
+            overallLatency.record(responseTimeMs);
+            recentOverallLatency().record(responseTimeMs);
+        }
+    }
+    
+    public void recordFailure(String url) {
+        HostRecord record = recordFor(url);
+        if (record != null) {
+            record.failure();
+        }
+    }
+    
+    /**
+     * History of the host, or null if it has never been probed
+     */
+    public HostRecord get(String host) {
+        if (host == null) {
+            return null;
+        }
+        synchronized (hosts) {
+            return hosts.get(host.toLowerCase());
+        }
+    }
+    
+    /**
+     * History of the URL's host, or null if it has never been probed
+     */
+    public HostRecord getForUrl(String url) {
+        return url == null ? null : get(UrlHosts.hostOf(url));
+    }
+    
+    /**
+     * Latency percentiles per host that answered at least once, fastest p50 first
+     */
+    public Map<String, LatencyHistogram.Summary> getLatencySummaries() {
+        Map<String, HostRecord> snapshot;
+        synchronized (hosts) {
+            snapshot = new HashMap<>(hosts);
+        }
+        List<Map.Entry<String, LatencyHistogram.Summary>> summaries = new ArrayList<>();
+        snapshot.forEach((host, record) -> {
+            if (record.getLatency().getCount() > 0) {
+                summaries.add(Map.entry(host, record.getLatency().summary()));
+            }
+        });
+        summaries.sort(Comparator.comparingLong((Map.Entry<String, LatencyHistogram.Summary> e) -> e.getValue().p50())
+            .thenComparing(Map.Entry::getKey));
+        
+        Map<String, LatencyHistogram.Summary> ordered = new LinkedHashMap<>();
+        summaries.forEach(entry -> ordered.put(entry.getKey(), entry.getValue()));
+        return ordered;
+    }
+    
+    /**
+     * Response times of every successful probe across all hosts
+     */
+    public LatencyHistogram getOverallLatency() {
+        return overallLatency;
+    }
+    
+    /**
+     * Response times of successful probes across all hosts in the last one to two
+     * latency windows
+     */
+    public LatencyHistogram getRecentOverallLatency() {
+        return recentOverallLatency().snapshot();
+    }
+    
+    private synchronized WindowedLatency recentOverallLatency() {
+        if (recentOverallLatency == null) {
+            recentOverallLatency = new WindowedLatency(latencyWindow());
+        }
+        return recentOverallLatency;
+    }
+    
+    private Duration latencyWindow() {
+        return Duration.ofMinutes(Math.max(1, latencyWindowMinutes));
+    }
+    
+    public int size() {
+        synchronized (hosts) {
+            return hosts.size();
+        }
+    }
+    
+    private HostRecord recordFor(String url) {
+        String host = UrlHosts.hostOf(url);
+        if (host == null) {
+            return null;
+        }
+        synchronized (hosts) {
+            return hosts.computeIfAbsent(host.toLowerCase(), key -> new HostRecord(latencyWindow()));
+        }
+    }
+    
+    /**
+     * Counters for one host
+     */
+    public static class HostRecord {
+        
+        private final long firstSeenMillis = System.currentTimeMillis();
+        private long successes;
+        private long failures;
+        private long lastResponseTimeMs = -1;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final WindowedLatency recentLatency;
+        
+        HostRecord(Duration latencyWindow) {
+            this.recentLatency = new WindowedLatency(latencyWindow);
+        }
+        
+        synchronized void success(long responseTimeMs) {
+            successes++;
+            lastResponseTimeMs = responseTimeMs;
+            latency.record(responseTimeMs);
+            recentLatency.record(responseTimeMs);
+        }
+        
+        synchronized void failure() {
+            failures++;
+        }
+        
+        public long getFirstSeenMillis() {
+            return firstSeenMillis;
+        }
+        
+        public synchronized long getSuccesses() {
+            return successes;
+        }
+        
+        public synchronized long getFailures() {
+            return failures;
+        }
+        
+        /**
+         * Response time of the last successful probe, or -1 if none succeeded
+         */
+        public synchronized long getLastResponseTimeMs() {
+            return lastResponseTimeMs;
+        }
+        
+        /**
+         * Response times of every successful probe
+         */
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+        
+        /**
+         * Response times of successful probes in the last one to two latency windows
+         */
+        public LatencyHistogram getRecentLatency() {
+            return recentLatency.snapshot();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,17 @@
+package com.movielinks.service;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+/**
+ * Resolves a hostname to its addresses. The system resolver is used unless another
+ * implementation is registered as a bean, e.g. a local resolver stand-in.
+ */
+@FunctionalInterface
+public interface HostLookup {
+    
+    /**
+     * Addresses of the host; throws UnknownHostException if the name does not exist
+     */
+    InetAddress[] lookup(String host) throws UnknownHostException;
+}
\ No newline at end of file
@@ -0,0 +1,151 @@
+package com.movielinks.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram in milliseconds with HDR-style log-linear buckets.
+ * Values below 64 ms are counted exactly; above that every power of two is split
+ * into 32 sub-buckets, so a reported percentile is within about 3% of the true value
+ * while the whole range up to about 70 minutes fits in 576 counters.
+ */
+public class LatencyHistogram {
+    
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int LINEAR_LIMIT = SUB_BUCKET_COUNT * 2;
+    private static final long MAX_TRACKABLE_MS = (1L << 22) - 1;
+    private static final int BUCKET_COUNT = indexOf(MAX_TRACKABLE_MS) + 1;
+    
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong totalMs = new AtomicLong();
+    private final AtomicLong maxMs = new AtomicLong();
+    
+    public void record(long valueMs) {
+        long value = Math.max(0, Math.min(valueMs, MAX_TRACKABLE_MS));
+        counts.incrementAndGet(indexOf(value));
+        totalCount.incrementAndGet();
+        totalMs.addAndGet(value);
+        maxMs.accumulateAndGet(value, Math::max);
+    }
+    
+    /**
+     * Add every sample of the other histogram to this one
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long count = other.counts.get(i);
+            if (count > 0) {
+                counts.addAndGet(i, count);
+            }
+        }
+        totalCount.addAndGet(other.totalCount.get());
+        totalMs.addAndGet(other.totalMs.get());
+        maxMs.accumulateAndGet(other.maxMs.get(), Math::max);
+    }
+    
+    public long getCount() {
+        return totalCount.get();
+    }
+    
+    public long getMax() {
+        return maxMs.get();
+    }
+    
+    public long getTotalMs() {
+        return totalMs.get();
+    }
+    
+    public double getMean() {
+        long count = totalCount.get();
+        return count == 0 ? 0.0 : (double) totalMs.get() / count;
+    }
+    
+    /**
+     * Value at the percentile (0-100): the highest value of the bucket holding that
+     * rank, capped at the recorded maximum. 0 when nothing was recorded.
+     */
+    public long percentile(double percentile) {
+        long count = totalCount.get();
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(Math.min(100.0, percentile) / 100.0 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(highestValueOf(i), maxMs.get());
+            }
+        }
+        return maxMs.get();
+    }
+    
+    /**
+     * The non-empty buckets as "index:count" pairs, compact enough to store alongside
+     * the sum and maximum and merge again later
+     */
+    public String encodeBuckets() {
+        StringBuilder encoded = new StringBuilder();
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long count = counts.get(i);
+            if (count > 0) {
+                if (encoded.length() > 0) {
+                    encoded.append(',');
+                }
+                encoded.append(i).append(':').append(count);
+            }
+        }
+        return encoded.toString();
+    }
+    
+    /**
+     * Rebuild a histogram from encodeBuckets output and the stored sum and maximum
+     */
+    public static LatencyHistogram decodeBuckets(String encoded, long totalMs, long maxMs) {
+        LatencyHistogram histogram = new LatencyHistogram();
+        if (encoded != null && !encoded.isEmpty()) {
+            for (String pair : encoded.split(",")) {
+                int separator = pair.indexOf(':');
+                int index = Integer.parseInt(pair.substring(0, separator));
+                long count = Long.parseLong(pair.substring(separator + 1));
+                if (index >= 0 && index < BUCKET_COUNT) {
+                    histogram.counts.addAndGet(index, count);
+                    histogram.totalCount.addAndGet(count);
+                }
+            }
+        }
+        histogram.totalMs.set(totalMs);
+        histogram.maxMs.set(maxMs);
+        return histogram;
+    }
+    
+    public Summary summary() {
+        return new Summary(getCount(), percentile(50), percentile(95), percentile(99), getMax(), getMean());
+    }
+    
+    private static int indexOf(long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift);
+        return LINEAR_LIMIT + (shift - 1) * SUB_BUCKET_COUNT + (subBucket - SUB_BUCKET_COUNT);
+    }
+    
+    private static long highestValueOf(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        int shift = (index - LINEAR_LIMIT) / SUB_BUCKET_COUNT + 1;
+        long subBucket = (index - LINEAR_LIMIT) % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT;
+        return ((subBucket + 1) << shift) - 1;
+    }
+    
+    /**
+     * Point-in-time percentiles of a histogram, in milliseconds
+     */
+    public record Summary(long count, long p50, long p95, long p99, long max, double mean) {
+    }
+}
\ No newline at end of file
@@ -0,0 +1,268 @@
+package com.movielinks.service;
+
+import com.movielinks.repository.SchedulerLeaseRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coordination between instances sharing one database. One instance at a time holds the
+ * leader lease and runs the fleet-wide jobs (the periodic report, the stale-site sweep); it
+ * renews the lease every heartbeat, and if it dies the lease expires and another instance
+ * takes over. Site checks are split through per-site leases: an instance takes a site's
+ * lease before checking it and afterwards keeps it until the site's next check is due, so
+ * the other instances skip the site until then. A lease is only ever taken with a
+ * conditional UPDATE (expired or already ours) or an INSERT that fails on a duplicate key,
+ * so two instances can never both get it. Expiry is always set and compared on the
+ * database clock, so skew between the instances' clocks cannot make a lease look free
+ * early; an instance only times its own leadership locally, from before it asked.
+ */
+@Component
+public class LeaseManager implements MeterBinder {
+    
+    private static final Logger logger = LoggerFactory.getLogger(LeaseManager.class);
+    
+    private static final String LEADER_LEASE = "leader";
+    private static final String SITE_LEASE_PREFIX = "site:";
+    
+    @Value("${monitoring.cluster.enabled:true}")
+    private boolean enabled;
+    
+    // Defaults to the host name plus a random suffix, so restarts never reuse a dead node's id
+    @Value("${monitoring.cluster.node-id:}")
+    private String configuredNodeId;
+    
+    @Value("${monitoring.cluster.leader-lease-seconds:30}")
+    private long leaderLeaseSeconds;
+    
+    @Value("${monitoring.cluster.heartbeat-ms:10000}")
+    private long heartbeatMs;
+    
+    private final SchedulerLeaseRepository leaseRepository;
+    
+    private String nodeId;
+    
+    // Own thread, so a long job on the Spring scheduler cannot let the leader lease lapse
+    private ScheduledExecutorService heartbeat;
+    
+    // System.nanoTime() until which this instance is leader, null while it is not
+    private volatile Long leaderUntilNanos;
+    private final Set<String> checking = ConcurrentHashMap.newKeySet();
+    
+    private final AtomicLong acquired = new AtomicLong();
+    private final AtomicLong contended = new AtomicLong();
+    private final AtomicLong leaderElections = new AtomicLong();
+    
+    public LeaseManager(SchedulerLeaseRepository leaseRepository) {
+        this.leaseRepository = leaseRepository;
+    }
+    
+    @PostConstruct
+    void startHeartbeat() {
+        nodeId = configuredNodeId != null && !configuredNodeId.isBlank()
+            ? configuredNodeId
+            : System.getenv().getOrDefault("HOSTNAME", "node") + "-" + UUID.randomUUID().toString().substring(0, 8);
+        if (!enabled) {
+            return;
+        }
+        heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "lease-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeat.scheduleWithFixedDelay(this::renewLeadership, 0, Math.max(100, heartbeatMs), TimeUnit.MILLISECONDS);
+        logger.info("Cluster coordination enabled, node id {}", nodeId);
+    }
+    
+    @PreDestroy
+    void releaseLeases() {
+        if (!enabled) {
+            return;
+        }
+        heartbeat.shutdownNow();
+        // Leases held until a site's next check are left to expire; they are not work in progress
+        try {
+            checking.forEach(name -> leaseRepository.release(name, nodeId));
+            if (leaderUntilNanos != null) {
+                leaseRepository.release(LEADER_LEASE, nodeId);
+            }
+        } catch (Exception e) {
+            logger.warn("Could not release leases on shutdown: {}", e.getMessage());
+        }
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public String getNodeId() {
+        return nodeId;
+    }
+    
+    /**
+     * Whether this instance should run the fleet-wide jobs. Always true when cluster
+     * coordination is disabled.
+     */
+    public boolean isLeader() {
+        if (!enabled) {
+            return true;
+        }
+        Long until = leaderUntilNanos;
+        return until != null && until - System.nanoTime() > 0;
+    }
+    
+    void renewLeadership() {
+        boolean wasLeader = isLeader();
+        try {
+            // The lease runs from when the database takes it, which is after this
+            long asked = System.nanoTime();
+            if (acquire(LEADER_LEASE, leaderLeaseSeconds)) {
+                leaderUntilNanos = asked + TimeUnit.SECONDS.toNanos(leaderLeaseSeconds);
+                if (!wasLeader) {
+                    leaderElections.incrementAndGet();
+                    logger.info("Node {} is now the scheduler leader", nodeId);
+                }
+            } else {
+                leaderUntilNanos = null;
+                if (wasLeader) {
+                    logger.warn("Node {} lost the scheduler leader lease", nodeId);
+                }
+            }
+        } catch (Exception e) {
+            // Leadership lapses with the lease itself if the database stays unreachable
+            logger.warn("Could not renew the leader lease: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * Take the lease on checking a site, for at most ttl. False means another instance is
+     * checking the site or has checked it and holds it until its next check, or that the
+     * lease table could not be reached.
+     */
+    public boolean tryAcquireSite(String siteName, Duration ttl) {
+        if (!enabled) {
+            return true;
+        }
+        String name = siteLease(siteName);
+        try {
+            if (acquire(name, Math.max(1, ttl.getSeconds()))) {
+                acquired.incrementAndGet();
+                checking.add(name);
+                return true;
+            }
+            contended.incrementAndGet();
+        } catch (Exception e) {
+            logger.warn("Could not take the lease on {}: {}", siteName, e.getMessage());
+        }
+        return false;
+    }
+    
+    /**
+     * After checking a site, keep its lease until the site's next check is due
+     */
+    public void holdSiteUntil(String siteName, LocalDateTime nextCheckAt) {
+        if (!enabled) {
+            return;
+        }
+        String name = siteLease(siteName);
+        checking.remove(name);
+        try {
+            if (nextCheckAt != null) {
+                leaseRepository.extend(name, nodeId, Math.max(0, Duration.between(LocalDateTime.now(), nextCheckAt).getSeconds()));
+            } else {
+                leaseRepository.release(name, nodeId);
+            }
+        } catch (Exception e) {
+            // The check lease then simply expires
+            logger.warn("Could not keep the lease on {}: {}", siteName, e.getMessage());
+        }
+    }
+    
+    /**
+     * When the site's lease expires, i.e. when another instance's check or hold on it ends,
+     * on this instance's clock; null if nobody holds it or the lease table could not be read
+     */
+    public LocalDateTime siteLeaseExpiry(String siteName) {
+        try {
+            return leaseRepository.findSecondsLeft(siteLease(siteName))
+                .map(secondsLeft -> LocalDateTime.now().plusSeconds(secondsLeft))
+                .orElse(null);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+    
+    private boolean acquire(String name, long ttlSeconds) {
+        if (leaseRepository.takeOver(name, nodeId, ttlSeconds) > 0) {
+            return true;
+        }
+        if (leaseRepository.existsById(name)) {
+            return false;
+        }
+        try {
+            return leaseRepository.create(name, nodeId, ttlSeconds) > 0;
+        } catch (DataIntegrityViolationException e) {
+            // Another instance created it first
+            return false;
+        }
+    }
+    
+    private static String siteLease(String siteName) {
+        return SITE_LEASE_PREFIX + siteName.toLowerCase(Locale.ROOT);
+    }
+    
+    public Map<String, Object> getStatistics() {
+        List<Map<String, Object>> leases = new ArrayList<>();
+        if (enabled) {
+            leaseRepository.findActive().forEach(lease -> {
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("name", lease.getName());
+                entry.put("holder", lease.getHolder());
+                entry.put("acquiredAt", lease.getAcquiredAt());
+                entry.put("expiresAt", lease.getExpiresAt());
+                leases.add(entry);
+            });
+        }
+        
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("enabled", enabled);
+        statistics.put("nodeId", nodeId);
+        statistics.put("leader", isLeader());
+        statistics.put("checking", new ArrayList<>(checking));
+        statistics.put("acquired", acquired.get());
+        statistics.put("contended", contended.get());
+        statistics.put("leaderElections", leaderElections.get());
+        statistics.put("leases", leases);
+        return statistics;
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("monitoring.leases.acquired", acquired, AtomicLong::get).register(registry);
+        FunctionCounter.builder("monitoring.leases.contended", contended, AtomicLong::get).register(registry);
+        Gauge.builder("monitoring.leader", this, manager -> manager.isLeader() ? 1 : 0).register(registry);
+    }
+}
\ No newline at end of file
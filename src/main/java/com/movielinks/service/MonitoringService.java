@@ -2,7 +2,15 @@ package com.movielinks.service;
 
 import com.movielinks.model.MovieSite;
 import com.movielinks.repository.MovieSiteRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
@@ -11,15 +19,25 @@ import org.springframework.http.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 @Service
-public class MonitoringService {
+public class MonitoringService implements MeterBinder {
     
     private static final Logger logger = LoggerFactory.getLogger(MonitoringService.class);
     
+    private static final List<String> HEALTH_CHECK_SITES = List.of(
+        "movierulz", "moviezap", "tamilrockers", "filmywap",
+        "worldfree4u", "9xmovies", "khatrimaza", "bolly4u"
+    );
+    
     @Autowired
     private MovieSiteRepository movieSiteRepository;
     
@@ -30,6 +48,19 @@ public class MonitoringService {
     private NotificationService notificationService;
     
     @Autowired
+    private HostHistory hostHistory;
+    
+    @Autowired
+    private SiteCheckScheduler siteCheckScheduler;
+    
+    @Autowired
+    private LeaseManager leaseManager;
+    
+    @Autowired
+    private CheckHistoryService checkHistoryService;
+    
+    @Autowired
+    @Qualifier("notificationRestTemplate")
     private RestTemplate restTemplate;
     
     @Value("${monitoring.check-interval-hours:6}")
@@ -41,51 +72,124 @@ public class MonitoringService {
     @Value("${n8n.webhook.url}")
     private String n8nWebhookUrl;
     
+    @Value("${monitoring.health-check.pool-size:4}")
+    private int healthCheckPoolSize;
+    
+    @Value("${monitoring.health-check.deadline-minutes:60}")
+    private long healthCheckDeadlineMinutes;
+    
+    @Value("${monitoring.liveness.enabled:true}")
+    private boolean livenessEnabled;
+    
+    // Longest a site check may run before another instance may take the site over
+    @Value("${monitoring.cluster.site-lease-minutes:10}")
+    private long siteLeaseMinutes;
+    
+    private ExecutorService healthCheckExecutor;
+    
+    private final AtomicBoolean healthCheckRunning = new AtomicBoolean();
+    private final AtomicLong healthCheckRuns = new AtomicLong();
+    private final AtomicLong healthCheckTotalMs = new AtomicLong();
+    private final AtomicLong lastHealthCheckMs = new AtomicLong();
+    private final AtomicLong skippedHealthChecks = new AtomicLong();
+    private final AtomicLong livenessConfirmed = new AtomicLong();
+    private final AtomicLong rediscoveries = new AtomicLong();
+    
+    @PostConstruct
+    void initHealthCheckExecutor() {
+        AtomicInteger threadCount = new AtomicInteger();
+        healthCheckExecutor = Executors.newFixedThreadPool(Math.max(1, healthCheckPoolSize), runnable -> {
+            Thread thread = new Thread(runnable, "health-check-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    @PreDestroy
+    void shutdownHealthCheckExecutor() {
+        healthCheckExecutor.shutdownNow();
+    }
+    
     /**
-     * Scheduled health check for all movie sites
-     * Runs every 6 hours by default
+     * Periodic health report, every 6 hours by default. With adaptive scheduling each site
+     * is already checked on its own schedule, so only the leader sends the report.
+     * Otherwise every instance runs a full check, split between them through per-site
+     * leases, and the leader's run sends the report.
      */
     @Scheduled(fixedRateString = "${monitoring.check-interval-ms:21600000}") // 6 hours
+    public void runScheduledHealthCheck() {
+        if (!siteCheckScheduler.isEnabled()) {
+            performHealthCheck(true);
+            return;
+        }
+        if (!leaseManager.isLeader()) {
+            logger.debug("Not the scheduler leader, leaving the health report to the lease holder");
+            return;
+        }
+        try {
+            Map<String, String> results = new LinkedHashMap<>();
+            movieSiteRepository.findAll().forEach(site -> results.put(site.getSiteName(), site.getStatus()));
+            sendReportToN8n(generateMonitoringReport(results, List.of(), List.of()));
+        } catch (Exception e) {
+            logger.error("Error sending scheduled health report: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * Check every site now on this instance. Sites are checked pool-size at a time; the
+     * report and alerts are sent once every check has finished or the deadline has passed.
+     * A run that starts while the previous one is still going is skipped.
+     */
     public void performScheduledHealthCheck() {
+        performHealthCheck(false);
+    }
+    
+    /**
+     * Run a full check. A shared run takes each site's lease first and holds it until the
+     * next full check; a site another instance holds is reported with its stored status.
+     * Alerts come from the instance that checked the site, the report only from the leader.
+     */
+    private void performHealthCheck(boolean shared) {
+        if (!healthCheckRunning.compareAndSet(false, true)) {
+            skippedHealthChecks.incrementAndGet();
+            logger.warn("Previous health check is still running, skipping this one");
+            return;
+        }
         logger.info("Starting scheduled health check for all movie sites");
+        long started = System.nanoTime();
         
         try {
-            List<String> sitesToCheck = Arrays.asList(
-                "movierulz", "moviezap", "tamilrockers", "filmywap",
-                "worldfree4u", "9xmovies", "khatrimaza", "bolly4u"
-            );
+            List<Callable<SiteCheck>> checks = new ArrayList<>();
+            for (String siteName : HEALTH_CHECK_SITES) {
+                checks.add(() -> shared ? checkLeasedSite(siteName) : checkSite(siteName));
+            }
+            // Sites still running at the deadline are cancelled
+            List<Future<SiteCheck>> futures = healthCheckExecutor.invokeAll(
+                checks, healthCheckDeadlineMinutes, TimeUnit.MINUTES);
             
-            Map<String, String> results = new HashMap<>();
+            // Collected on this thread only, in site order, once every worker is done
+            Map<String, String> results = new LinkedHashMap<>();
             List<String> downSites = new ArrayList<>();
             List<String> newWorkingSites = new ArrayList<>();
             
-            for (String siteName : sitesToCheck) {
+            for (int i = 0; i < futures.size(); i++) {
+                String siteName = HEALTH_CHECK_SITES.get(i);
                 try {
-                    MovieSite previousState = movieSiteRepository.findBySiteNameIgnoreCase(siteName).orElse(null);
-                    MovieSite currentState = searchService.findWorkingLink(siteName);
-                    
-                    // Save current state
-                    if (previousState != null) {
-                        currentState.setId(previousState.getId());
+                    SiteCheck check = futures.get(i).get();
+                    if (check.status() == null) {
+                        continue;
                     }
-                    movieSiteRepository.save(currentState);
-                    
-                    results.put(siteName, currentState.getStatus());
-                    
-                    // Check for status changes
-                    if (previousState != null) {
-                        if ("WORKING".equals(previousState.getStatus()) && !"WORKING".equals(currentState.getStatus())) {
-                            downSites.add(siteName);
-                        } else if (!"WORKING".equals(previousState.getStatus()) && "WORKING".equals(currentState.getStatus())) {
-                            newWorkingSites.add(siteName);
-                        }
+                    results.put(siteName, check.status());
+                    if (check.wentDown()) {
+                        downSites.add(siteName);
+                    } else if (check.cameUp()) {
+                        newWorkingSites.add(siteName);
                     }
-                    
-                    // Add delay between checks
-                    Thread.sleep(3000);
-                    
-                } catch (Exception e) {
-                    logger.error("Error checking site {}: {}", siteName, e.getMessage());
+                } catch (CancellationException e) {
+                    logger.error("Health check of {} did not finish within {} minutes", siteName, healthCheckDeadlineMinutes);
+                    results.put(siteName, "ERROR");
+                } catch (ExecutionException e) {
+                    logger.error("Error checking site {}: {}", siteName, e.getCause().getMessage());
                     results.put(siteName, "ERROR");
                 }
             }
@@ -99,21 +203,188 @@ public class MonitoringService {
             }
             
             // Send report to n8n
-            sendReportToN8n(report);
+            if (!shared || leaseManager.isLeader()) {
+                sendReportToN8n(report);
+            }
             
-            logger.info("Scheduled health check completed. Working: {}, Down: {}", 
+            logger.info("Scheduled health check completed in {} ms. Working: {}, Down: {}",
+                       TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started),
                        report.getWorkingSitesCount(), report.getDownSitesCount());
             
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         } catch (Exception e) {
             logger.error("Error during scheduled health check: {}", e.getMessage());
+        } finally {
+            long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+            lastHealthCheckMs.set(durationMs);
+            healthCheckTotalMs.addAndGet(durationMs);
+            healthCheckRuns.incrementAndGet();
+            healthCheckRunning.set(false);
+        }
+    }
+    
+    /**
+     * Check the sites whose adaptive schedule is due, as many as there are idle workers.
+     * Each site's lease is taken first; a site another instance is checking, or has
+     * checked and holds until its next check, is put back until that lease expires.
+     * Status changes are alerted as soon as each check finishes.
+     */
+    @Scheduled(fixedDelayString = "${monitoring.adaptive.tick-ms:30000}")
+    public void runDueSiteChecks() {
+        if (!siteCheckScheduler.isEnabled()) {
+            return;
+        }
+        try {
+            if (!siteCheckScheduler.isSeeded()) {
+                siteCheckScheduler.seed(HEALTH_CHECK_SITES, movieSiteRepository.findAll());
+            }
+            int idleWorkers = Math.max(1, healthCheckPoolSize) - siteCheckScheduler.getInFlight();
+            for (String siteName : siteCheckScheduler.pollDue(Math.max(0, idleWorkers))) {
+                if (!leaseManager.tryAcquireSite(siteName, Duration.ofMinutes(siteLeaseMinutes))) {
+                    siteCheckScheduler.defer(siteName, leaseManager.siteLeaseExpiry(siteName));
+                    continue;
+                }
+                healthCheckExecutor.submit(() -> {
+                    try {
+                        SiteCheck check = checkSite(siteName);
+                        leaseManager.holdSiteUntil(siteName, check.nextCheckAt());
+                        if (check.wentDown() || check.cameUp()) {
+                            sendAlerts(MonitoringReport.builder()
+                                .downSites(check.wentDown() ? List.of(siteName) : List.of())
+                                .newWorkingSites(check.cameUp() ? List.of(siteName) : List.of())
+                                .build());
+                        }
+                    } catch (Exception e) {
+                        logger.error("Error finishing scheduled check of {}: {}", siteName, e.getMessage());
+                    }
+                });
+            }
+        } catch (Exception e) {
+            logger.error("Error dispatching due site checks: {}", e.getMessage());
         }
     }
     
+    /**
+     * Check one site in two tiers. A working site is first probed once at its stored URL;
+     * if that still answers, only its check time and response times are saved. Only when
+     * it does not (or the site was not working) is the site resolved again with
+     * findWorkingLink, the result saved and its status compared with the stored one.
+     * The site's next adaptive check is scheduled from the outcome.
+     */
+    private SiteCheck checkSite(String siteName) {
+        MovieSite previousState = null;
+        LocalDateTime nextCheckAt = null;
+        try {
+            previousState = movieSiteRepository.findBySiteNameIgnoreCase(siteName).orElse(null);
+            if (livenessEnabled && previousState != null && "WORKING".equals(previousState.getStatus())
+                    && searchService.confirmWorkingLink(previousState)) {
+                livenessConfirmed.incrementAndGet();
+                nextCheckAt = siteCheckScheduler.recordCheck(siteName, previousState, previousState);
+                checkHistoryService.record(siteName, previousState.getCurrentWorkingUrl(), "WORKING", "LIVENESS",
+                    previousState.getResponseTime(), coveredUntil(nextCheckAt));
+                movieSiteRepository.updateLiveness(previousState.getId(), previousState.getLastChecked(),
+                    previousState.getResponseTime(), previousState.getResponseTimeP50(),
+                    previousState.getResponseTimeP95(), previousState.getResponseTimeP99(),
+                    previousState.getNextCheckAt());
+                return new SiteCheck("WORKING", false, false, nextCheckAt);
+            }
+            
+            rediscoveries.incrementAndGet();
+            MovieSite currentState = searchService.findWorkingLink(siteName);
+            nextCheckAt = siteCheckScheduler.recordCheck(siteName, previousState, currentState);
+            checkHistoryService.record(siteName, currentState.getCurrentWorkingUrl(), currentState.getStatus(),
+                "REDISCOVERY", currentState.getResponseTime(), coveredUntil(nextCheckAt));
+            
+            // Save current state
+            if (previousState != null) {
+                currentState.setId(previousState.getId());
+            }
+            movieSiteRepository.save(currentState);
+            
+            boolean wasWorking = previousState != null && "WORKING".equals(previousState.getStatus());
+            boolean isWorking = "WORKING".equals(currentState.getStatus());
+            return new SiteCheck(currentState.getStatus(),
+                wasWorking && !isWorking,
+                previousState != null && !wasWorking && isWorking, nextCheckAt);
+        } catch (Exception e) {
+            logger.error("Error checking site {}: {}", siteName, e.getMessage());
+            if (nextCheckAt == null) {
+                nextCheckAt = siteCheckScheduler.recordCheck(siteName, previousState, null);
+                checkHistoryService.record(siteName, null, "ERROR", "REDISCOVERY", null, coveredUntil(nextCheckAt));
+            }
+            return new SiteCheck("ERROR", false, false, nextCheckAt);
+        }
+    }
+    
+    /**
+     * Check a site unless another instance holds its lease, in which case its stored status
+     * (null if it has none) is returned unchanged
+     */
+    private SiteCheck checkLeasedSite(String siteName) {
+        if (!leaseManager.tryAcquireSite(siteName, Duration.ofMinutes(siteLeaseMinutes))) {
+            String status = movieSiteRepository.findBySiteNameIgnoreCase(siteName).map(MovieSite::getStatus).orElse(null);
+            return new SiteCheck(status, false, false, null);
+        }
+        SiteCheck check = checkSite(siteName);
+        leaseManager.holdSiteUntil(siteName, coveredUntil(check.nextCheckAt()));
+        return check;
+    }
+    
+    /**
+     * When the site is next checked: on its adaptive schedule, otherwise by the next full check
+     */
+    private LocalDateTime coveredUntil(LocalDateTime nextCheckAt) {
+        return siteCheckScheduler.isEnabled() ? nextCheckAt : LocalDateTime.now().plusHours(checkIntervalHours);
+    }
+    
+    /**
+     * Outcome of one site in a health check run
+     */
+    private record SiteCheck(String status, boolean wentDown, boolean cameUp, LocalDateTime nextCheckAt) {
+    }
+    
+    public boolean isHealthCheckRunning() {
+        return healthCheckRunning.get();
+    }
+    
+    public Map<String, Object> getHealthCheckStatistics() {
+        long runs = healthCheckRuns.get();
+        return Map.of(
+            "running", healthCheckRunning.get(),
+            "poolSize", Math.max(1, healthCheckPoolSize),
+            "runs", runs,
+            "skipped", skippedHealthChecks.get(),
+            "lastDurationMs", lastHealthCheckMs.get(),
+            "averageDurationMs", runs == 0 ? 0 : healthCheckTotalMs.get() / runs,
+            "livenessConfirmed", livenessConfirmed.get(),
+            "rediscoveries", rediscoveries.get()
+        );
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionTimer.builder("monitoring.health-check.duration", this,
+                service -> service.healthCheckRuns.get(),
+                service -> service.healthCheckTotalMs.get(),
+                TimeUnit.MILLISECONDS)
+            .register(registry);
+        Gauge.builder("monitoring.health-check.last-duration", lastHealthCheckMs, AtomicLong::get)
+            .baseUnit("milliseconds")
+            .register(registry);
+        FunctionCounter.builder("monitoring.liveness.confirmed", livenessConfirmed, AtomicLong::get).register(registry);
+        FunctionCounter.builder("monitoring.rediscoveries", rediscoveries, AtomicLong::get).register(registry);
+    }
+    
     /**
      * Check specific sites that haven't been checked recently
      */
     @Scheduled(fixedRateString = "${monitoring.stale-check-ms:3600000}") // 1 hour
     public void checkStaleSites() {
+        if (siteCheckScheduler.isEnabled() || !leaseManager.isLeader()) {
+            // Staleness is part of the adaptive schedule; otherwise the leader runs the sweep
+            return;
+        }
         LocalDateTime staleThreshold = LocalDateTime.now().minusHours(checkIntervalHours);
         List<MovieSite> staleSites = movieSiteRepository.findSitesNeedingCheck(staleThreshold);
         
@@ -121,15 +392,7 @@ public class MonitoringService {
             logger.info("Found {} stale sites that need checking", staleSites.size());
             
             for (MovieSite staleSite : staleSites) {
-                try {
-                    MovieSite updatedSite = searchService.findWorkingLink(staleSite.getSiteName());
-                    updatedSite.setId(staleSite.getId());
-                    movieSiteRepository.save(updatedSite);
-                    
-                    Thread.sleep(2000);
-                } catch (Exception e) {
-                    logger.error("Error checking stale site {}: {}", staleSite.getSiteName(), e.getMessage());
-                }
+                checkLeasedSite(staleSite.getSiteName());
             }
         }
     }
@@ -152,14 +415,16 @@ public class MonitoringService {
             .count();
         
         // Calculate uptime percentage
-        double uptimePercentage = allSites.isEmpty() ? 0.0 : 
+        double workingPercentage = currentResults.isEmpty() ? 0.0 :
             (double) workingCount / currentResults.size() * 100;
+        double uptimePercentage = uptimeOrWorking(workingPercentage);
         
         // Get response time statistics
         OptionalDouble avgResponseTime = allSites.stream()
             .filter(site -> site.getResponseTime() != null)
             .mapToInt(MovieSite::getResponseTime)
             .average();
+        LatencyHistogram latency = fleetLatency(allSites);
         
         return MonitoringReport.builder()
             .timestamp(LocalDateTime.now())
@@ -168,12 +433,34 @@ public class MonitoringService {
             .downSitesCount((int) downCount)
             .uptimePercentage(uptimePercentage)
             .averageResponseTime(avgResponseTime.orElse(0.0))
+            .responseTimePercentiles(latency.summary())
             .siteStatuses(currentResults)
             .downSites(downSites)
             .newWorkingSites(newWorkingSites)
             .build();
     }
     
+    /**
+     * Response times across the sites' working URLs: the in-memory histogram of each
+     * working host, or the persisted last response time for hosts not probed since
+     * a restart
+     */
+    private LatencyHistogram fleetLatency(List<MovieSite> sites) {
+        LatencyHistogram fleet = new LatencyHistogram();
+        for (MovieSite site : sites) {
+            if (!"WORKING".equals(site.getStatus())) {
+                continue;
+            }
+            HostHistory.HostRecord record = hostHistory.getForUrl(site.getCurrentWorkingUrl());
+            if (record != null && record.getLatency().getCount() > 0) {
+                fleet.add(record.getLatency());
+            } else if (site.getResponseTime() != null) {
+                fleet.record(site.getResponseTime());
+            }
+        }
+        return fleet;
+    }
+    
     /**
      * Send alerts for site status changes
      */
@@ -239,19 +526,20 @@ public class MonitoringService {
         
         long totalSites = allSites.size();
         long workingCount = workingSites.size();
-        double uptimePercentage = totalSites == 0 ? 0.0 : (double) workingCount / totalSites * 100;
+        double workingPercentage = totalSites == 0 ? 0.0 : (double) workingCount / totalSites * 100;
         
         // Calculate average response time
         OptionalDouble avgResponseTime = allSites.stream()
             .filter(site -> site.getResponseTime() != null)
             .mapToInt(MovieSite::getResponseTime)
             .average();
+        LatencyHistogram latency = fleetLatency(allSites);
         
-        // Determine overall health status
+        // Determine overall health status from the sites working right now
         String healthStatus;
-        if (uptimePercentage >= 80) {
+        if (workingPercentage >= 80) {
             healthStatus = "HEALTHY";
-        } else if (uptimePercentage >= 50) {
+        } else if (workingPercentage >= 50) {
             healthStatus = "DEGRADED";
         } else {
             healthStatus = "CRITICAL";
@@ -262,12 +550,24 @@ public class MonitoringService {
             .totalSites((int) totalSites)
             .workingSites((int) workingCount)
             .downSites((int) (totalSites - workingCount))
-            .uptimePercentage(uptimePercentage)
+            .workingPercentage(workingPercentage)
+            .uptimePercentage(uptimeOrWorking(workingPercentage))
+            .availability(checkHistoryService.getAvailability(null))
             .averageResponseTime(avgResponseTime.orElse(0.0))
+            .responseTimePercentiles(latency.summary())
             .lastChecked(LocalDateTime.now())
             .build();
     }
     
+    /**
+     * Fleet uptime over the last 24 hours from the check history; until anything has been
+     * checked, the share of sites working now
+     */
+    private double uptimeOrWorking(double workingPercentage) {
+        Double uptime = checkHistoryService.getFleetUptime24h();
+        return uptime != null ? uptime : workingPercentage;
+    }
+    
     /**
      * Get detailed site statistics
      */
@@ -299,6 +599,9 @@ public class MonitoringService {
         private int downSitesCount;
         private double uptimePercentage;
         private double averageResponseTime;
+        private long p50ResponseTime;
+        private long p95ResponseTime;
+        private long p99ResponseTime;
         private Map<String, String> siteStatuses;
         private List<String> downSites;
         private List<String> newWorkingSites;
@@ -327,6 +630,15 @@ public class MonitoringService {
         public double getAverageResponseTime() { return averageResponseTime; }
         public void setAverageResponseTime(double averageResponseTime) { this.averageResponseTime = averageResponseTime; }
         
+        public long getP50ResponseTime() { return p50ResponseTime; }
+        public void setP50ResponseTime(long p50ResponseTime) { this.p50ResponseTime = p50ResponseTime; }
+        
+        public long getP95ResponseTime() { return p95ResponseTime; }
+        public void setP95ResponseTime(long p95ResponseTime) { this.p95ResponseTime = p95ResponseTime; }
+        
+        public long getP99ResponseTime() { return p99ResponseTime; }
+        public void setP99ResponseTime(long p99ResponseTime) { this.p99ResponseTime = p99ResponseTime; }
+        
         public Map<String, String> getSiteStatuses() { return siteStatuses; }
         public void setSiteStatuses(Map<String, String> siteStatuses) { this.siteStatuses = siteStatuses; }
         
@@ -369,6 +681,13 @@ public class MonitoringService {
                 return this;
             }
             
+            public MonitoringReportBuilder responseTimePercentiles(LatencyHistogram.Summary latency) {
+                report.setP50ResponseTime(latency.p50());
+                report.setP95ResponseTime(latency.p95());
+                report.setP99ResponseTime(latency.p99());
+                return this;
+            }
+            
             public MonitoringReportBuilder siteStatuses(Map<String, String> statuses) {
                 report.setSiteStatuses(statuses);
                 return this;
@@ -395,8 +714,13 @@ public class MonitoringService {
         private int totalSites;
         private int workingSites;
         private int downSites;
-        private double uptimePercentage;
+        private double workingPercentage; // share of sites working right now
+        private double uptimePercentage; // share of the last 24 hours the sites were working, each check counting for the time until the next
         private double averageResponseTime;
+        private long p50ResponseTime;
+        private long p95ResponseTime;
+        private long p99ResponseTime;
+        private Map<String, Object> availability; // uptime and latency over 24h, 7d and 30d
         private LocalDateTime lastChecked;
         
         public static SystemHealthStatusBuilder builder() {
@@ -416,12 +740,27 @@ public class MonitoringService {
         public int getDownSites() { return downSites; }
         public void setDownSites(int downSites) { this.downSites = downSites; }
         
+        public double getWorkingPercentage() { return workingPercentage; }
+        public void setWorkingPercentage(double workingPercentage) { this.workingPercentage = workingPercentage; }
+        
         public double getUptimePercentage() { return uptimePercentage; }
         public void setUptimePercentage(double uptimePercentage) { this.uptimePercentage = uptimePercentage; }
         
         public double getAverageResponseTime() { return averageResponseTime; }
         public void setAverageResponseTime(double averageResponseTime) { this.averageResponseTime = averageResponseTime; }
         
+        public long getP50ResponseTime() { return p50ResponseTime; }
+        public void setP50ResponseTime(long p50ResponseTime) { this.p50ResponseTime = p50ResponseTime; }
+        
+        public long getP95ResponseTime() { return p95ResponseTime; }
+        public void setP95ResponseTime(long p95ResponseTime) { this.p95ResponseTime = p95ResponseTime; }
+        
+        public long getP99ResponseTime() { return p99ResponseTime; }
+        public void setP99ResponseTime(long p99ResponseTime) { this.p99ResponseTime = p99ResponseTime; }
+        
+        public Map<String, Object> getAvailability() { return availability; }
+        public void setAvailability(Map<String, Object> availability) { this.availability = availability; }
+        
         public LocalDateTime getLastChecked() { return lastChecked; }
         public void setLastChecked(LocalDateTime lastChecked) { this.lastChecked = lastChecked; }
         
@@ -448,16 +787,33 @@ public class MonitoringService {
                 return this;
             }
             
+            public SystemHealthStatusBuilder workingPercentage(double percentage) {
+                status.setWorkingPercentage(percentage);
+                return this;
+            }
+            
             public SystemHealthStatusBuilder uptimePercentage(double percentage) {
                 status.setUptimePercentage(percentage);
                 return this;
             }
             
+            public SystemHealthStatusBuilder availability(Map<String, Object> windows) {
+                status.setAvailability(windows);
+                return this;
+            }
+            
             public SystemHealthStatusBuilder averageResponseTime(double time) {
                 status.setAverageResponseTime(time);
                 return this;
             }
             
+            public SystemHealthStatusBuilder responseTimePercentiles(LatencyHistogram.Summary latency) {
+                status.setP50ResponseTime(latency.p50());
+                status.setP95ResponseTime(latency.p95());
+                status.setP99ResponseTime(latency.p99());
+                return this;
+            }
+            
             public SystemHealthStatusBuilder lastChecked(LocalDateTime time) {
                 status.setLastChecked(time);
                 return this;
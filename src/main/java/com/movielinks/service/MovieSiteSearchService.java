@@ -3,81 +3,206 @@ package com.movielinks.service;
 import com.movielinks.model.MovieSite;
 import com.movielinks.model.Movierulz;
 import com.movielinks.model.Moviezap;
+import com.movielinks.repository.MovieSiteRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
-import org.springframework.http.*;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 public class MovieSiteSearchService {
     
     private static final Logger logger = LoggerFactory.getLogger(MovieSiteSearchService.class);
     
-    @Value("${browserless.api.key}")
-    private String browserlessApiKey;
+    @Value("${browserless.api.timeout:60000}")
+    private long browserlessTimeoutMs;
     
-    @Value("${browserless.api.url:https://chrome.browserless.io}")
-    private String browserlessUrl;
+    @Value("${movie-search.search-pool-size:8}")
+    private int searchPoolSize;
     
-    private final RestTemplate restTemplate;
+    @Value("${movie-search.engine-concurrency.google:3}")
+    private int googleConcurrency;
     
-    // URL validation patterns
-    private static final Pattern URL_PATTERN = Pattern.compile(
-        "https?://[a-zA-Z0-9.-]+\\.[a-zA-Z]{2,}(?:/[^\\s]*)?",
-        Pattern.CASE_INSENSITIVE
-    );
+    @Value("${movie-search.engine-concurrency.duckduckgo:3}")
+    private int duckDuckGoConcurrency;
     
-    // Domain patterns for movie sites
-    private static final Map<String, Pattern> DOMAIN_PATTERNS = Map.of(
-        "movierulz", Pattern.compile("movierulz\\.[a-z]{2,4}", Pattern.CASE_INSENSITIVE),
-        "moviezap", Pattern.compile("moviezap\\.[a-z]{2,4}", Pattern.CASE_INSENSITIVE)
-    );
+    @Value("${movie-search.adaptive.enabled:true}")
+    private boolean adaptiveEnabled;
     
-    public MovieSiteSearchService(RestTemplate restTemplate) {
-        this.restTemplate = restTemplate;
+    @Value("${movie-search.adaptive.min-confidence:0.65}")
+    private double adaptiveMinConfidence;
+    
+    @Value("${movie-search.adaptive.terms-per-query:3}")
+    private int adaptiveTermsPerQuery;
+    
+    @Value("${movie-search.adaptive.max-in-flight:2}")
+    private int adaptiveMaxInFlight;
+    
+    private final BrowserlessClient browserlessClient;
+    
+    private final SearchRateLimiter rateLimiter;
+    
+    private final UrlValidationService urlValidationService;
+    
+    private final DomainCandidateGenerator domainCandidateGenerator;
+    
+    private final ContentVerifier contentVerifier;
+    
+    private final CandidateRanker candidateRanker;
+    
+    private final SiteHostMatcher siteHostMatcher;
+    
+    private final HostHistory hostHistory;
+    
+    private final DependencyGuard dependencyGuard;
+    
+    private final SearchResultCache searchResultCache;
+    
+    private final SiteResolutionCoalescer resolutionCoalescer;
+    
+    private final MovieSiteRepository movieSiteRepository;
+    
+    private final TransactionTemplate transactionTemplate;
+    
+    // Bounded pool shared by all alias x engine queries, plus a per-engine cap on in-flight queries
+    private ExecutorService searchExecutor;
+    private final Map<SearchEngine, Semaphore> enginePermits = new EnumMap<>(SearchEngine.class);
+    
+    public MovieSiteSearchService(BrowserlessClient browserlessClient,
+                                  SearchRateLimiter rateLimiter,
+                                  UrlValidationService urlValidationService,
+                                  DomainCandidateGenerator domainCandidateGenerator,
+                                  ContentVerifier contentVerifier,
+                                  CandidateRanker candidateRanker,
+                                  SiteHostMatcher siteHostMatcher,
+                                  HostHistory hostHistory,
+                                  DependencyGuard dependencyGuard,
+                                  SearchResultCache searchResultCache,
+                                  SiteResolutionCoalescer resolutionCoalescer,
+                                  MovieSiteRepository movieSiteRepository,
+                                  TransactionTemplate transactionTemplate) {
+        this.browserlessClient = browserlessClient;
+        this.rateLimiter = rateLimiter;
+        this.urlValidationService = urlValidationService;
+        this.domainCandidateGenerator = domainCandidateGenerator;
+        this.contentVerifier = contentVerifier;
+        this.candidateRanker = candidateRanker;
+        this.siteHostMatcher = siteHostMatcher;
+        this.hostHistory = hostHistory;
+        this.dependencyGuard = dependencyGuard;
+        this.searchResultCache = searchResultCache;
+        this.resolutionCoalescer = resolutionCoalescer;
+        this.movieSiteRepository = movieSiteRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+    
+    @PostConstruct
+    void initSearchExecutor() {
+        AtomicInteger threadCount = new AtomicInteger();
+        searchExecutor = Executors.newFixedThreadPool(Math.max(1, searchPoolSize), runnable -> {
+            Thread thread = new Thread(runnable, "engine-search-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        enginePermits.put(SearchEngine.GOOGLE, new Semaphore(Math.max(1, googleConcurrency)));
+        enginePermits.put(SearchEngine.DUCKDUCKGO, new Semaphore(Math.max(1, duckDuckGoConcurrency)));
+    }
+    
+    @PreDestroy
+    void shutdownSearchExecutor() {
+        searchExecutor.shutdownNow();
     }
     
     /**
-     * Search for working links of a specific movie site
+     * Search for working links of a specific movie site. Concurrent calls for the
+     * same site share one in-flight resolution; each caller gets its own copy.
      */
     public MovieSite findWorkingLink(String siteName) {
+        MovieSite result = resolutionCoalescer
+            .resolve(siteName, () -> CompletableFuture.completedFuture(resolveWorkingLink(siteName)))
+            .join();
+        return copyResult(result);
+    }
+    
+    /**
+     * Liveness check of a stored site: one probe of its current URL, verified against its
+     * fingerprint. On success the check time and response times are updated on the site
+     * and true is returned. Otherwise, including when only a hedged twin of the URL answered,
+     * the stored URL needs replacing and the site needs a full findWorkingLink.
+     */
+    public boolean confirmWorkingLink(MovieSite site) {
+        String url = site.getCurrentWorkingUrl();
+        if (url == null || url.isBlank()) {
+            return false;
+        }
+        String answered = urlValidationService.findBestAccessibleUrl(List.of(url), ContentFingerprint.of(site));
+        if (!url.equals(answered)) {
+            return false;
+        }
+        site.setLastChecked(LocalDateTime.now());
+        applyResponseTimes(site);
+        return true;
+    }
+    
+    private MovieSite resolveWorkingLink(String siteName) {
         logger.info("Searching for working link for: {}", siteName);
         
         try {
             // Create appropriate model instance
             MovieSite movieSite = createMovieSiteInstance(siteName);
+            MovieSite previousState = loadPersistedState(siteName);
             
-            // Search on Google first
-            List<String> googleResults = searchOnGoogle(movieSite.getSearchAliases());
-            
-            // Search on DuckDuckGo as backup
-            List<String> duckDuckGoResults = searchOnDuckDuckGo(movieSite.getSearchAliases());
+            // Tier 1: probe the stored URL, mirrors and known domains in parallel
+            String workingUrl = null;
+            List<String> knownLocations = previousState != null ? knownLocationsOf(previousState) : List.of();
+            ContentFingerprint expected = ContentFingerprint.of(previousState);
+            if (!knownLocations.isEmpty()) {
+                workingUrl = urlValidationService.findBestAccessibleUrl(knownLocations, expected);
+                if (workingUrl != null) {
+                    logger.info("Known location still working for {}, skipping search", siteName);
+                }
+            }
             
-            // Combine and validate results
-            Set<String> allUrls = new HashSet<>();
-            allUrls.addAll(googleResults);
-            allUrls.addAll(duckDuckGoResults);
+            // Tier 2: probe TLD rotations of the site name that resolve in DNS; any 2xx is not
+            // enough there, the page has to be the site's
+            ContentFingerprint rotationExpected = contentVerifier.rotationExpectation(expected, siteName);
+            if (workingUrl == null && domainCandidateGenerator.isEnabled() && rotationExpected != null) {
+                workingUrl = urlValidationService.findBestAccessibleUrl(
+                    domainCandidateGenerator.findResolvableCandidates(siteName, knownLocations), rotationExpected);
+                if (workingUrl != null) {
+                    logger.info("Found {} on a rotated domain, skipping search", siteName);
+                }
+            }
             
-            // Find the best working URL
-            String workingUrl = validateAndFindBestUrl(allUrls, siteName);
+            // Tier 3: search the aliases on Google and DuckDuckGo
+            if (workingUrl == null) {
+                workingUrl = adaptiveEnabled
+                    ? searchAdaptively(movieSite.getSearchAliases(), siteName, knownLocations, expected)
+                    : validateAndFindBestUrl(searchAllEngines(movieSite.getSearchAliases()), siteName, knownLocations, expected);
+            }
             
             if (workingUrl != null) {
                 movieSite.setCurrentWorkingUrl(workingUrl);
                 movieSite.setStatus("WORKING");
                 movieSite.setLastChecked(LocalDateTime.now());
+                applyResponseTimes(movieSite);
+                refreshContentFingerprint(movieSite, urlValidationService.fingerprint(workingUrl));
                 logger.info("Found working URL for {}: {}", siteName, workingUrl);
             } else {
                 movieSite.setStatus("NOT_FOUND");
                 logger.warn("No working URL found for: {}", siteName);
             }
             
+            carryForwardKnownLocations(previousState, movieSite);
             return movieSite;
             
         } catch (Exception e) {
@@ -97,12 +222,10 @@ public class MovieSiteSearchService {
         
         for (String siteName : siteNames) {
             try {
+                // Pacing is enforced by the shared engine and Browserless rate limits
                 MovieSite result = findWorkingLink(siteName);
                 results.add(result);
                 
-                // Add delay between searches to avoid rate limiting
-                Thread.sleep(2000);
-                
             } catch (Exception e) {
                 logger.error("Error processing site {}: {}", siteName, e.getMessage());
                 MovieSite errorSite = createMovieSiteInstance(siteName);
@@ -115,246 +238,476 @@ public class MovieSiteSearchService {
     }
     
     /**
-     * Search on Google using Browserless
+     * Fan out every alias group x engine query through the bounded search pool and
+     * merge the extracted results in the order the queries complete. In Browserless batch
+     * mode a group holds many aliases, otherwise each alias is its own query.
      */
-    private List<String> searchOnGoogle(List<String> searchTerms) {
-        List<String> urls = new ArrayList<>();
+    private List<SearchResult> searchAllEngines(List<String> searchTerms) {
+        CompletionService<List<SearchResult>> completionService = new ExecutorCompletionService<>(searchExecutor);
+        List<Future<List<SearchResult>>> pending = new ArrayList<>();
+        List<SearchResult> results = new ArrayList<>();
         
-        for (String term : searchTerms) {
-            try {
-                String searchScript = createGoogleSearchScript(term);
-                String response = executeBrowserlessScript(searchScript);
-                
-                List<String> extractedUrls = extractUrlsFromResponse(response);
-                urls.addAll(extractedUrls);
-                
-                // Add delay between searches
-                Thread.sleep(1500);
-                
-            } catch (Exception e) {
-                logger.warn("Google search failed for term '{}': {}", term, e.getMessage());
+        for (SearchEngine engine : SearchEngine.values()) {
+            // Fresh cached results skip Browserless entirely
+            List<String> uncachedTerms = new ArrayList<>();
+            for (String term : searchTerms) {
+                List<SearchResult> cachedResults = searchResultCache.get(engine, term);
+                if (cachedResults != null) {
+                    results.addAll(cachedResults);
+                } else {
+                    uncachedTerms.add(term);
+                }
             }
+            if (!dependencyGuard.canSearch(engine)) {
+                // Fail fast while the engine or Browserless is tripped; the other engine still runs
+                logger.info("Skipping {} search while its circuit breaker is open", engine.getDisplayName());
+                continue;
+            }
+            
+            for (List<String> termGroup : browserlessClient.partitionTerms(uncachedTerms)) {
+                pending.add(completionService.submit(() -> searchWithPermit(engine, termGroup)));
+            }
+        }
+        
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(browserlessTimeoutMs);
+        
+        try {
+            for (int i = 0; i < pending.size(); i++) {
+                Future<List<SearchResult>> done = completionService.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (done == null) {
+                    logger.warn("Engine searches did not finish within {} ms, using partial results", browserlessTimeoutMs);
+                    break;
+                }
+                try {
+                    results.addAll(done.get());
+                } catch (ExecutionException e) {
+                    logger.warn("Engine search failed: {}", e.getCause().getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            pending.forEach(future -> future.cancel(true));
         }
         
-        return urls;
+        return results;
     }
     
     /**
-     * Search on DuckDuckGo using Browserless
+     * Run one engine query for a group of terms once the engine has a free concurrency slot
      */
-    private List<String> searchOnDuckDuckGo(List<String> searchTerms) {
-        List<String> urls = new ArrayList<>();
-        
-        for (String term : searchTerms) {
-            try {
-                String searchScript = createDuckDuckGoSearchScript(term);
-                String response = executeBrowserlessScript(searchScript);
-                
-                List<String> extractedUrls = extractUrlsFromResponse(response);
-                urls.addAll(extractedUrls);
-                
-                // Add delay between searches
-                Thread.sleep(1500);
-                
-            } catch (Exception e) {
-                logger.warn("DuckDuckGo search failed for term '{}': {}", term, e.getMessage());
+    private List<SearchResult> searchWithPermit(SearchEngine engine, List<String> terms) throws InterruptedException {
+        Semaphore permits = enginePermits.get(engine);
+        permits.acquire();
+        try {
+            if (!rateLimiter.acquireEngine(engine)) {
+                return List.of();
+            }
+            List<SearchResult> results = new ArrayList<>();
+            for (Map.Entry<String, List<SearchResult>> termResults : browserlessClient.search(engine, terms).entrySet()) {
+                List<SearchResult> validResults = filterValidResults(termResults.getValue());
+                searchResultCache.put(engine, termResults.getKey(), validResults);
+                results.addAll(validResults);
             }
+            return results;
+        } catch (Exception e) {
+            logger.warn("{} search failed for terms {}: {}", engine.getDisplayName(), terms, e.getMessage());
+            return List.of();
+        } finally {
+            permits.release();
         }
-        
-        return urls;
     }
     
     /**
-     * Create Google search script for Browserless
+     * Run the engine queries a few at a time and validate candidates as results arrive.
+     * As soon as a candidate answers with a score of at least min-confidence, every
+     * remaining query is cancelled or never started, so easy sites cost one or two
+     * Browserless calls. Less confident winners are kept as a fallback while the
+     * search continues.
      */
-    private String createGoogleSearchScript(String searchTerm) {
-        return String.format("""
-            const puppeteer = require("puppeteer-extra");
-            const StealthPlugin = require("puppeteer-extra-plugin-stealth");
-            
-            puppeteer.use(StealthPlugin());
-            
-            async function humanType(page, selector, text) {
-                await page.focus(selector);
-                for (const char of text) {
-                    await page.keyboard.type(char);
-                    await page.waitForTimeout(100 + Math.random() * 200);
-                }
+    private String searchAdaptively(List<String> searchTerms, String siteName, List<String> knownLocations,
+                                    ContentFingerprint expected) {
+        SearchPlan plan = planSearch(searchTerms, adaptiveTermsPerQuery);
+        List<SearchResult> results = new ArrayList<>(plan.cachedResults());
+        Set<String> probed = new HashSet<>();
+        CandidateRanker.ScoredCandidate fallback = null;
+        
+        if (!results.isEmpty()) {
+            CandidateRanker.ScoredCandidate found = validateNextCandidates(results, siteName, knownLocations, probed, expected);
+            if (found != null && found.score() >= adaptiveMinConfidence) {
+                logger.info("Cached results for {} were conclusive, skipping search", siteName);
+                return found.url();
             }
-            
-            module.exports = async ({ page }) => {
-                await page.goto("https://www.google.com", { waitUntil: "domcontentloaded" });
+            fallback = found;
+        }
+        
+        CompletionService<List<SearchResult>> completionService = new ExecutorCompletionService<>(searchExecutor);
+        Deque<TermQuery> queued = new ArrayDeque<>(plan.queries());
+        List<Future<List<SearchResult>>> pending = new ArrayList<>();
+        int inFlight = 0;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(browserlessTimeoutMs);
+        
+        try {
+            while (true) {
+                while (inFlight < Math.max(1, adaptiveMaxInFlight) && !queued.isEmpty()) {
+                    TermQuery query = queued.poll();
+                    pending.add(completionService.submit(() -> searchWithPermit(query.engine(), query.terms())));
+                    inFlight++;
+                }
+                if (inFlight == 0) {
+                    break;
+                }
                 
-                // Accept cookies if present
+                Future<List<SearchResult>> done = completionService.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (done == null) {
+                    logger.warn("Engine searches did not finish within {} ms, using partial results", browserlessTimeoutMs);
+                    break;
+                }
+                inFlight--;
                 try {
-                    await page.click('button[id="L2AGLb"]', { timeout: 3000 });
-                } catch (e) {}
-                
-                await humanType(page, "input[name='q']", "%s");
-                await page.waitForTimeout(1500);
-                await page.keyboard.press("Enter");
-                
-                await page.waitForSelector("h3", { timeout: 10000 });
-                
-                const results = await page.evaluate(() => {
-                    return Array.from(document.querySelectorAll("h3"))
-                        .slice(0, 10)
-                        .map(el => {
-                            const link = el.closest('a');
-                            return {
-                                title: el.innerText,
-                                url: link ? link.href : null
-                            };
-                        })
-                        .filter(result => result.url);
-                });
+                    results.addAll(done.get());
+                } catch (ExecutionException e) {
+                    logger.warn("Engine search failed: {}", e.getCause().getMessage());
+                    continue;
+                }
                 
-                return JSON.stringify(results);
-            };
-            """, searchTerm);
+                CandidateRanker.ScoredCandidate found = validateNextCandidates(results, siteName, knownLocations, probed, expected);
+                if (found != null && found.score() >= adaptiveMinConfidence) {
+                    logger.info("Confident match for {} after {} of {} queries, stopping search",
+                        siteName, plan.queries().size() - queued.size() - inFlight, plan.queries().size());
+                    return found.url();
+                }
+                if (found != null && (fallback == null || found.score() > fallback.score())) {
+                    fallback = found;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            pending.forEach(future -> future.cancel(true));
+        }
+        
+        if (fallback != null) {
+            return fallback.url();
+        }
+        
+        // Nothing answered among the top candidates of each round; try the rest
+        List<SearchResult> unprobed = new ArrayList<>();
+        for (SearchResult result : results) {
+            if (!probed.contains(UrlHosts.stripWww(result.host()))) {
+                unprobed.add(result);
+            }
+        }
+        return validateAndFindBestUrl(unprobed, siteName, knownLocations, expected);
     }
     
     /**
-     * Create DuckDuckGo search script for Browserless
+     * Rank everything found so far and probe the best candidates not probed yet.
+     * Returns the winner with its score, or null if none of them answered.
      */
-    private String createDuckDuckGoSearchScript(String searchTerm) {
-        return String.format("""
-            const puppeteer = require("puppeteer-extra");
-            const StealthPlugin = require("puppeteer-extra-plugin-stealth");
-            
-            puppeteer.use(StealthPlugin());
-            
-            module.exports = async ({ page }) => {
-                await page.goto("https://duckduckgo.com", { waitUntil: "domcontentloaded" });
-                
-                await page.type("input[name='q']", "%s");
-                await page.waitForTimeout(1000);
-                await page.keyboard.press("Enter");
-                
-                await page.waitForSelector("h2 a", { timeout: 10000 });
-                
-                const results = await page.evaluate(() => {
-                    return Array.from(document.querySelectorAll("h2 a"))
-                        .slice(0, 10)
-                        .map(el => ({
-                            title: el.innerText,
-                            url: el.href
-                        }))
-                        .filter(result => result.url);
-                });
-                
-                return JSON.stringify(results);
-            };
-            """, searchTerm);
+    private CandidateRanker.ScoredCandidate validateNextCandidates(List<SearchResult> results, String siteName,
+                                                                  List<String> knownLocations, Set<String> probed,
+                                                                  ContentFingerprint expected) {
+        List<CandidateRanker.ScoredCandidate> candidates = nextCandidates(results, siteName, knownLocations, probed);
+        List<String> urls = new ArrayList<>(candidates.size());
+        candidates.forEach(candidate -> urls.add(candidate.url()));
+        
+        String workingUrl = urlValidationService.findBestAccessibleUrl(urls, expected);
+        for (CandidateRanker.ScoredCandidate candidate : candidates) {
+            if (candidate.url().equals(workingUrl)) {
+                return candidate;
+            }
+        }
+        return null;
     }
     
     /**
-     * Execute script on Browserless
+     * The top-k ranked candidates matching the site whose hosts have not been probed yet;
+     * their hosts are marked as probed
      */
-    private String executeBrowserlessScript(String script) {
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        
-        Map<String, Object> requestBody = Map.of(
-            "code", script,
-            "context", Map.of()
-        );
-        
-        HttpEntity<Map<String, Object>> request = new HttpEntity<>(requestBody, headers);
-        
-        String url = browserlessUrl + "/function?token=" + browserlessApiKey;
-        ResponseEntity<String> response = restTemplate.postForEntity(url, request, String.class);
+    List<CandidateRanker.ScoredCandidate> nextCandidates(List<SearchResult> results, String siteName,
+                                                         List<String> knownLocations, Set<String> probed) {
+        List<SearchResult> matching = new ArrayList<>();
+        for (SearchResult result : results) {
+            if (!probed.contains(UrlHosts.stripWww(result.host())) && matchesSiteName(result.host(), siteName)) {
+                matching.add(result);
+            }
+        }
         
-        return response.getBody();
+        List<CandidateRanker.ScoredCandidate> next = new ArrayList<>();
+        for (CandidateRanker.ScoredCandidate candidate : candidateRanker.rankScored(matching, siteName, knownLocations)) {
+            if (next.size() >= candidateRanker.getTopK()) {
+                break;
+            }
+            next.add(candidate);
+            probed.add(UrlHosts.domainOf(candidate.url()));
+        }
+        return next;
     }
     
     /**
-     * Extract URLs from Browserless response
+     * Split a search into fresh cached results and the engine queries still to run.
+     * Queries alternate between engines, so the first few cover both of them. Engines
+     * whose circuit breaker is open get no queries.
      */
-    private List<String> extractUrlsFromResponse(String response) {
-        List<String> urls = new ArrayList<>();
+    SearchPlan planSearch(List<String> searchTerms, int termsPerQuery) {
+        List<SearchResult> cachedResults = new ArrayList<>();
+        List<Iterator<List<String>>> groupsByEngine = new ArrayList<>();
+        List<SearchEngine> engines = List.of(SearchEngine.values());
         
-        try {
-            // Parse JSON response and extract URLs
-            Matcher matcher = URL_PATTERN.matcher(response);
-            while (matcher.find()) {
-                String url = matcher.group();
-                if (isValidMovieSiteUrl(url)) {
-                    urls.add(url);
+        for (SearchEngine engine : engines) {
+            List<String> uncachedTerms = new ArrayList<>();
+            for (String term : searchTerms) {
+                List<SearchResult> cached = searchResultCache.get(engine, term);
+                if (cached != null) {
+                    cachedResults.addAll(cached);
+                } else {
+                    uncachedTerms.add(term);
                 }
             }
-        } catch (Exception e) {
-            logger.warn("Failed to extract URLs from response: {}", e.getMessage());
+            if (!dependencyGuard.canSearch(engine)) {
+                logger.info("Skipping {} search while its circuit breaker is open", engine.getDisplayName());
+                uncachedTerms.clear();
+            }
+            groupsByEngine.add(browserlessClient.partitionTerms(uncachedTerms, termsPerQuery).iterator());
         }
         
-        return urls;
+        List<TermQuery> queries = new ArrayList<>();
+        boolean added = true;
+        while (added) {
+            added = false;
+            for (int i = 0; i < engines.size(); i++) {
+                if (groupsByEngine.get(i).hasNext()) {
+                    queries.add(new TermQuery(engines.get(i), groupsByEngine.get(i).next()));
+                    added = true;
+                }
+            }
+        }
+        return new SearchPlan(cachedResults, queries);
     }
     
     /**
-     * Validate URLs and find the best working one
+     * Cached results plus the engine queries that still have to run
      */
-    private String validateAndFindBestUrl(Set<String> urls, String siteName) {
-        for (String url : urls) {
-            if (isValidMovieSiteUrl(url) && matchesSiteName(url, siteName)) {
-                if (isUrlAccessible(url)) {
-                    return url;
-                }
+    record SearchPlan(List<SearchResult> cachedResults, List<TermQuery> queries) {
+    }
+    
+    record TermQuery(SearchEngine engine, List<String> terms) {
+    }
+    
+    /**
+     * Drop results that can never be a movie site. Results are validated once here,
+     * before caching, so cached results need no further checks.
+     */
+    List<SearchResult> filterValidResults(List<SearchResult> results) {
+        List<SearchResult> valid = new ArrayList<>(results.size());
+        for (SearchResult result : results) {
+            if (isValidMovieSiteResult(result)) {
+                valid.add(result);
             }
         }
-        return null;
+        return valid;
     }
     
     /**
-     * Check if URL is a valid movie site URL
+     * Rank the matching results and find the best working one. Only the top-k are
+     * probed unless none of them answers.
      */
-    private boolean isValidMovieSiteUrl(String url) {
-        if (url == null || url.isEmpty()) return false;
+    private String validateAndFindBestUrl(List<SearchResult> results, String siteName, List<String> knownLocations,
+                                          ContentFingerprint expected) {
+        List<SearchResult> matching = new ArrayList<>();
+        for (SearchResult result : results) {
+            if (matchesSiteName(result.host(), siteName)) {
+                matching.add(result);
+            }
+        }
         
-        // Check if it's a valid URL format
-        if (!URL_PATTERN.matcher(url).matches()) return false;
+        List<String> ranked = candidateRanker.rank(matching, siteName, knownLocations);
+        int topK = Math.min(candidateRanker.getTopK(), ranked.size());
+        String workingUrl = urlValidationService.findBestAccessibleUrl(ranked.subList(0, topK), expected);
+        if (workingUrl == null && topK < ranked.size()) {
+            workingUrl = urlValidationService.findBestAccessibleUrl(ranked.subList(topK, ranked.size()), expected);
+        }
+        return workingUrl;
+    }
+    
+    /**
+     * Check if a result can be a movie site: it needs a dotted host outside the excluded domains
+     */
+    boolean isValidMovieSiteResult(SearchResult result) {
+        String host = result.host();
+        int lastDot = host.lastIndexOf('.');
+        if (lastDot <= 0 || host.length() - lastDot < 3) return false;
         
-        // Exclude common non-movie sites
-        String lowerUrl = url.toLowerCase();
-        return !lowerUrl.contains("google.com") &&
-               !lowerUrl.contains("youtube.com") &&
-               !lowerUrl.contains("facebook.com") &&
-               !lowerUrl.contains("twitter.com") &&
-               !lowerUrl.contains("instagram.com");
+        return !siteHostMatcher.isExcluded(host);
     }
     
     /**
-     * Check if URL matches the site name
+     * Check if a host belongs to the site
      */
-    private boolean matchesSiteName(String url, String siteName) {
-        Pattern pattern = DOMAIN_PATTERNS.get(siteName.toLowerCase());
-        return pattern != null && pattern.matcher(url).find();
+    boolean matchesSiteName(String host, String siteName) {
+        return siteHostMatcher.matchesSite(host, siteName);
     }
     
     /**
-     * Check if URL is accessible
+     * Persisted state of the site, or null if it has never been saved. Lazy domain
+     * collections are initialized inside the transaction so they can be read afterwards.
      */
-    private boolean isUrlAccessible(String url) {
+    MovieSite loadPersistedState(String siteName) {
         try {
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36");
-            
-            HttpEntity<String> entity = new HttpEntity<>(headers);
-            ResponseEntity<String> response = restTemplate.exchange(
-                url, HttpMethod.HEAD, entity, String.class
-            );
-            
-            return response.getStatusCode().is2xxSuccessful();
-            
+            return transactionTemplate.execute(status -> movieSiteRepository.findBySiteNameIgnoreCase(siteName)
+                .map(site -> {
+                    if (site instanceof Movierulz movierulz) {
+                        Hibernate.initialize(movierulz.getKnownDomains());
+                    } else if (site instanceof Moviezap moviezap) {
+                        Hibernate.initialize(moviezap.getKnownDomains());
+                    }
+                    return site;
+                })
+                .orElse(null));
         } catch (Exception e) {
-            logger.debug("URL not accessible: {} - {}", url, e.getMessage());
-            return false;
+            logger.warn("Could not load stored state for {}: {}", siteName, e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * URLs the site is already known to live at: the stored working URL first,
+     * then mirrors or backups, then historical domains
+     */
+    List<String> knownLocationsOf(MovieSite site) {
+        Set<String> locations = new LinkedHashSet<>();
+        addLocation(locations, site.getCurrentWorkingUrl());
+        
+        if (site instanceof Movierulz movierulz) {
+            addLocation(locations, movierulz.getCurrentDomain());
+            addLocation(locations, movierulz.getMirrorSite1());
+            addLocation(locations, movierulz.getMirrorSite2());
+            addLocation(locations, movierulz.getMirrorSite3());
+            if (movierulz.getKnownDomains() != null) {
+                movierulz.getKnownDomains().forEach(domain -> addLocation(locations, domain));
+            }
+        } else if (site instanceof Moviezap moviezap) {
+            // The Telegram channel is not a mirror of the site itself, so it is not probed
+            addLocation(locations, moviezap.getCurrentDomain());
+            addLocation(locations, moviezap.getBackupSite1());
+            addLocation(locations, moviezap.getBackupSite2());
+            if (moviezap.getKnownDomains() != null) {
+                moviezap.getKnownDomains().forEach(domain -> addLocation(locations, domain));
+            }
+        }
+        
+        return new ArrayList<>(locations);
+    }
+    
+    private void addLocation(Set<String> locations, String location) {
+        if (location == null || location.isBlank()) {
+            return;
+        }
+        String trimmed = location.trim();
+        locations.add(trimmed.regionMatches(true, 0, "http", 0, 4) ? trimmed : "https://" + trimmed);
+    }
+    
+    /**
+     * Keep the site-specific fields, content fingerprint and check schedule of the stored
+     * row on a fresh resolution result, so saving the result does not wipe mirrors and
+     * known domains. A newly found domain is appended to the known domains for future
+     * fast-path checks.
+     */
+    void carryForwardKnownLocations(MovieSite previous, MovieSite result) {
+        ContentFingerprint fingerprint = ContentFingerprint.of(previous);
+        if (fingerprint != null && ContentFingerprint.of(result) == null) {
+            fingerprint.applyTo(result);
+        }
+        if (previous != null) {
+            result.setDomainSince(previous.getDomainSince());
+            result.setDomainLifetimeMinutes(previous.getDomainLifetimeMinutes());
+            result.setNextCheckAt(previous.getNextCheckAt());
+        }
+        if (result instanceof Movierulz next) {
+            if (previous instanceof Movierulz prev) {
+                next.setMirrorSite1(prev.getMirrorSite1());
+                next.setMirrorSite2(prev.getMirrorSite2());
+                next.setMirrorSite3(prev.getMirrorSite3());
+                next.setHasProxy(prev.getHasProxy());
+                next.setProxyUrl(prev.getProxyUrl());
+                next.setKnownDomains(mergeDomains(prev.getKnownDomains(), next.getCurrentDomain()));
+            } else {
+                next.setKnownDomains(mergeDomains(next.getKnownDomains(), next.getCurrentDomain()));
+            }
+        } else if (result instanceof Moviezap next) {
+            if (previous instanceof Moviezap prev) {
+                next.setTelegramChannel(prev.getTelegramChannel());
+                next.setBackupSite1(prev.getBackupSite1());
+                next.setBackupSite2(prev.getBackupSite2());
+                next.setRequiresVpn(prev.getRequiresVpn());
+                next.setRegion(prev.getRegion());
+                next.setKnownDomains(mergeDomains(prev.getKnownDomains(), next.getCurrentDomain()));
+            } else {
+                next.setKnownDomains(mergeDomains(next.getKnownDomains(), next.getCurrentDomain()));
+            }
+        }
+    }
+    
+    private List<String> mergeDomains(List<String> knownDomains, String domain) {
+        List<String> merged = knownDomains != null ? new ArrayList<>(knownDomains) : new ArrayList<>();
+        if (domain != null && !merged.contains(domain)) {
+            merged.add(domain);
+        }
+        return merged;
+    }
+    
+    /**
+     * Set the last measured response time and the latency percentiles of the
+     * working URL's host on the site, so they are persisted with it
+     */
+    void applyResponseTimes(MovieSite site) {
+        HostHistory.HostRecord record = hostHistory.getForUrl(site.getCurrentWorkingUrl());
+        if (record == null || record.getLastResponseTimeMs() < 0) {
+            return;
+        }
+        LatencyHistogram.Summary latency = record.getLatency().summary();
+        site.setResponseTime((int) record.getLastResponseTimeMs());
+        site.setResponseTimeP50((int) latency.p50());
+        site.setResponseTimeP95((int) latency.p95());
+        site.setResponseTimeP99((int) latency.p99());
+    }
+    
+    /**
+     * Store the fingerprint of the working URL, which has just matched the stored one (if
+     * any), so the fingerprint follows gradual changes to the site. If the page could not
+     * be fetched, the stored fingerprint is kept.
+     */
+    void refreshContentFingerprint(MovieSite site, ContentFingerprint fingerprint) {
+        if (fingerprint != null) {
+            fingerprint.applyTo(site);
+        }
+    }
+    
+    /**
+     * Copy a shared resolution result so callers can set ids and save independently
+     */
+    MovieSite copyResult(MovieSite result) {
+        MovieSite copy = createMovieSiteInstance(result.getSiteName());
+        if (result.getCurrentWorkingUrl() != null) {
+            copy.setCurrentWorkingUrl(result.getCurrentWorkingUrl());
         }
+        copy.setStatus(result.getStatus());
+        copy.setLastChecked(result.getLastChecked());
+        copy.setLastUpdated(result.getLastUpdated());
+        copy.setResponseTime(result.getResponseTime());
+        copy.setResponseTimeP50(result.getResponseTimeP50());
+        copy.setResponseTimeP95(result.getResponseTimeP95());
+        copy.setResponseTimeP99(result.getResponseTimeP99());
+        copy.setNotes(result.getNotes());
+        carryForwardKnownLocations(result, copy);
+        return copy;
     }
     
     /**
      * Create appropriate MovieSite instance based on site name
      */
-    private MovieSite createMovieSiteInstance(String siteName) {
+    MovieSite createMovieSiteInstance(String siteName) {
         switch (siteName.toLowerCase()) {
             case "movierulz":
                 return new Movierulz();
@@ -1,5 +1,6 @@
 package com.movielinks.service;
 
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
@@ -37,7 +38,7 @@ public class NotificationService {
     @Value("${n8n.webhook.url}")
     private String n8nWebhookUrl;
     
-    public NotificationService(RestTemplate restTemplate) {
+    public NotificationService(@Qualifier("notificationRestTemplate") RestTemplate restTemplate) {
         this.restTemplate = restTemplate;
     }
     
@@ -0,0 +1,243 @@
+package com.movielinks.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Negative cache of candidate URLs that failed validation. Each failure doubles the
+ * backoff, up to a cap, during which the candidate is skipped without probing. A DNS failure
+ * suppresses the whole host, connect and timeout failures suppress the origin (scheme, host
+ * and port), and an HTTP status only suppresses that URL. A failure streak decays once the host has been quiet for a full
+ * maximum backoff, and any successful probe of a host evicts all of its entries.
+ */
+@Component
+public class ProbeFailureCache implements MeterBinder {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ProbeFailureCache.class);
+    
+    @Value("${movie-search.failure-cache.base-backoff-seconds:60}")
+    private long baseBackoffSeconds;
+    
+    @Value("${movie-search.failure-cache.max-backoff-minutes:360}")
+    private long maxBackoffMinutes;
+    
+    @Value("${movie-search.failure-cache.max-entries:5000}")
+    private int maxEntries;
+    
+    private final ConcurrentMap<String, FailureEntry> entries = new ConcurrentHashMap<>();
+    
+    // Keys of each host's entries, so a host that answers again is cleared without a scan
+    private final ConcurrentMap<String, Set<String>> keysByHost = new ConcurrentHashMap<>();
+    
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong recoveries = new AtomicLong();
+    
+    /**
+     * Why a candidate failed validation
+     */
+    public enum FailureReason {
+        DNS, CONNECT, TIMEOUT, HTTP_STATUS, CONTENT, ERROR;
+        
+        static FailureReason classify(Throwable error) {
+            for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+                if (cause instanceof UnknownHostException) {
+                    return DNS;
+                }
+                if (cause instanceof ConnectException) {
+                    return CONNECT;
+                }
+                if (cause instanceof SocketTimeoutException
+                        || cause instanceof TimeoutException
+                        || cause.getClass().getSimpleName().contains("Timeout")) {
+                    return TIMEOUT;
+                }
+            }
+            return ERROR;
+        }
+    }
+    
+    /**
+     * Whether the URL or its host is still backing off from an earlier failure
+     */
+    public boolean isSuppressed(String url) {
+        String host = UrlHosts.hostOf(url);
+        if (host == null || entries.isEmpty()) {
+            return false;
+        }
+        long now = System.nanoTime();
+        for (String key : List.of(hostKey(host), originKey(url, host), urlKey(url))) {
+            FailureEntry entry = entries.get(key);
+            if (entry != null && entry.retryAtNanos() - now > 0) {
+                skipped.incrementAndGet();
+                logger.debug("Skipping {} ({} failures, last: {})", url, entry.failures(), entry.reason());
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    public void recordFailure(String url, FailureReason reason, String detail) {
+        String host = UrlHosts.hostOf(url);
+        if (host == null) {
+            return;
+        }
+        if (entries.size() >= maxEntries) {
+            evictExpired();
+        }
+        
+        String key = switch (reason) {
+            case DNS -> hostKey(host);
+            case HTTP_STATUS -> urlKey(url);
+            default -> originKey(url, host);
+        };
+        long maxBackoffNanos = TimeUnit.MINUTES.toNanos(maxBackoffMinutes);
+        failures.incrementAndGet();
+        entries.compute(key, (k, previous) -> {
+            long now = System.nanoTime();
+            // A streak is forgotten once the host has been quiet for a full maximum backoff
+            boolean decayed = previous == null || now - previous.retryAtNanos() > maxBackoffNanos;
+            int failureCount = decayed ? 1 : previous.failures() + 1;
+            long backoffNanos = Math.min(maxBackoffNanos,
+                TimeUnit.SECONDS.toNanos(baseBackoffSeconds) << Math.min(failureCount - 1, 20));
+            return new FailureEntry(host.toLowerCase(), url, reason, detail, failureCount,
+                LocalDateTime.now(), now + backoffNanos);
+        });
+        keysByHost.compute(host.toLowerCase(), (h, keys) -> {
+            Set<String> hostKeys = keys != null ? keys : ConcurrentHashMap.newKeySet();
+            hostKeys.add(key);
+            return hostKeys;
+        });
+    }
+    
+    /**
+     * The host answered, so every failure recorded against it is dropped
+     */
+    public void recordSuccess(String url) {
+        String host = UrlHosts.hostOf(url);
+        if (host == null || entries.isEmpty()) {
+            return;
+        }
+        String normalizedHost = host.toLowerCase();
+        Set<String> keys = keysByHost.remove(normalizedHost);
+        if (keys == null) {
+            return;
+        }
+        boolean cleared = false;
+        for (String key : keys) {
+            cleared |= entries.remove(key) != null;
+        }
+        if (cleared) {
+            recoveries.incrementAndGet();
+            logger.info("{} is responding again, cleared its failure history", normalizedHost);
+        }
+    }
+    
+    public int size() {
+        return entries.size();
+    }
+    
+    /**
+     * Entries that are still backing off, longest backoff first
+     */
+    public List<Map<String, Object>> getActiveEntries() {
+        long now = System.nanoTime();
+        List<Map<String, Object>> active = new ArrayList<>();
+        entries.values().stream()
+            .filter(entry -> entry.retryAtNanos() - now > 0)
+            .sorted(Comparator.comparingLong(FailureEntry::retryAtNanos).reversed())
+            .forEach(entry -> {
+                Map<String, Object> details = new LinkedHashMap<>();
+                details.put("host", entry.host());
+                details.put("url", entry.url());
+                details.put("reason", entry.reason());
+                details.put("detail", entry.detail());
+                details.put("failures", entry.failures());
+                details.put("lastFailure", entry.lastFailure());
+                details.put("retryInSeconds", TimeUnit.NANOSECONDS.toSeconds(entry.retryAtNanos() - now));
+                active.add(details);
+            });
+        return active;
+    }
+    
+    public Map<String, Object> getStatistics() {
+        return Map.of(
+            "size", size(),
+            "maxEntries", maxEntries,
+            "baseBackoffSeconds", baseBackoffSeconds,
+            "maxBackoffMinutes", maxBackoffMinutes,
+            "failures", failures.get(),
+            "skipped", skipped.get(),
+            "recoveries", recoveries.get()
+        );
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("probe.failures.recorded", failures, AtomicLong::get).register(registry);
+        FunctionCounter.builder("probe.failures.skipped", skipped, AtomicLong::get).register(registry);
+        FunctionCounter.builder("probe.failures.recoveries", recoveries, AtomicLong::get).register(registry);
+        Gauge.builder("probe.failures.size", this, ProbeFailureCache::size).register(registry);
+    }
+    
+    /**
+     * Drop entries whose streak has fully decayed; if still full, drop the oldest ones
+     */
+    private void evictExpired() {
+        long now = System.nanoTime();
+        long maxBackoffNanos = TimeUnit.MINUTES.toNanos(maxBackoffMinutes);
+        removeEntriesIf(entry -> now - entry.retryAtNanos() > maxBackoffNanos);
+        if (entries.size() >= maxEntries) {
+            removeEntriesIf(entry -> entry.retryAtNanos() - now <= 0);
+        }
+    }
+    
+    private void removeEntriesIf(Predicate<FailureEntry> condition) {
+        entries.entrySet().removeIf(entry -> {
+            if (!condition.test(entry.getValue())) {
+                return false;
+            }
+            keysByHost.computeIfPresent(entry.getValue().host(), (host, keys) -> {
+                keys.remove(entry.getKey());
+                return keys.isEmpty() ? null : keys;
+            });
+            return true;
+        });
+    }
+    
+    private String hostKey(String host) {
+        return "host:" + host.toLowerCase();
+    }
+    
+    private String originKey(String url, String host) {
+        String origin = UrlHosts.originOf(url);
+        return origin != null ? "origin:" + origin : hostKey(host);
+    }
+    
+    private String urlKey(String url) {
+        String normalized = url.trim().toLowerCase();
+        return "url:" + (normalized.endsWith("/") ? normalized.substring(0, normalized.length() - 1) : normalized);
+    }
+    
+    private record FailureEntry(String host, String url, FailureReason reason, String detail, int failures,
+                                LocalDateTime lastFailure, long retryAtNanos) {
+    }
+}
\ No newline at end of file
@@ -0,0 +1,187 @@
+package com.movielinks.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The decisions both probe pipelines share: what a HEAD answer means, when a rejected
+ * HEAD falls back to a ranged GET, whether sampled content verifies, where a hedge goes
+ * and how each outcome is recorded in the failure cache and host history.
+ * {@link UrlValidationService} and {@link ReactiveMovieSiteSearchService} only differ in
+ * how they send the requests.
+ */
+@Component
+public class ProbeOutcomes {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ProbeOutcomes.class);
+    
+    static final String USER_AGENT = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36";
+    
+    private static final int MAX_SAMPLED_FINGERPRINTS = 256;
+    
+    private static final long SAMPLE_REUSE_NANOS = TimeUnit.MINUTES.toNanos(1);
+    
+    private final ProbeFailureCache failureCache;
+    
+    private final HostHistory hostHistory;
+    
+    private final HedgePolicy hedgePolicy;
+    
+    private final ContentVerifier contentVerifier;
+    
+    // Pages that verified, so the winner's fingerprint is not fetched a second time
+    private final Map<String, SampledFingerprint> sampledFingerprints = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, SampledFingerprint> eldest) {
+            return size() > MAX_SAMPLED_FINGERPRINTS;
+        }
+    };
+    
+    public ProbeOutcomes(ProbeFailureCache failureCache,
+                         HostHistory hostHistory,
+                         HedgePolicy hedgePolicy,
+                         ContentVerifier contentVerifier) {
+        this.failureCache = failureCache;
+        this.hostHistory = hostHistory;
+        this.hedgePolicy = hedgePolicy;
+        this.contentVerifier = contentVerifier;
+    }
+    
+    /**
+     * What a HEAD that got an answer means for the candidate
+     */
+    enum HeadOutcome {
+        ACCEPTED,
+        REJECTED,
+        // 2xx, but the content still has to be checked with a ranged GET
+        VERIFY
+    }
+    
+    /**
+     * Classify an answered HEAD. Accepted and rejected answers are recorded here; a
+     * VERIFY is recorded once the ranged GET is done.
+     */
+    HeadOutcome headAnswered(String url, HttpStatusCode status, long responseTimeMs, ContentFingerprint expected) {
+        if (!status.is2xxSuccessful()) {
+            recordFailure(url, ProbeFailureCache.FailureReason.HTTP_STATUS, "HTTP " + status.value());
+            return HeadOutcome.REJECTED;
+        }
+        if (contentVerifier.needsVerification(expected)) {
+            return HeadOutcome.VERIFY;
+        }
+        recordSuccess(url, responseTimeMs);
+        return HeadOutcome.ACCEPTED;
+    }
+    
+    /**
+     * Whether a HEAD that failed with this error should be retried as a ranged GET
+     */
+    boolean fallsBackToRangedGet(String url, Throwable error) {
+        Integer status = statusOf(error);
+        if (status == null || !contentVerifier.shouldFallBack(status)) {
+            return false;
+        }
+        logger.debug("{} rejected HEAD with HTTP {}, trying a ranged GET", url, status);
+        return true;
+    }
+    
+    /**
+     * Check what a ranged GET read against the expected fingerprint and record the outcome
+     */
+    boolean rangedGetAnswered(String url, ContentFingerprint fingerprint, ContentFingerprint expected,
+                              long responseTimeMs) {
+        if (!contentVerifier.verify(url, fingerprint, expected)) {
+            recordFailure(url, ProbeFailureCache.FailureReason.CONTENT, "Content does not match the site");
+            return false;
+        }
+        recordSuccess(url, responseTimeMs);
+        if (!fingerprint.isEmpty()) {
+            synchronized (sampledFingerprints) {
+                sampledFingerprints.put(url, new SampledFingerprint(fingerprint, System.nanoTime()));
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Fingerprint a ranged GET of the URL read in the last minute, which is removed; null if
+     * there is none and the page has to be fetched to learn it
+     */
+    ContentFingerprint takeSampledFingerprint(String url) {
+        SampledFingerprint sampled;
+        synchronized (sampledFingerprints) {
+            sampled = sampledFingerprints.remove(url);
+        }
+        if (sampled == null || System.nanoTime() - sampled.sampledAtNanos() > SAMPLE_REUSE_NANOS) {
+            return null;
+        }
+        return sampled.fingerprint();
+    }
+    
+    /**
+     * Record a probe that failed with an error; always false, the probe's result
+     */
+    boolean failed(String url, Throwable error) {
+        logger.debug("URL not accessible: {} - {}", url, error.getMessage());
+        Integer status = statusOf(error);
+        if (status != null) {
+            recordFailure(url, ProbeFailureCache.FailureReason.HTTP_STATUS, "HTTP " + status);
+        } else if (!Thread.currentThread().isInterrupted()) {
+            // A probe cancelled because a better candidate already won says nothing about the host
+            recordFailure(url, ProbeFailureCache.FailureReason.classify(error), error.getMessage());
+        }
+        return false;
+    }
+    
+    /**
+     * URL to hedge a slow probe of the URL with, or null if the hedge budget is spent
+     */
+    String hedgeTarget(String url) {
+        if (!hedgePolicy.tryHedge()) {
+            return null;
+        }
+        String hedgeUrl = hedgePolicy.hedgeTarget(url);
+        logger.debug("Hedging probe of {} with {}", url, hedgeUrl);
+        return hedgeUrl;
+    }
+    
+    /**
+     * Record a successful probe: clears the host's backoff and feeds ranking history
+     */
+    void recordSuccess(String url, long responseTimeMs) {
+        failureCache.recordSuccess(url);
+        hostHistory.recordSuccess(url, responseTimeMs);
+    }
+    
+    /**
+     * Record a failed probe: backs the candidate off and feeds ranking history
+     */
+    void recordFailure(String url, ProbeFailureCache.FailureReason reason, String detail) {
+        failureCache.recordFailure(url, reason, detail);
+        hostHistory.recordFailure(url);
+    }
+    
+    private record SampledFingerprint(ContentFingerprint fingerprint, long sampledAtNanos) {
+    }
+    
+    /**
+     * HTTP status of an error response from either client, or null for other errors
+     */
+    private static Integer statusOf(Throwable error) {
+        if (error instanceof RestClientResponseException responseError) {
+            return responseError.getStatusCode().value();
+        }
+        if (error instanceof WebClientResponseException responseError) {
+            return responseError.getStatusCode().value();
+        }
+        return null;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,543 @@
+package com.movielinks.service;
+
+import com.movielinks.model.MovieSite;
+import com.movielinks.repository.MovieSiteRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Non-blocking variant of {@link MovieSiteSearchService}. Browserless search, URL extraction,
+ * validation and persistence are composed into one pipeline, so a few event-loop threads
+ * can drive many site resolutions at once. Concurrency at each stage is bounded by flatMap
+ * limits, which also propagate backpressure to the upstream stages.
+ */
+@Service
+public class ReactiveMovieSiteSearchService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveMovieSiteSearchService.class);
+    
+    @Value("${movie-search.engine-concurrency.google:3}")
+    private int googleConcurrency;
+    
+    @Value("${movie-search.engine-concurrency.duckduckgo:3}")
+    private int duckDuckGoConcurrency;
+    
+    @Value("${movie-search.validation.pool-size:16}")
+    private int validationConcurrency;
+    
+    @Value("${movie-search.validation.deadline-ms:10000}")
+    private long validationDeadlineMs;
+    
+    @Value("${movie-search.reactive.site-concurrency:4}")
+    private int siteConcurrency;
+    
+    @Value("${movie-search.adaptive.enabled:true}")
+    private boolean adaptiveEnabled;
+    
+    @Value("${movie-search.adaptive.min-confidence:0.65}")
+    private double adaptiveMinConfidence;
+    
+    @Value("${movie-search.adaptive.terms-per-query:3}")
+    private int adaptiveTermsPerQuery;
+    
+    @Value("${movie-search.adaptive.max-in-flight:2}")
+    private int adaptiveMaxInFlight;
+    
+    private final MovieSiteSearchService searchService;
+    
+    private final BrowserlessClient browserlessClient;
+    
+    private final SearchRateLimiter rateLimiter;
+    
+    private final DomainCandidateGenerator domainCandidateGenerator;
+    
+    private final DnsResolver dnsResolver;
+    
+    private final ProbeFailureCache failureCache;
+    
+    private final ProbeOutcomes probeOutcomes;
+    
+    private final CandidateRanker candidateRanker;
+    
+    private final WebClient probeWebClient;
+    
+    private final MovieSiteRepository movieSiteRepository;
+    
+    private final SearchResultCache searchResultCache;
+    
+    private final SiteResolutionCoalescer resolutionCoalescer;
+    
+    private final DependencyGuard dependencyGuard;
+    
+    private final HedgePolicy hedgePolicy;
+    
+    private final ContentVerifier contentVerifier;
+    
+    public ReactiveMovieSiteSearchService(MovieSiteSearchService searchService,
+                                          BrowserlessClient browserlessClient,
+                                          SearchRateLimiter rateLimiter,
+                                          DomainCandidateGenerator domainCandidateGenerator,
+                                          DnsResolver dnsResolver,
+                                          ProbeFailureCache failureCache,
+                                          ProbeOutcomes probeOutcomes,
+                                          CandidateRanker candidateRanker,
+                                          @Qualifier("probeWebClient") WebClient probeWebClient,
+                                          MovieSiteRepository movieSiteRepository,
+                                          SearchResultCache searchResultCache,
+                                          SiteResolutionCoalescer resolutionCoalescer,
+                                          DependencyGuard dependencyGuard,
+                                          HedgePolicy hedgePolicy,
+                                          ContentVerifier contentVerifier) {
+        this.searchService = searchService;
+        this.browserlessClient = browserlessClient;
+        this.rateLimiter = rateLimiter;
+        this.domainCandidateGenerator = domainCandidateGenerator;
+        this.dnsResolver = dnsResolver;
+        this.failureCache = failureCache;
+        this.probeOutcomes = probeOutcomes;
+        this.candidateRanker = candidateRanker;
+        this.probeWebClient = probeWebClient;
+        this.movieSiteRepository = movieSiteRepository;
+        this.searchResultCache = searchResultCache;
+        this.resolutionCoalescer = resolutionCoalescer;
+        this.dependencyGuard = dependencyGuard;
+        this.hedgePolicy = hedgePolicy;
+        this.contentVerifier = contentVerifier;
+    }
+    
+    /**
+     * Resolve and persist the working link of a single movie site. The resolution is
+     * shared with any concurrent blocking or reactive call for the same site.
+     */
+    public Mono<MovieSite> findWorkingLink(String siteName) {
+        // Cancellation is suppressed so one subscriber leaving does not cancel the shared resolution
+        return Mono.fromFuture(() -> resolutionCoalescer.resolve(siteName, () -> resolveWorkingLink(siteName).toFuture()), true)
+            .map(searchService::copyResult)
+            .flatMap(this::persist);
+    }
+    
+    private Mono<MovieSite> resolveWorkingLink(String siteName) {
+        return loadPersistedState(siteName).flatMap(previousState -> {
+            MovieSite movieSite = searchService.createMovieSiteInstance(siteName);
+            
+            // Tier 1: probe the stored URL, mirrors and known domains in parallel
+            List<String> knownLocations = previousState.map(searchService::knownLocationsOf).orElse(List.of());
+            ContentFingerprint expected = ContentFingerprint.of(previousState.orElse(null));
+            Mono<String> knownLocation = findBestAccessibleUrl(knownLocations, expected);
+            
+            // Tier 2: probe TLD rotations of the site name, verified to be the site's page;
+            // DNS lookups block, so they run on a worker
+            ContentFingerprint rotationExpected = contentVerifier.rotationExpectation(expected, siteName);
+            Mono<String> rotatedLocation = Mono.defer(() -> domainCandidateGenerator.isEnabled() && rotationExpected != null
+                ? Mono.fromCallable(() -> domainCandidateGenerator.findResolvableCandidates(siteName, knownLocations))
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .flatMap(candidates -> findBestAccessibleUrl(candidates, rotationExpected))
+                : Mono.empty());
+            
+            // Tier 3: search every alias on Google and DuckDuckGo, only if nothing else answered
+            Mono<String> searchedLocation = Mono.defer(() -> adaptiveEnabled
+                ? searchAdaptively(movieSite.getSearchAliases(), siteName, knownLocations, expected)
+                : searchAllEngines(movieSite.getSearchAliases())
+                    .filter(result -> searchService.matchesSiteName(result.host(), siteName))
+                    .collectList()
+                    .flatMap(results -> findBestRankedUrl(candidateRanker.rank(results, siteName, knownLocations), expected)));
+            
+            return knownLocation
+                .switchIfEmpty(rotatedLocation)
+                .switchIfEmpty(searchedLocation)
+                .flatMap(workingUrl -> {
+                    movieSite.setCurrentWorkingUrl(workingUrl);
+                    movieSite.setStatus("WORKING");
+                    movieSite.setLastChecked(LocalDateTime.now());
+                    searchService.applyResponseTimes(movieSite);
+                    logger.info("Found working URL for {}: {}", siteName, workingUrl);
+                    return fingerprint(workingUrl)
+                        .doOnNext(fingerprint -> searchService.refreshContentFingerprint(movieSite, fingerprint))
+                        .thenReturn(movieSite);
+                })
+                .switchIfEmpty(Mono.fromSupplier(() -> {
+                    movieSite.setStatus("NOT_FOUND");
+                    logger.warn("No working URL found for: {}", siteName);
+                    return movieSite;
+                }))
+                .doOnNext(site -> searchService.carryForwardKnownLocations(previousState.orElse(null), site));
+        })
+        .onErrorResume(e -> {
+            logger.error("Error searching for {}: {}", siteName, e.getMessage());
+            MovieSite errorSite = searchService.createMovieSiteInstance(siteName);
+            errorSite.setStatus("ERROR");
+            errorSite.setNotes("Search failed: " + e.getMessage());
+            return Mono.just(errorSite);
+        });
+    }
+    
+    /**
+     * Resolve multiple movie sites, at most site-concurrency at a time
+     */
+    public Flux<MovieSite> findWorkingLinks(List<String> siteNames) {
+        return Flux.fromIterable(siteNames)
+            .flatMap(this::findWorkingLink, Math.max(1, siteConcurrency));
+    }
+    
+    /**
+     * Query every alias on both engines, merging extracted results as they arrive
+     */
+    private Flux<SearchResult> searchAllEngines(List<String> searchTerms) {
+        return Flux.merge(
+            searchEngine(SearchEngine.GOOGLE, searchTerms, googleConcurrency),
+            searchEngine(SearchEngine.DUCKDUCKGO, searchTerms, duckDuckGoConcurrency)
+        );
+    }
+    
+    private Flux<SearchResult> searchEngine(SearchEngine engine, List<String> searchTerms, int concurrency) {
+        return Flux.defer(() -> {
+            // Fresh cached results skip Browserless entirely
+            List<SearchResult> cachedResults = new ArrayList<>();
+            List<String> uncachedTerms = new ArrayList<>();
+            for (String term : searchTerms) {
+                List<SearchResult> results = searchResultCache.get(engine, term);
+                if (results != null) {
+                    cachedResults.addAll(results);
+                } else {
+                    uncachedTerms.add(term);
+                }
+            }
+            if (!dependencyGuard.canSearch(engine)) {
+                // Fail fast while the engine or Browserless is tripped; the other engine still runs
+                logger.info("Skipping {} search while its circuit breaker is open", engine.getDisplayName());
+                uncachedTerms.clear();
+            }
+            
+            return Flux.fromIterable(cachedResults).concatWith(
+                Flux.fromIterable(browserlessClient.partitionTerms(uncachedTerms))
+                    .flatMap(termGroup -> searchTermGroup(engine, termGroup), Math.max(1, concurrency)));
+        });
+    }
+    
+    /**
+     * Run the engine queries max-in-flight at a time and validate candidates as each one
+     * completes. The first candidate that answers with at least min-confidence ends the
+     * search: next() cancels the running queries and the queued ones are never started.
+     */
+    private Mono<String> searchAdaptively(List<String> searchTerms, String siteName, List<String> knownLocations,
+                                          ContentFingerprint expected) {
+        return Mono.defer(() -> {
+            MovieSiteSearchService.SearchPlan plan = searchService.planSearch(searchTerms, adaptiveTermsPerQuery);
+            // Only touched from concatMap, which handles one arrival at a time
+            List<SearchResult> results = new ArrayList<>(plan.cachedResults());
+            Set<String> probed = new HashSet<>();
+            AtomicReference<CandidateRanker.ScoredCandidate> fallback = new AtomicReference<>();
+            
+            Mono<CandidateRanker.ScoredCandidate> cachedMatch = results.isEmpty()
+                ? Mono.empty()
+                : validateNextCandidates(results, siteName, knownLocations, probed, expected)
+                    .filter(found -> isConfident(found, fallback));
+            
+            Mono<CandidateRanker.ScoredCandidate> searchedMatch = Mono.defer(() -> Flux.fromIterable(plan.queries())
+                .flatMap(query -> searchTermGroup(query.engine(), query.terms()).collectList(),
+                    Math.max(1, adaptiveMaxInFlight))
+                .concatMap(batch -> {
+                    results.addAll(batch);
+                    return validateNextCandidates(results, siteName, knownLocations, probed, expected);
+                })
+                .filter(found -> isConfident(found, fallback))
+                .next());
+            
+            return cachedMatch
+                .switchIfEmpty(searchedMatch)
+                .doOnNext(found -> logger.info("Confident match for {} (score {}), stopping search",
+                    siteName, String.format("%.2f", found.score())))
+                .map(CandidateRanker.ScoredCandidate::url)
+                .switchIfEmpty(Mono.defer(() -> {
+                    if (fallback.get() != null) {
+                        return Mono.just(fallback.get().url());
+                    }
+                    // Nothing answered among the top candidates of each round; try the rest
+                    List<SearchResult> unprobed = new ArrayList<>();
+                    for (SearchResult result : results) {
+                        if (!probed.contains(UrlHosts.stripWww(result.host())) && searchService.matchesSiteName(result.host(), siteName)) {
+                            unprobed.add(result);
+                        }
+                    }
+                    return findBestRankedUrl(candidateRanker.rank(unprobed, siteName, knownLocations), expected);
+                }));
+        });
+    }
+    
+    /**
+     * Whether a validated candidate is good enough to stop searching; if not, it is kept
+     * as the fallback when it beats the current one
+     */
+    private boolean isConfident(CandidateRanker.ScoredCandidate found,
+                                AtomicReference<CandidateRanker.ScoredCandidate> fallback) {
+        if (found.score() >= adaptiveMinConfidence) {
+            return true;
+        }
+        fallback.accumulateAndGet(found, (current, next) ->
+            current == null || next.score() > current.score() ? next : current);
+        return false;
+    }
+    
+    /**
+     * Probe the best candidates found so far that have not been probed yet
+     */
+    private Mono<CandidateRanker.ScoredCandidate> validateNextCandidates(List<SearchResult> results, String siteName,
+                                                                        List<String> knownLocations, Set<String> probed,
+                                                                        ContentFingerprint expected) {
+        List<CandidateRanker.ScoredCandidate> candidates = searchService.nextCandidates(results, siteName, knownLocations, probed);
+        List<String> urls = new ArrayList<>(candidates.size());
+        candidates.forEach(candidate -> urls.add(candidate.url()));
+        
+        return findBestAccessibleUrl(urls, expected).flatMap(workingUrl -> Mono.justOrEmpty(candidates.stream()
+            .filter(candidate -> candidate.url().equals(workingUrl))
+            .findFirst()));
+    }
+    
+    private Flux<SearchResult> searchTermGroup(SearchEngine engine, List<String> terms) {
+        return Mono.defer(() -> {
+                Duration wait = rateLimiter.reserveEngine(engine);
+                Mono<Map<String, List<SearchResult>>> search = browserlessClient.searchReactive(engine, terms);
+                return wait.isZero() ? search : Mono.delay(wait).then(search);
+            })
+            .flatMapIterable(Map::entrySet)
+            .flatMapIterable(termResults -> {
+                List<SearchResult> validResults = searchService.filterValidResults(termResults.getValue());
+                searchResultCache.put(engine, termResults.getKey(), validResults);
+                return validResults;
+            })
+            .onErrorResume(e -> {
+                logger.warn("{} search failed for terms {}: {}", engine.getDisplayName(), terms, e.getMessage());
+                return Flux.empty();
+            });
+    }
+    
+    /**
+     * Probe candidates concurrently; flatMapSequential keeps rank order, so the first
+     * emitted URL is the best-ranked accessible one and next() cancels the rest. If the
+     * deadline hits first, settle for the best candidate that has already answered, as
+     * {@link UrlValidationService#findBestAccessibleUrl} does.
+     */
+    private Mono<String> findBestAccessibleUrl(List<String> rankedUrls, ContentFingerprint expected) {
+        return Mono.defer(() -> {
+            AtomicReferenceArray<String> answeredUrls = new AtomicReferenceArray<>(rankedUrls.size());
+            return Flux.range(0, rankedUrls.size())
+                .flatMapSequential(index -> findAnsweringUrl(rankedUrls.get(index), expected)
+                    .doOnNext(answered -> answeredUrls.set(index, answered)), Math.max(1, validationConcurrency))
+                .next()
+                .timeout(Duration.ofMillis(validationDeadlineMs), Mono.fromSupplier(() -> {
+                    logger.debug("URL validation deadline of {} ms reached", validationDeadlineMs);
+                    for (int i = 0; i < answeredUrls.length(); i++) {
+                        if (answeredUrls.get(i) != null) {
+                            return answeredUrls.get(i);
+                        }
+                    }
+                    return null;
+                }));
+        });
+    }
+    
+    /**
+     * Probe the top-k ranked candidates first and the rest only if none of them answers
+     */
+    private Mono<String> findBestRankedUrl(List<String> rankedUrls, ContentFingerprint expected) {
+        int topK = Math.min(candidateRanker.getTopK(), rankedUrls.size());
+        return findBestAccessibleUrl(rankedUrls.subList(0, topK), expected)
+            .switchIfEmpty(Mono.defer(() -> findBestAccessibleUrl(rankedUrls.subList(topK, rankedUrls.size()), expected)));
+    }
+    
+    /**
+     * Probe the URL once its host resolves; recently failed and unresolvable hosts never
+     * reach the connection pool. Emits the URL that answered, which is the hedge target
+     * if a hedge won, or nothing if the candidate is not accessible.
+     */
+    private Mono<String> findAnsweringUrl(String url, ContentFingerprint expected) {
+        if (failureCache.isSuppressed(url)) {
+            return Mono.empty();
+        }
+        
+        return Mono.fromFuture(() -> dnsResolver.resolveAsync(UrlHosts.hostOf(url)))
+            .flatMap(resolvable -> {
+                if (resolvable) {
+                    return afterHostPermit(url, Mono.defer(() -> hedgedHead(url, expected)));
+                }
+                probeOutcomes.recordFailure(url, ProbeFailureCache.FailureReason.DNS, "Host does not resolve");
+                return Mono.empty();
+            });
+    }
+    
+    /**
+     * HEAD the URL and, if it is still unanswered after the host's p95, race it against a
+     * hedge (see {@link HedgePolicy}). The delay starts once the request is sent, so time
+     * spent on DNS or the host rate limit never triggers a hedge. The primary is shared,
+     * so it keeps running and gets recorded while it races the hedge.
+     */
+    private Mono<String> hedgedHead(String url, ContentFingerprint expected) {
+        Mono<String> primary = head(url, expected)
+            .filter(Boolean::booleanValue)
+            .map(accessible -> url);
+        Duration hedgeDelay = hedgePolicy.hedgeDelay(url);
+        if (hedgeDelay == null) {
+            return primary;
+        }
+        
+        Mono<String> sharedPrimary = primary.cache();
+        return sharedPrimary.timeout(hedgeDelay, Mono.defer(() -> {
+            String hedgeUrl = probeOutcomes.hedgeTarget(url);
+            if (hedgeUrl == null) {
+                return sharedPrimary;
+            }
+            Mono<String> hedge = afterHostPermit(hedgeUrl, head(hedgeUrl, expected))
+                .filter(Boolean::booleanValue)
+                .map(accessible -> hedgeUrl)
+                .doOnNext(won -> hedgePolicy.recordHedgeWon());
+            return Mono.firstWithValue(sharedPrimary, hedge)
+                .onErrorResume(NoSuchElementException.class, e -> Mono.empty());
+        }));
+    }
+    
+    private <T> Mono<T> afterHostPermit(String url, Mono<T> request) {
+        return Mono.defer(() -> {
+            Duration wait = rateLimiter.reserveHost(url);
+            return wait.isZero() ? request : Mono.delay(wait).then(request);
+        });
+    }
+    
+    /**
+     * HEAD the URL, retrying transient failures within the probe retry budget. A rejected
+     * HEAD falls back to a ranged GET, which also verifies a HEAD success when an expected
+     * fingerprint is given (see {@link ContentVerifier}). Outcomes are recorded in the
+     * failure cache and host history.
+     */
+    private Mono<Boolean> head(String url, ContentFingerprint expected) {
+        return dependencyGuard.executeReactive(DependencyGuard.Dependency.PROBE, () -> Mono.defer(() -> {
+                long started = System.nanoTime();
+                return probeWebClient.head()
+                    .uri(URI.create(url))
+                    .header("User-Agent", ProbeOutcomes.USER_AGENT)
+                    .retrieve()
+                    .toBodilessEntity()
+                    .map(response -> probeOutcomes.headAnswered(url, response.getStatusCode(),
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), expected));
+            }))
+            .flatMap(outcome -> switch (outcome) {
+                case ACCEPTED -> Mono.just(true);
+                case REJECTED -> Mono.just(false);
+                case VERIFY -> rangedGet(url, expected);
+            })
+            .onErrorResume(e -> probeOutcomes.fallsBackToRangedGet(url, e)
+                ? rangedGet(url, expected)
+                : Mono.just(probeOutcomes.failed(url, e)));
+    }
+    
+    /**
+     * GET only the start of the URL and check it against the expected fingerprint. The
+     * response time is the time to the response headers.
+     */
+    private Mono<Boolean> rangedGet(String url, ContentFingerprint expected) {
+        return dependencyGuard.executeReactive(DependencyGuard.Dependency.PROBE, () -> Mono.defer(() -> {
+                long started = System.nanoTime();
+                AtomicLong answered = new AtomicLong();
+                return sampleStart(url, answered).map(fingerprint -> probeOutcomes.rangedGetAnswered(url,
+                    fingerprint, expected, TimeUnit.NANOSECONDS.toMillis(answered.get() - started)));
+            }))
+            .onErrorResume(e -> Mono.just(probeOutcomes.failed(url, e)));
+    }
+    
+    /**
+     * Fingerprint the start of the working URL; empty if it cannot be fetched. The sample
+     * of the probe that picked the URL is used if there is one (see
+     * {@link UrlValidationService#fingerprint}).
+     */
+    private Mono<ContentFingerprint> fingerprint(String url) {
+        if (!contentVerifier.isEnabled()) {
+            return Mono.empty();
+        }
+        ContentFingerprint sampled = probeOutcomes.takeSampledFingerprint(url);
+        if (sampled != null) {
+            return Mono.just(sampled);
+        }
+        return afterHostPermit(url, sampleStart(url, new AtomicLong()))
+            .filter(fingerprint -> !fingerprint.isEmpty())
+            .onErrorResume(e -> {
+                logger.debug("Could not fingerprint {}: {}", url, e.getMessage());
+                return Mono.empty();
+            });
+    }
+    
+    /**
+     * Ranged GET of the URL, fingerprinting at most max-bytes of the body; answered is set
+     * when the response headers arrive. Whatever is left of the body is cancelled, which
+     * closes the connection instead of draining the page.
+     */
+    private Mono<ContentFingerprint> sampleStart(String url, AtomicLong answered) {
+        return probeWebClient.get()
+            .uri(URI.create(url))
+            .header("User-Agent", ProbeOutcomes.USER_AGENT)
+            .header(HttpHeaders.RANGE, contentVerifier.rangeHeader())
+            .exchangeToMono(response -> {
+                answered.set(System.nanoTime());
+                if (!response.statusCode().is2xxSuccessful()) {
+                    return response.createError();
+                }
+                return DataBufferUtils.join(DataBufferUtils.takeUntilByteCount(
+                        response.bodyToFlux(DataBuffer.class), contentVerifier.getMaxBytes()))
+                    .map(buffer -> {
+                        byte[] content = new byte[buffer.readableByteCount()];
+                        buffer.read(content);
+                        DataBufferUtils.release(buffer);
+                        return content;
+                    })
+                    .defaultIfEmpty(new byte[0])
+                    .map(contentVerifier::fingerprint);
+            });
+    }
+    
+    /**
+     * Load the stored row for the site on a worker thread, since JPA is blocking
+     */
+    private Mono<Optional<MovieSite>> loadPersistedState(String siteName) {
+        return Mono.fromCallable(() -> Optional.ofNullable(searchService.loadPersistedState(siteName)))
+            .subscribeOn(Schedulers.boundedElastic());
+    }
+    
+    /**
+     * Save the result on a worker thread, keeping the id of any existing row for the site
+     */
+    private Mono<MovieSite> persist(MovieSite site) {
+        return Mono.fromCallable(() -> {
+                movieSiteRepository.findBySiteNameIgnoreCase(site.getSiteName())
+                    .ifPresent(existing -> site.setId(existing.getId()));
+                return movieSiteRepository.save(site);
+            })
+            .subscribeOn(Schedulers.boundedElastic())
+            .onErrorResume(e -> {
+                logger.warn("Failed to persist result for {}: {}", site.getSiteName(), e.getMessage());
+                return Mono.just(site);
+            });
+    }
+}
\ No newline at end of file
@@ -0,0 +1,67 @@
+package com.movielinks.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Caps retries at a fraction of first attempts. Every first attempt deposits ratio
+ * tokens, up to a cap, and every retry withdraws one. When a dependency fails
+ * persistently the budget drains, so retries cannot multiply the load on it. The
+ * delay before a retry is drawn uniformly between zero and an exponentially growing
+ * bound ("full jitter"), so callers that failed together do not retry together.
+ */
+public class RetryBudget {
+    
+    private final double ratio;
+    private final double capacity;
+    private final long baseBackoffMs;
+    private final long maxBackoffMs;
+    private double balance;
+    private long retries;
+    private long exhausted;
+    
+    public RetryBudget(double ratio, int minRetries, long baseBackoffMs, long maxBackoffMs) {
+        this.ratio = Math.max(0.0, ratio);
+        // Saved-up retries never exceed ratio x the last hundred first attempts
+        this.capacity = Math.max(Math.max(1, minRetries), this.ratio * 100);
+        this.baseBackoffMs = Math.max(1, baseBackoffMs);
+        this.maxBackoffMs = Math.max(this.baseBackoffMs, maxBackoffMs);
+        this.balance = Math.max(0, minRetries);
+    }
+    
+    public synchronized void onFirstAttempt() {
+        balance = Math.min(capacity, balance + ratio);
+    }
+    
+    /**
+     * Take one retry from the budget if there is one left
+     */
+    public synchronized boolean tryRetry() {
+        if (balance >= 1.0) {
+            balance -= 1.0;
+            retries++;
+            return true;
+        }
+        exhausted++;
+        return false;
+    }
+    
+    /**
+     * Jittered delay before the given retry (1 for the first retry)
+     */
+    public long backoffMillis(int retry) {
+        long bound = baseBackoffMs << Math.min(Math.max(0, retry - 1), 20);
+        return ThreadLocalRandom.current().nextLong(Math.min(bound, maxBackoffMs) + 1);
+    }
+    
+    public synchronized double getBalance() {
+        return balance;
+    }
+    
+    public synchronized long getRetries() {
+        return retries;
+    }
+    
+    public synchronized long getExhausted() {
+        return exhausted;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,20 @@
+package com.movielinks.service;
+
+/**
+ * Search engines that are scraped through Browserless
+ */
+public enum SearchEngine {
+
+    GOOGLE("Google"),
+    DUCKDUCKGO("DuckDuckGo");
+    
+    private final String displayName;
+    
+    SearchEngine(String displayName) {
+        this.displayName = displayName;
+    }
+    
+    public String getDisplayName() {
+        return displayName;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,135 @@
+package com.movielinks.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shared rate limits for outbound traffic: one token bucket per search engine,
+ * one for Browserless itself and one per probed target host
+ */
+@Component
+public class SearchRateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchRateLimiter.class);
+    
+    private static final int MAX_TRACKED_HOSTS = 1000;
+    
+    @Value("${movie-search.rate-limits.google.permits-per-second:1.0}")
+    private double googlePermitsPerSecond;
+    
+    @Value("${movie-search.rate-limits.google.burst:3}")
+    private int googleBurst;
+    
+    @Value("${movie-search.rate-limits.duckduckgo.permits-per-second:1.0}")
+    private double duckDuckGoPermitsPerSecond;
+    
+    @Value("${movie-search.rate-limits.duckduckgo.burst:3}")
+    private int duckDuckGoBurst;
+    
+    @Value("${movie-search.rate-limits.browserless.permits-per-second:2.0}")
+    private double browserlessPermitsPerSecond;
+    
+    @Value("${movie-search.rate-limits.browserless.burst:4}")
+    private int browserlessBurst;
+    
+    @Value("${movie-search.rate-limits.per-host.permits-per-second:2.0}")
+    private double hostPermitsPerSecond;
+    
+    @Value("${movie-search.rate-limits.per-host.burst:2}")
+    private int hostBurst;
+    
+    private final Map<SearchEngine, TokenBucket> engineBuckets = new EnumMap<>(SearchEngine.class);
+    private final Map<String, TokenBucket> hostBuckets = new ConcurrentHashMap<>();
+    private TokenBucket browserlessBucket;
+    private volatile int evictionThreshold = MAX_TRACKED_HOSTS;
+    
+    @PostConstruct
+    void initBuckets() {
+        engineBuckets.put(SearchEngine.GOOGLE, new TokenBucket(googlePermitsPerSecond, googleBurst));
+        engineBuckets.put(SearchEngine.DUCKDUCKGO, new TokenBucket(duckDuckGoPermitsPerSecond, duckDuckGoBurst));
+        browserlessBucket = new TokenBucket(browserlessPermitsPerSecond, browserlessBurst);
+    }
+    
+    /**
+     * Acquire a permit for a query against the given search engine
+     */
+    public boolean acquireEngine(SearchEngine engine) {
+        return acquire(engineBuckets.get(engine));
+    }
+    
+    /**
+     * Acquire a permit for a Browserless session
+     */
+    public boolean acquireBrowserless() {
+        return acquire(browserlessBucket);
+    }
+    
+    /**
+     * Acquire a permit for a request to the host of the given URL
+     */
+    public boolean acquireHost(String url) {
+        String host = UrlHosts.hostOf(url);
+        if (host == null) {
+            return true;
+        }
+        
+        return acquire(hostBucket(host));
+    }
+    
+    /**
+     * Reserve an engine permit and return how long to delay before using it
+     */
+    public Duration reserveEngine(SearchEngine engine) {
+        return Duration.ofNanos(engineBuckets.get(engine).reserve());
+    }
+    
+    /**
+     * Reserve a Browserless permit and return how long to delay before using it
+     */
+    public Duration reserveBrowserless() {
+        return Duration.ofNanos(browserlessBucket.reserve());
+    }
+    
+    /**
+     * Reserve a permit for the host of the given URL and return how long to delay before using it
+     */
+    public Duration reserveHost(String url) {
+        String host = UrlHosts.hostOf(url);
+        return host == null ? Duration.ZERO : Duration.ofNanos(hostBucket(host).reserve());
+    }
+    
+    private TokenBucket hostBucket(String host) {
+        if (hostBuckets.size() > evictionThreshold) {
+            // Idle buckets are back at full capacity, so dropping them loses no state. The next
+            // sweep waits until the map has doubled again, so a map of busy hosts is not rescanned
+            // on every call.
+            hostBuckets.values().removeIf(TokenBucket::isFull);
+            evictionThreshold = Math.max(MAX_TRACKED_HOSTS, hostBuckets.size() * 2);
+        }
+        
+        return hostBuckets.computeIfAbsent(host,
+            key -> new TokenBucket(hostPermitsPerSecond, hostBurst));
+    }
+    
+    /**
+     * Returns false if the caller was interrupted while waiting for a permit
+     */
+    private boolean acquire(TokenBucket bucket) {
+        try {
+            bucket.acquire();
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.debug("Interrupted while waiting for rate limit permit");
+            return false;
+        }
+    }
+}
\ No newline at end of file
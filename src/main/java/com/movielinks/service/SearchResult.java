@@ -0,0 +1,19 @@
+package com.movielinks.service;
+
+/**
+ * One organic result scraped from a search engine page. Rank is the 1-based position
+ * of the result on the page; host is the lower-cased host of the URL.
+ */
+public record SearchResult(String url, String title, int rank, String host, SearchEngine engine) {
+    
+    /**
+     * Result for the URL, or null if it is not an absolute http(s) URL with a host
+     */
+    public static SearchResult of(String url, String title, int rank, SearchEngine engine) {
+        if (url == null) {
+            return null;
+        }
+        String host = UrlHosts.hostOf(url);
+        return host == null ? null : new SearchResult(url, title, rank, host, engine);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,115 @@
+package com.movielinks.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded TTL cache of ranked results extracted from search engine pages, keyed by engine
+ * and search term. Repeat resolutions of the same aliases within the TTL are served
+ * from memory instead of running another Browserless search.
+ */
+@Component
+public class SearchResultCache implements MeterBinder {
+    
+    @Value("${movie-search.search-cache.ttl-minutes:30}")
+    private long ttlMinutes;
+    
+    @Value("${movie-search.search-cache.max-entries:2000}")
+    private int maxEntries;
+    
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    
+    // Access-ordered so the least recently used entry is evicted first when full
+    private final Map<String, CacheEntry> entries = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+            if (size() > maxEntries) {
+                evictions.incrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    };
+    
+    /**
+     * Cached results for the engine and term, or null if absent or expired
+     */
+    public List<SearchResult> get(SearchEngine engine, String term) {
+        String key = key(engine, term);
+        synchronized (entries) {
+            CacheEntry entry = entries.get(key);
+            if (entry != null && entry.expiresAtNanos() - System.nanoTime() > 0) {
+                hits.incrementAndGet();
+                return entry.results();
+            }
+            if (entry != null) {
+                entries.remove(key);
+                evictions.incrementAndGet();
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+    
+    /**
+     * Store the results extracted for the engine and term. Empty results are not cached,
+     * so a failed or blocked search is retried on the next resolution.
+     */
+    public void put(SearchEngine engine, String term, List<SearchResult> results) {
+        if (results.isEmpty()) {
+            return;
+        }
+        long expiresAt = System.nanoTime() + TimeUnit.MINUTES.toNanos(ttlMinutes);
+        synchronized (entries) {
+            entries.put(key(engine, term), new CacheEntry(List.copyOf(results), expiresAt));
+        }
+    }
+    
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+    
+    public Map<String, Object> getStatistics() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long lookups = hitCount + missCount;
+        return Map.of(
+            "size", size(),
+            "maxEntries", maxEntries,
+            "ttlMinutes", ttlMinutes,
+            "hits", hitCount,
+            "misses", missCount,
+            "evictions", evictions.get(),
+            "hitRate", lookups == 0 ? 0.0 : (double) hitCount / lookups
+        );
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("search.cache.hits", hits, AtomicLong::get).register(registry);
+        FunctionCounter.builder("search.cache.misses", misses, AtomicLong::get).register(registry);
+        FunctionCounter.builder("search.cache.evictions", evictions, AtomicLong::get).register(registry);
+        Gauge.builder("search.cache.size", this, SearchResultCache::size).register(registry);
+    }
+    
+    private String key(SearchEngine engine, String term) {
+        return engine.name() + ":" + term.trim().toLowerCase();
+    }
+    
+    private record CacheEntry(List<SearchResult> results, long expiresAtNanos) {
+    }
+}
\ No newline at end of file
@@ -0,0 +1,271 @@
+package com.movielinks.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.*;
+
+/**
+ * Single-pass streaming parser for Browserless search responses. Only the url and title
+ * of each result are materialized; every other field is skipped at the token level, so
+ * no tree or intermediate copy of the payload is built. Reactive bodies are fed to a
+ * non-blocking parser buffer by buffer as they arrive. The scripts return their results
+ * as {data, type: "application/json"}, so Browserless sends the array itself as the body
+ * rather than a JSON string holding it.
+ */
+@Component
+public class SearchResultParser {
+    
+    private final JsonFactory jsonFactory;
+    
+    public SearchResultParser(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+    }
+    
+    /**
+     * Parse a single-term response: [{title, url}, ...], tagging each result with its engine
+     */
+    public List<SearchResult> parseResults(InputStream body, SearchEngine engine) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            return parser.nextToken() == JsonToken.START_ARRAY ? readResults(parser, engine) : List.of();
+        }
+    }
+    
+    /**
+     * Parse a batch response: [{term, results: [{title, url}, ...]}, ...], keyed by term
+     */
+    public Map<String, List<SearchResult>> parseBatch(InputStream body, SearchEngine engine) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            return parser.nextToken() == JsonToken.START_ARRAY ? readBatch(parser, engine) : Map.of();
+        }
+    }
+    
+    /**
+     * Like {@link #parseResults(InputStream, SearchEngine)}, parsing each body buffer as it
+     * arrives; only the result being read is held, never the whole body
+     */
+    public Mono<List<SearchResult>> parseResults(Flux<DataBuffer> body, SearchEngine engine) {
+        return Mono.defer(() -> {
+            List<SearchResult> results = new ArrayList<>();
+            int[] rank = {0};
+            return parseElements(body, element -> {
+                if (element.currentToken() == JsonToken.START_OBJECT) {
+                    addResult(results, readResult(element, engine, ++rank[0]));
+                }
+            }).thenReturn(results);
+        });
+    }
+    
+    /**
+     * Like {@link #parseBatch(InputStream, SearchEngine)}, parsing each body buffer as it
+     * arrives; only the term being read is held, never the whole body
+     */
+    public Mono<Map<String, List<SearchResult>>> parseBatch(Flux<DataBuffer> body, SearchEngine engine) {
+        return Mono.defer(() -> {
+            Map<String, List<SearchResult>> resultsByTerm = new LinkedHashMap<>();
+            return parseElements(body, element -> {
+                if (element.currentToken() == JsonToken.START_OBJECT) {
+                    readBatchEntry(element, engine, resultsByTerm);
+                }
+            }).thenReturn(resultsByTerm);
+        });
+    }
+    
+    private Map<String, List<SearchResult>> readBatch(JsonParser parser, SearchEngine engine) throws IOException {
+        Map<String, List<SearchResult>> resultsByTerm = new LinkedHashMap<>();
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+            if (token != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            readBatchEntry(parser, engine, resultsByTerm);
+        }
+        return resultsByTerm;
+    }
+    
+    /**
+     * Read one {term, results} object, the parser being on its START_OBJECT
+     */
+    private void readBatchEntry(JsonParser parser, SearchEngine engine,
+                                Map<String, List<SearchResult>> resultsByTerm) throws IOException {
+        String term = null;
+        List<SearchResult> results = List.of();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("term".equals(field) && value.isScalarValue()) {
+                term = parser.getValueAsString();
+            } else if ("results".equals(field) && value == JsonToken.START_ARRAY) {
+                results = readResults(parser, engine);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        if (term != null) {
+            resultsByTerm.put(term, results);
+        }
+    }
+    
+    /**
+     * Read result objects up to the end of the current array, numbering them by position
+     */
+    private List<SearchResult> readResults(JsonParser parser, SearchEngine engine) throws IOException {
+        List<SearchResult> results = new ArrayList<>();
+        int rank = 0;
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+            if (token != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            addResult(results, readResult(parser, engine, ++rank));
+        }
+        return results;
+    }
+    
+    /**
+     * Read one {title, url} object, the parser being on its START_OBJECT; null if it has
+     * no usable URL
+     */
+    private SearchResult readResult(JsonParser parser, SearchEngine engine, int rank) throws IOException {
+        String url = null;
+        String title = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (!value.isScalarValue()) {
+                parser.skipChildren();
+            } else if ("url".equals(field)) {
+                url = parser.getValueAsString();
+            } else if ("title".equals(field)) {
+                title = parser.getValueAsString();
+            }
+        }
+        return SearchResult.of(url, title, rank, engine);
+    }
+    
+    private static void addResult(List<SearchResult> results, SearchResult result) {
+        if (result != null) {
+            results.add(result);
+        }
+    }
+    
+    /**
+     * Feed body buffers to a non-blocking parser as they arrive, releasing each one once
+     * fed, and hand every element of the top-level array to the reader as soon as its
+     * last token is in. Only the tokens of the current element are buffered. A body that
+     * is not an array has no elements.
+     */
+    private Mono<Void> parseElements(Flux<DataBuffer> body, ElementReader reader) {
+        return Mono.using(() -> new ArrayElements(jsonFactory.createNonBlockingByteArrayParser(), reader),
+            elements -> body.doOnNext(elements::feed).then(Mono.fromRunnable(elements::endOfInput)),
+            ArrayElements::close);
+    }
+    
+    @FunctionalInterface
+    private interface ElementReader {
+        /**
+         * Read one array element, the parser being on its first token
+         */
+        void read(JsonParser element) throws IOException;
+    }
+    
+    /**
+     * Splits the top-level array of a body fed in chunks into its elements
+     */
+    private static final class ArrayElements {
+        
+        private final JsonParser parser;
+        private final ByteArrayFeeder feeder;
+        private final ElementReader reader;
+        private boolean inArray;
+        private boolean done;
+        private TokenBuffer element;
+        private int depth;
+        
+        ArrayElements(JsonParser parser, ElementReader reader) {
+            this.parser = parser;
+            this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+            this.reader = reader;
+        }
+        
+        void feed(DataBuffer buffer) {
+            try {
+                byte[] chunk = new byte[buffer.readableByteCount()];
+                buffer.read(chunk);
+                if (!done) {
+                    feeder.feedInput(chunk, 0, chunk.length);
+                    drain();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Malformed Browserless response", e);
+            } finally {
+                DataBufferUtils.release(buffer);
+            }
+        }
+        
+        void endOfInput() {
+            try {
+                if (!done) {
+                    feeder.endOfInput();
+                    drain();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Malformed Browserless response", e);
+            }
+        }
+        
+        private void drain() throws IOException {
+            JsonToken token;
+            while (!done && (token = parser.nextToken()) != JsonToken.NOT_AVAILABLE && token != null) {
+                if (!inArray) {
+                    inArray = token == JsonToken.START_ARRAY;
+                    done = !inArray;
+                    continue;
+                }
+                if (element == null) {
+                    if (token == JsonToken.END_ARRAY) {
+                        done = true;
+                        continue;
+                    }
+                    element = new TokenBuffer(parser);
+                    depth = 0;
+                }
+                element.copyCurrentEvent(parser);
+                if (token.isStructStart()) {
+                    depth++;
+                } else if (token.isStructEnd()) {
+                    depth--;
+                }
+                if (depth == 0) {
+                    try (JsonParser elementParser = element.asParser()) {
+                        elementParser.nextToken();
+                        reader.read(elementParser);
+                    }
+                    element = null;
+                }
+            }
+        }
+        
+        void close() {
+            try {
+                parser.close();
+            } catch (IOException e) {
+                // Nothing is left to read
+            }
+        }
+    }
+}
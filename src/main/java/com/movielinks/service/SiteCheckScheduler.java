@@ -0,0 +1,270 @@
+package com.movielinks.service;
+
+import com.movielinks.model.MovieSite;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-site check schedule. Every site has a next-check time, and a priority queue hands
+ * out whichever sites are due first; among sites due at the same time, the one checked
+ * longest ago goes first. After each check the next interval is derived from how long
+ * the site's domains tend to last (a moving average of observed domain changes). A site
+ * that rotates domains daily is checked every few hours, one that has kept its domain
+ * for months about once a day. A site that is down is retried with exponential backoff
+ * from failure-backoff-minutes up to default-interval-minutes.
+ */
+@Component
+public class SiteCheckScheduler implements MeterBinder {
+    
+    private static final Logger logger = LoggerFactory.getLogger(SiteCheckScheduler.class);
+    
+    // Weight of the newest domain lifetime in the moving average
+    private static final double LIFETIME_SMOOTHING = 0.3;
+    
+    @Value("${monitoring.adaptive.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${monitoring.adaptive.min-interval-minutes:5}")
+    private long minIntervalMinutes;
+    
+    @Value("${monitoring.adaptive.max-interval-minutes:1440}")
+    private long maxIntervalMinutes;
+    
+    @Value("${monitoring.adaptive.default-interval-minutes:360}")
+    private long defaultIntervalMinutes;
+    
+    // Check a site this many times per expected domain lifetime, i.e. every lifetime x fraction
+    @Value("${monitoring.adaptive.churn-fraction:0.25}")
+    private double churnFraction;
+    
+    @Value("${monitoring.adaptive.failure-backoff-minutes:15}")
+    private long failureBackoffMinutes;
+    
+    private final PriorityQueue<ScheduledCheck> queue = new PriorityQueue<>(
+        Comparator.comparing(ScheduledCheck::nextCheckAt).thenComparing(ScheduledCheck::lastChecked));
+    private final Map<String, ScheduledCheck> scheduled = new HashMap<>();
+    private final Map<String, ScheduledCheck> inFlight = new HashMap<>();
+    private final Map<String, Integer> failureStreaks = new HashMap<>();
+    private boolean seeded;
+    private Clock clock = Clock.systemDefaultZone();
+    
+    private final AtomicLong dispatched = new AtomicLong();
+    private final AtomicLong domainChanges = new AtomicLong();
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public synchronized boolean isSeeded() {
+        return seeded;
+    }
+    
+    /**
+     * Queue every site once: stored rows keep their persisted next-check time, sites
+     * never checked (or not checked for longer than the maximum interval) are due now
+     */
+    public synchronized void seed(List<String> siteNames, List<MovieSite> storedSites) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        Map<String, MovieSite> stored = new HashMap<>();
+        storedSites.forEach(site -> stored.put(key(site.getSiteName()), site));
+        
+        Set<String> names = new LinkedHashSet<>();
+        siteNames.forEach(name -> names.add(key(name)));
+        names.addAll(stored.keySet());
+        for (String name : names) {
+            MovieSite site = stored.get(name);
+            LocalDateTime lastChecked = site != null && site.getLastChecked() != null ? site.getLastChecked() : LocalDateTime.MIN;
+            LocalDateTime nextCheckAt = site != null && site.getNextCheckAt() != null ? site.getNextCheckAt() : now;
+            if (lastChecked.isBefore(now.minusMinutes(maxIntervalMinutes))) {
+                nextCheckAt = now;
+            }
+            enqueue(new ScheduledCheck(name, nextCheckAt, lastChecked));
+        }
+        seeded = true;
+        logger.info("Scheduled checks for {} sites, {} due now", names.size(),
+            queue.stream().filter(check -> !check.nextCheckAt().isAfter(now)).count());
+    }
+    
+    /**
+     * Take up to max sites whose check is due; they stay out of the queue until their
+     * check is recorded
+     */
+    public synchronized List<String> pollDue(int max) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        List<String> due = new ArrayList<>();
+        while (due.size() < max && !queue.isEmpty() && !queue.peek().nextCheckAt().isAfter(now)) {
+            ScheduledCheck check = queue.poll();
+            scheduled.remove(check.siteName());
+            inFlight.put(check.siteName(), check);
+            due.add(check.siteName());
+        }
+        dispatched.addAndGet(due.size());
+        return due;
+    }
+    
+    public synchronized int getInFlight() {
+        return inFlight.size();
+    }
+    
+    /**
+     * Put a site taken by pollDue back without checking it, due again at until (now if
+     * null). Used when another instance is checking the site.
+     */
+    public synchronized void defer(String siteName, LocalDateTime until) {
+        String name = key(siteName);
+        ScheduledCheck check = inFlight.remove(name);
+        LocalDateTime lastChecked = check != null ? check.lastChecked() : LocalDateTime.MIN;
+        enqueue(new ScheduledCheck(name, until != null ? until : LocalDateTime.now(clock), lastChecked));
+    }
+    
+    /**
+     * Record the outcome of a check and queue the site's next one, returning when that is.
+     * current is the fresh result (null if the check failed outright); when the site is
+     * working, its domain tracking and next-check time are set on it so they are saved with it.
+     */
+    public synchronized LocalDateTime recordCheck(String siteName, MovieSite previous, MovieSite current) {
+        String name = key(siteName);
+        LocalDateTime now = LocalDateTime.now(clock);
+        inFlight.remove(name);
+        
+        boolean working = current != null && "WORKING".equals(current.getStatus());
+        int streak = working ? 0 : failureStreaks.getOrDefault(name, 0) + 1;
+        if (working) {
+            failureStreaks.remove(name);
+            trackDomain(previous, current, now);
+        } else {
+            failureStreaks.put(name, streak);
+        }
+        
+        Duration interval = working ? workingInterval(current, now) : failureInterval(streak);
+        LocalDateTime nextCheckAt = now.plus(interval);
+        if (current != null) {
+            current.setNextCheckAt(nextCheckAt);
+        }
+        enqueue(new ScheduledCheck(name, nextCheckAt, now));
+        logger.debug("Next check of {} in {} minutes", name, interval.toMinutes());
+        return nextCheckAt;
+    }
+    
+    /**
+     * Update how long the site's domains last when its working domain has changed
+     */
+    private void trackDomain(MovieSite previous, MovieSite current, LocalDateTime now) {
+        String previousDomain = previous != null ? UrlHosts.domainOf(previous.getCurrentWorkingUrl()) : null;
+        String currentDomain = UrlHosts.domainOf(current.getCurrentWorkingUrl());
+        LocalDateTime domainSince = previous != null ? previous.getDomainSince() : null;
+        Double lifetime = previous != null ? previous.getDomainLifetimeMinutes() : null;
+        
+        if (previousDomain != null && currentDomain != null && !previousDomain.equals(currentDomain)) {
+            domainChanges.incrementAndGet();
+            if (domainSince != null) {
+                double lastLifetime = Duration.between(domainSince, now).toMinutes();
+                lifetime = lifetime == null ? lastLifetime
+                    : LIFETIME_SMOOTHING * lastLifetime + (1 - LIFETIME_SMOOTHING) * lifetime;
+            }
+            logger.info("{} moved from {} to {}", current.getSiteName(), previousDomain, currentDomain);
+            domainSince = now;
+        } else if (domainSince == null) {
+            domainSince = now;
+        }
+        current.setDomainSince(domainSince);
+        current.setDomainLifetimeMinutes(lifetime);
+    }
+    
+    /**
+     * A fraction of the expected domain lifetime. The current domain's age counts once it
+     * outlives the average, so a site that settles down is checked less and less. Without
+     * any observed change the default interval applies until the domain's age says otherwise.
+     */
+    Duration workingInterval(MovieSite site, LocalDateTime now) {
+        double age = site.getDomainSince() != null ? Duration.between(site.getDomainSince(), now).toMinutes() : 0;
+        Double lifetime = site.getDomainLifetimeMinutes();
+        double minutes = lifetime != null
+            ? Math.max(lifetime, age) * churnFraction
+            : Math.max(defaultIntervalMinutes, age * churnFraction);
+        return clamp((long) minutes, maxIntervalMinutes);
+    }
+    
+    /**
+     * Exponential backoff for a site that is down; it is still checked at least every
+     * default interval, since its next domain may appear at any time
+     */
+    Duration failureInterval(int streak) {
+        long minutes = failureBackoffMinutes << Math.min(Math.max(0, streak - 1), 20);
+        return clamp(minutes, defaultIntervalMinutes);
+    }
+    
+    private Duration clamp(long minutes, long upperBound) {
+        return Duration.ofMinutes(Math.max(minIntervalMinutes, Math.min(upperBound, minutes)));
+    }
+    
+    private void enqueue(ScheduledCheck check) {
+        ScheduledCheck existing = scheduled.put(check.siteName(), check);
+        if (existing != null) {
+            queue.remove(existing);
+        }
+        queue.add(check);
+    }
+    
+    private static String key(String siteName) {
+        return siteName.toLowerCase(Locale.ROOT);
+    }
+    
+    private record ScheduledCheck(String siteName, LocalDateTime nextCheckAt, LocalDateTime lastChecked) {
+    }
+    
+    /**
+     * The schedule in due order
+     */
+    public synchronized Map<String, Object> getStatistics() {
+        List<Map<String, Object>> upcoming = new ArrayList<>();
+        queue.stream().sorted(queue.comparator()).forEach(check -> {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("site", check.siteName());
+            entry.put("nextCheckAt", check.nextCheckAt());
+            entry.put("failureStreak", failureStreaks.getOrDefault(check.siteName(), 0));
+            upcoming.add(entry);
+        });
+        
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("enabled", enabled);
+        statistics.put("queued", queue.size());
+        statistics.put("inFlight", new ArrayList<>(inFlight.keySet()));
+        statistics.put("dispatched", dispatched.get());
+        statistics.put("domainChanges", domainChanges.get());
+        statistics.put("upcoming", upcoming);
+        return statistics;
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("monitoring.checks.dispatched", dispatched, AtomicLong::get).register(registry);
+        FunctionCounter.builder("monitoring.domain.changes", domainChanges, AtomicLong::get).register(registry);
+        Gauge.builder("monitoring.checks.queued", this, scheduler -> {
+            synchronized (scheduler) {
+                return scheduler.queue.size();
+            }
+        }).register(registry);
+    }
+}
\ No newline at end of file
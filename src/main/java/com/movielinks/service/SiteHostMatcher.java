@@ -0,0 +1,290 @@
+package com.movielinks.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+
+/**
+ * Classifies a hostname against every tracked site and every excluded host in one
+ * pass. An Aho-Corasick automaton is compiled once from the supported-sites registry
+ * and the excluded-hosts list, so the cost per host depends on the host length, not
+ * on how many sites are tracked.
+ *
+ * A site matches when its name ends a label of the host and is preceded in that label by
+ * nothing but digits (movierulz.xyz, 3movierulz.tv, movierulz.proxy.net, but not
+ * notmovierulz.com). An excluded host matches when it is the host or a parent
+ * domain of it (youtube.com, m.youtube.com).
+ */
+@Component
+public class SiteHostMatcher {
+    
+    private static final Logger logger = LoggerFactory.getLogger(SiteHostMatcher.class);
+    
+    @Value("${movie-search.excluded-hosts:google.com,youtube.com,facebook.com,twitter.com,instagram.com}")
+    private List<String> excludedHosts;
+    
+    private final Environment environment;
+    
+    private final Map<String, Integer> siteIndexes = new HashMap<>();
+    private final List<String> siteNames = new ArrayList<>();
+    private Automaton automaton;
+    
+    public SiteHostMatcher(Environment environment) {
+        this.environment = environment;
+    }
+    
+    @PostConstruct
+    void compile() {
+        List<String> patterns = new ArrayList<>();
+        List<Integer> payloads = new ArrayList<>();
+        
+        // Bound rather than injected with @Value, since the registry is a YAML list
+        List<String> supportedSites = Binder.get(environment)
+            .bind("movie-search.supported-sites", Bindable.listOf(String.class))
+            .orElse(List.of("movierulz", "moviezap"));
+        for (String site : supportedSites) {
+            String name = normalizeSiteName(site);
+            if (!name.isEmpty() && !siteIndexes.containsKey(name)) {
+                siteIndexes.put(name, siteNames.size());
+                patterns.add(name);
+                payloads.add(siteNames.size());
+                siteNames.add(name);
+            }
+        }
+        for (String host : excludedHosts) {
+            String normalized = host.trim().toLowerCase(Locale.ROOT);
+            if (!normalized.isEmpty()) {
+                patterns.add(normalized);
+                payloads.add(EXCLUDED);
+            }
+        }
+        
+        automaton = new Automaton(patterns, payloads);
+        logger.info("Compiled host matcher for {} sites and {} excluded hosts ({} states)",
+            siteNames.size(), patterns.size() - siteNames.size(), automaton.stateCount());
+    }
+    
+    /**
+     * Site name as used by the matcher: lower case, letters, digits and dashes only
+     */
+    public static String normalizeSiteName(String siteName) {
+        return siteName.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9-]", "");
+    }
+    
+    /**
+     * Tracked sites the host belongs to and whether it is an excluded host
+     */
+    public Classification classify(String host) {
+        BitSet sites = new BitSet();
+        boolean excluded = scan(host.toLowerCase(Locale.ROOT), sites);
+        List<String> matchedSites = new ArrayList<>(sites.cardinality());
+        sites.stream().forEach(index -> matchedSites.add(siteNames.get(index)));
+        return new Classification(matchedSites, excluded);
+    }
+    
+    public boolean isExcluded(String host) {
+        return scan(host.toLowerCase(Locale.ROOT), null);
+    }
+    
+    /**
+     * Whether the host belongs to the site. Sites missing from the registry get the same
+     * label check without the automaton.
+     */
+    public boolean matchesSite(String host, String siteName) {
+        String name = normalizeSiteName(siteName);
+        String lowerHost = host.toLowerCase(Locale.ROOT);
+        Integer index = siteIndexes.get(name);
+        if (index == null) {
+            if (name.isEmpty()) {
+                return false;
+            }
+            for (int start = lowerHost.indexOf(name); start >= 0; start = lowerHost.indexOf(name, start + 1)) {
+                if (isSiteLabel(lowerHost, start, start + name.length() - 1)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        BitSet sites = new BitSet();
+        scan(lowerHost, sites);
+        return sites.get(index);
+    }
+    
+    /**
+     * Run the host through the automaton once, collecting matched site indexes into
+     * sites (if given). Returns whether an excluded host matched.
+     */
+    private boolean scan(String host, BitSet sites) {
+        boolean excluded = false;
+        int state = 0;
+        int length = host.length();
+        for (int i = 0; i < length; i++) {
+            state = automaton.step(state, host.charAt(i));
+            for (int pattern : automaton.outputs(state)) {
+                int start = i - automaton.patternLength(pattern) + 1;
+                int payload = automaton.payload(pattern);
+                if (payload == EXCLUDED) {
+                    if (i == length - 1 && (start == 0 || host.charAt(start - 1) == '.')) {
+                        excluded = true;
+                    }
+                } else if (sites != null && isSiteLabel(host, start, i)) {
+                    sites.set(payload);
+                }
+            }
+        }
+        return excluded;
+    }
+    
+    /**
+     * Whether host[start..end] ends a label, with only digits before it in that label
+     */
+    private static boolean isSiteLabel(String host, int start, int end) {
+        if (end + 1 >= host.length() || host.charAt(end + 1) != '.') {
+            return false;
+        }
+        int before = start - 1;
+        while (before >= 0 && host.charAt(before) >= '0' && host.charAt(before) <= '9') {
+            before--;
+        }
+        return before < 0 || host.charAt(before) == '.';
+    }
+    
+    private static final int EXCLUDED = -1;
+    
+    /**
+     * Result of classifying one host
+     */
+    public record Classification(List<String> sites, boolean excluded) {
+    }
+    
+    /**
+     * Aho-Corasick automaton over the hostname alphabet. Goto transitions are fully
+     * resolved at build time, so each input character costs one table lookup.
+     * Characters outside the alphabet reset to the root state.
+     */
+    private static final class Automaton {
+        
+        private static final int ALPHABET = 38;
+        private static final int[] NO_OUTPUTS = new int[0];
+        
+        private final int[][] transitions;
+        private final int[][] outputs;
+        private final int[] patternLengths;
+        private final int[] payloads;
+        
+        Automaton(List<String> patterns, List<Integer> patternPayloads) {
+            List<int[]> next = new ArrayList<>();
+            List<List<Integer>> out = new ArrayList<>();
+            next.add(newRow());
+            out.add(new ArrayList<>());
+            
+            patternLengths = new int[patterns.size()];
+            payloads = new int[patterns.size()];
+            for (int p = 0; p < patterns.size(); p++) {
+                String pattern = patterns.get(p);
+                patternLengths[p] = pattern.length();
+                payloads[p] = patternPayloads.get(p);
+                
+                int state = 0;
+                for (int i = 0; i < pattern.length(); i++) {
+                    int symbol = symbol(pattern.charAt(i));
+                    if (symbol < 0) {
+                        throw new IllegalArgumentException("Unsupported character in host pattern: " + pattern);
+                    }
+                    if (next.get(state)[symbol] < 0) {
+                        next.get(state)[symbol] = next.size();
+                        next.add(newRow());
+                        out.add(new ArrayList<>());
+                    }
+                    state = next.get(state)[symbol];
+                }
+                out.get(state).add(p);
+            }
+            
+            // Breadth-first pass: resolve failure links into the goto table and merge outputs
+            int[] fail = new int[next.size()];
+            Deque<Integer> queue = new ArrayDeque<>();
+            for (int symbol = 0; symbol < ALPHABET; symbol++) {
+                int child = next.get(0)[symbol];
+                if (child < 0) {
+                    next.get(0)[symbol] = 0;
+                } else {
+                    fail[child] = 0;
+                    queue.add(child);
+                }
+            }
+            while (!queue.isEmpty()) {
+                int state = queue.poll();
+                out.get(state).addAll(out.get(fail[state]));
+                for (int symbol = 0; symbol < ALPHABET; symbol++) {
+                    int child = next.get(state)[symbol];
+                    if (child < 0) {
+                        next.get(state)[symbol] = next.get(fail[state])[symbol];
+                    } else {
+                        fail[child] = next.get(fail[state])[symbol];
+                        queue.add(child);
+                    }
+                }
+            }
+            
+            transitions = next.toArray(new int[0][]);
+            outputs = new int[out.size()][];
+            for (int state = 0; state < out.size(); state++) {
+                List<Integer> stateOutputs = out.get(state);
+                outputs[state] = stateOutputs.isEmpty()
+                    ? NO_OUTPUTS
+                    : stateOutputs.stream().mapToInt(Integer::intValue).toArray();
+            }
+        }
+        
+        int step(int state, char c) {
+            int symbol = symbol(c);
+            return symbol < 0 ? 0 : transitions[state][symbol];
+        }
+        
+        int[] outputs(int state) {
+            return outputs[state];
+        }
+        
+        int patternLength(int pattern) {
+            return patternLengths[pattern];
+        }
+        
+        int payload(int pattern) {
+            return payloads[pattern];
+        }
+        
+        int stateCount() {
+            return transitions.length;
+        }
+        
+        private static int[] newRow() {
+            int[] row = new int[ALPHABET];
+            Arrays.fill(row, -1);
+            return row;
+        }
+        
+        private static int symbol(char c) {
+            if (c >= 'a' && c <= 'z') {
+                return c - 'a';
+            }
+            if (c >= '0' && c <= '9') {
+                return 26 + (c - '0');
+            }
+            if (c == '-') {
+                return 36;
+            }
+            if (c == '.') {
+                return 37;
+            }
+            return -1;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,64 @@
+package com.movielinks.service;
+
+import com.movielinks.model.MovieSite;
+import org.springframework.stereotype.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight coalescing of site resolutions. While a resolution for a site is in
+ * flight, every other caller for the same site joins it instead of starting its own
+ * Browserless search. Shared by the blocking and reactive search pipelines, so the
+ * controller, webhook, admin refresh and scheduler all collapse onto one job per site.
+ */
+@Component
+public class SiteResolutionCoalescer {
+    
+    private static final Logger logger = LoggerFactory.getLogger(SiteResolutionCoalescer.class);
+    
+    private final ConcurrentMap<String, CompletableFuture<MovieSite>> inFlight = new ConcurrentHashMap<>();
+    
+    /**
+     * Start the resolution unless one for the same site is already running,
+     * in which case the caller gets the running one
+     */
+    public CompletableFuture<MovieSite> resolve(String siteName, Supplier<CompletableFuture<MovieSite>> resolution) {
+        String key = siteName.trim().toLowerCase();
+        CompletableFuture<MovieSite> promise = new CompletableFuture<>();
+        CompletableFuture<MovieSite> existing = inFlight.putIfAbsent(key, promise);
+        
+        if (existing != null) {
+            logger.debug("Joining in-flight resolution for {}", siteName);
+            return existing;
+        }
+        
+        try {
+            resolution.get().whenComplete((result, error) -> {
+                inFlight.remove(key, promise);
+                if (error != null) {
+                    promise.completeExceptionally(error);
+                } else {
+                    promise.complete(result);
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.remove(key, promise);
+            promise.completeExceptionally(e);
+        }
+        
+        return promise;
+    }
+    
+    /**
+     * Sites that currently have a resolution running
+     */
+    public Set<String> getInFlightSites() {
+        return Set.copyOf(inFlight.keySet());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,60 @@
+package com.movielinks.service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket that refills continuously at a fixed rate up to a burst capacity.
+ * A permit is handed out immediately while tokens are available; otherwise the
+ * caller reserves the next token and waits only for the remaining deficit.
+ */
+public class TokenBucket {
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private double tokens;
+    private long lastRefillNanos;
+    
+    public TokenBucket(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond must be positive");
+        }
+        this.capacity = Math.max(1, burst);
+        this.tokensPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.tokens = capacity;
+        this.lastRefillNanos = System.nanoTime();
+    }
+    
+    /**
+     * Take a permit, waiting only if the bucket is empty
+     */
+    public void acquire() throws InterruptedException {
+        long waitNanos = reserve();
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+    
+    /**
+     * Whether the bucket has been idle long enough to be back at full capacity
+     */
+    public synchronized boolean isFull() {
+        refill();
+        return tokens >= capacity;
+    }
+    
+    /**
+     * Reserve a permit and return how long, in nanoseconds, the caller has to wait for it.
+     * Used by non-blocking callers that schedule the wait instead of sleeping.
+     */
+    public synchronized long reserve() {
+        refill();
+        tokens -= 1;
+        return tokens >= 0 ? 0 : (long) Math.ceil(-tokens / tokensPerNano);
+    }
+    
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * tokensPerNano);
+        lastRefillNanos = now;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,89 @@
+package com.movielinks.service;
+
+import java.util.Locale;
+
+/**
+ * Host parsing for the http(s) URLs the search and probe pipelines pass around. Parsed
+ * by hand, since it runs for every scraped result and every probe.
+ */
+final class UrlHosts {
+    
+    private UrlHosts() {
+    }
+    
+    /**
+     * Lower-cased host of an http(s) URL, or null if there is none
+     */
+    static String hostOf(String url) {
+        if (url == null) {
+            return null;
+        }
+        url = url.trim();
+        int start;
+        if (url.regionMatches(true, 0, "https://", 0, 8)) {
+            start = 8;
+        } else if (url.regionMatches(true, 0, "http://", 0, 7)) {
+            start = 7;
+        } else {
+            return null;
+        }
+        
+        int end = start;
+        if (end < url.length() && url.charAt(end) == '[') {
+            // IPv6 literal, which contains colons of its own
+            end = url.indexOf(']', end);
+            return end < 0 ? null : url.substring(start, end + 1).toLowerCase(Locale.ROOT);
+        }
+        while (end < url.length()) {
+            char c = url.charAt(end);
+            if (c == '/' || c == '?' || c == '#' || c == ':') {
+                break;
+            }
+            if (c == '@') {
+                // userinfo is never part of a movie site link
+                return null;
+            }
+            end++;
+        }
+        return end > start ? url.substring(start, end).toLowerCase(Locale.ROOT) : null;
+    }
+    
+    /**
+     * Scheme, host and port of an http(s) URL as scheme://host:port, with the scheme's default
+     * port filled in when none is written; null if there is no host. Never throws, since
+     * scraped URLs often carry spaces or unencoded characters later in the path.
+     */
+    static String originOf(String url) {
+        String host = hostOf(url);
+        if (host == null) {
+            return null;
+        }
+        url = url.trim();
+        boolean https = url.regionMatches(true, 0, "https://", 0, 8);
+        int port = https ? 443 : 80;
+        int hostEnd = (https ? 8 : 7) + host.length();
+        if (hostEnd < url.length() && url.charAt(hostEnd) == ':') {
+            int end = hostEnd + 1;
+            while (end < url.length() && Character.isDigit(url.charAt(end))) {
+                end++;
+            }
+            if (end > hostEnd + 1 && end - hostEnd <= 6) {
+                port = Integer.parseInt(url, hostEnd + 1, end, 10);
+            }
+        }
+        return (https ? "https://" : "http://") + host + ":" + port;
+    }
+    
+    /**
+     * Host of the URL without a leading www., so a site's www and bare hosts compare equal;
+     * null if there is none
+     */
+    static String domainOf(String url) {
+        String host = hostOf(url);
+        return host == null ? null : stripWww(host);
+    }
+    
+    static String stripWww(String host) {
+        return host.startsWith("www.") ? host.substring(4) : host;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,398 @@
+package com.movielinks.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.hc.core5.http.io.EofSensorInputStream;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.http.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+public class UrlValidationService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(UrlValidationService.class);
+    
+    @Value("${movie-search.validation.pool-size:16}")
+    private int validationPoolSize;
+    
+    @Value("${movie-search.validation.deadline-ms:10000}")
+    private long validationDeadlineMs;
+    
+    private final RestTemplate restTemplate;
+    
+    private final SearchRateLimiter rateLimiter;
+    
+    private final DnsResolver dnsResolver;
+    
+    private final ProbeFailureCache failureCache;
+    
+    private final DependencyGuard dependencyGuard;
+    
+    private final HedgePolicy hedgePolicy;
+    
+    private final ContentVerifier contentVerifier;
+    
+    private final ProbeOutcomes probeOutcomes;
+    
+    private ExecutorService probeExecutor;
+    
+    private ScheduledExecutorService hedgeScheduler;
+    
+    public UrlValidationService(@Qualifier("probeRestTemplate") RestTemplate restTemplate,
+                                SearchRateLimiter rateLimiter,
+                                DnsResolver dnsResolver,
+                                ProbeFailureCache failureCache,
+                                DependencyGuard dependencyGuard,
+                                HedgePolicy hedgePolicy,
+                                ContentVerifier contentVerifier,
+                                ProbeOutcomes probeOutcomes) {
+        this.restTemplate = restTemplate;
+        this.rateLimiter = rateLimiter;
+        this.dnsResolver = dnsResolver;
+        this.failureCache = failureCache;
+        this.dependencyGuard = dependencyGuard;
+        this.hedgePolicy = hedgePolicy;
+        this.contentVerifier = contentVerifier;
+        this.probeOutcomes = probeOutcomes;
+    }
+    
+    @PostConstruct
+    void initProbeExecutor() {
+        AtomicInteger threadCount = new AtomicInteger();
+        probeExecutor = Executors.newFixedThreadPool(Math.max(1, validationPoolSize), runnable -> {
+            Thread thread = new Thread(runnable, "url-probe-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        hedgeScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "url-probe-hedge");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    @PreDestroy
+    void shutdownProbeExecutor() {
+        probeExecutor.shutdownNow();
+        hedgeScheduler.shutdownNow();
+    }
+    
+    /**
+     * Probe all candidates concurrently and return the highest-ranked accessible one.
+     * Candidates are expected in rank order; a candidate wins as soon as it is accessible
+     * and every better-ranked candidate has failed. Remaining probes are then cancelled.
+     * If the overall deadline passes first, the best accessible candidate seen so far is returned.
+     * Candidates still backing off from a recent failure are skipped. The others are resolved
+     * asynchronously first, and a probe is only scheduled once its host resolves. A request
+     * still unanswered the host's p95 after it was sent may be hedged (see {@link HedgePolicy}); the
+     * returned URL is then whichever of the two answered first. With an expected fingerprint
+     * (the site's stored one, or null) a candidate must also serve content that matches it.
+     */
+    public String findBestAccessibleUrl(List<String> rankedUrls, ContentFingerprint expected) {
+        if (rankedUrls.isEmpty()) {
+            return null;
+        }
+        
+        int candidateCount = rankedUrls.size();
+        Boolean[] outcomes = new Boolean[candidateCount];
+        String[] answeredUrls = new String[candidateCount];
+        BlockingQueue<CandidateOutcome> completed = new LinkedBlockingQueue<>();
+        List<Future<?>> probes = new ArrayList<>(candidateCount);
+        AtomicBoolean finished = new AtomicBoolean();
+        
+        for (int i = 0; i < candidateCount; i++) {
+            int index = i;
+            String url = rankedUrls.get(i);
+            if (failureCache.isSuppressed(url)) {
+                completed.add(new CandidateOutcome(index, null));
+                continue;
+            }
+            dnsResolver.resolveAsync(UrlHosts.hostOf(url)).thenAccept(resolvable -> {
+                if (!resolvable) {
+                    probeOutcomes.recordFailure(url, ProbeFailureCache.FailureReason.DNS, "Host does not resolve");
+                    completed.add(new CandidateOutcome(index, null));
+                    return;
+                }
+                HedgedProbe probe = new HedgedProbe(index, url, expected, completed);
+                synchronized (probes) {
+                    if (finished.get()) {
+                        return;
+                    }
+                    try {
+                        probes.add(probeExecutor.submit(() -> probe.finish(
+                            probe(url, expected, () -> scheduleHedge(probe, probes, finished)) ? url : null)));
+                    } catch (RejectedExecutionException e) {
+                        completed.add(new CandidateOutcome(index, null));
+                    }
+                }
+            });
+        }
+        
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(validationDeadlineMs);
+        int frontier = 0;
+        
+        try {
+            while (frontier < candidateCount) {
+                CandidateOutcome outcome = completed.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (outcome == null) {
+                    logger.debug("URL validation deadline of {} ms reached", validationDeadlineMs);
+                    break;
+                }
+                outcomes[outcome.index()] = outcome.answeredUrl() != null;
+                answeredUrls[outcome.index()] = outcome.answeredUrl();
+                
+                // Advance past candidates that are known to be dead
+                while (frontier < candidateCount && Boolean.FALSE.equals(outcomes[frontier])) {
+                    frontier++;
+                }
+                if (frontier < candidateCount && Boolean.TRUE.equals(outcomes[frontier])) {
+                    return answeredUrls[frontier];
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            synchronized (probes) {
+                finished.set(true);
+                probes.forEach(probe -> probe.cancel(true));
+            }
+        }
+        
+        // Deadline hit: settle for the best candidate that has already answered
+        for (int i = frontier; i < candidateCount; i++) {
+            if (Boolean.TRUE.equals(outcomes[i])) {
+                return answeredUrls[i];
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Arm the hedge timer for a probe whose request is being sent now
+     */
+    private void scheduleHedge(HedgedProbe probe, List<Future<?>> probes, AtomicBoolean finished) {
+        Duration hedgeDelay = hedgePolicy.hedgeDelay(probe.url);
+        if (hedgeDelay == null) {
+            return;
+        }
+        synchronized (probes) {
+            if (!finished.get()) {
+                probes.add(hedgeScheduler.schedule(() -> sendHedge(probe, probes, finished),
+                    hedgeDelay.toMillis(), TimeUnit.MILLISECONDS));
+            }
+        }
+    }
+    
+    /**
+     * Send the hedge for a probe that is still unanswered, if the budget allows
+     */
+    private void sendHedge(HedgedProbe probe, List<Future<?>> probes, AtomicBoolean finished) {
+        // Count the hedge in first, so no budget is spent on a candidate that has already settled
+        if (!probe.tryStartHedge()) {
+            return;
+        }
+        String hedgeUrl = probeOutcomes.hedgeTarget(probe.url);
+        if (hedgeUrl == null) {
+            probe.finish(null);
+            return;
+        }
+        synchronized (probes) {
+            if (finished.get()) {
+                return;
+            }
+            try {
+                probes.add(probeExecutor.submit(() -> {
+                    if (probe.finish(probe(hedgeUrl, probe.expected, null) ? hedgeUrl : null)) {
+                        hedgePolicy.recordHedgeWon();
+                    }
+                }));
+            } catch (RejectedExecutionException e) {
+                probe.finish(null);
+            }
+        }
+    }
+    
+    /**
+     * Outcome of one candidate: the URL that answered, or null if it is not accessible
+     */
+    private record CandidateOutcome(int index, String answeredUrl) {
+    }
+    
+    /**
+     * A candidate's primary probe and its optional hedge. The first success settles the
+     * candidate; it only fails once every request sent for it has failed.
+     */
+    private static final class HedgedProbe {
+        
+        private static final int SETTLED = -1;
+        
+        final int index;
+        final String url;
+        final ContentFingerprint expected;
+        private final BlockingQueue<CandidateOutcome> completed;
+        // Requests still out for the candidate, or SETTLED once its outcome is decided
+        private final AtomicInteger pending = new AtomicInteger(1);
+        
+        HedgedProbe(int index, String url, ContentFingerprint expected, BlockingQueue<CandidateOutcome> completed) {
+            this.index = index;
+            this.url = url;
+            this.expected = expected;
+            this.completed = completed;
+        }
+        
+        /**
+         * Count in one more request for the candidate; false once it has settled
+         */
+        boolean tryStartHedge() {
+            while (true) {
+                int current = pending.get();
+                if (current == SETTLED) {
+                    return false;
+                }
+                if (pending.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+        
+        /**
+         * Report one request's result; returns whether it decided the candidate's outcome
+         * as a success
+         */
+        boolean finish(String answeredUrl) {
+            while (true) {
+                int current = pending.get();
+                if (current == SETTLED) {
+                    return false;
+                }
+                int next = answeredUrl != null || current == 1 ? SETTLED : current - 1;
+                if (pending.compareAndSet(current, next)) {
+                    if (next == SETTLED) {
+                        completed.add(new CandidateOutcome(index, answeredUrl));
+                    }
+                    return answeredUrl != null;
+                }
+            }
+        }
+    }
+    
+    /**
+     * HEAD the URL and record the outcome and response time. Timeouts and gateway
+     * errors are retried within the probe retry budget; the response time is that of
+     * the attempt that answered. A rejected HEAD falls back to a ranged GET, which also
+     * verifies a HEAD success when an expected fingerprint is given (see {@link ContentVerifier}).
+     * onSend (if given) runs once the request is about to go out.
+     */
+    private boolean probe(String url, ContentFingerprint expected, Runnable onSend) {
+        if (!rateLimiter.acquireHost(url)) {
+            return false;
+        }
+        if (onSend != null) {
+            onSend.run();
+        }
+        
+        try {
+            HttpHeaders headers = new HttpHeaders();
+            headers.set("User-Agent", ProbeOutcomes.USER_AGENT);
+            
+            HttpEntity<String> entity = new HttpEntity<>(headers);
+            AtomicLong started = new AtomicLong();
+            ResponseEntity<String> response = dependencyGuard.execute(DependencyGuard.Dependency.PROBE, () -> {
+                started.set(System.nanoTime());
+                return restTemplate.exchange(url, HttpMethod.HEAD, entity, String.class);
+            });
+            
+            long responseTimeMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started.get());
+            return switch (probeOutcomes.headAnswered(url, response.getStatusCode(), responseTimeMs, expected)) {
+                case ACCEPTED -> true;
+                case REJECTED -> false;
+                case VERIFY -> rangedGet(url, expected);
+            };
+            
+        } catch (Exception e) {
+            if (probeOutcomes.fallsBackToRangedGet(url, e)) {
+                return rangedGet(url, expected);
+            }
+            return probeOutcomes.failed(url, e);
+        }
+    }
+    
+    /**
+     * GET only the start of the URL and check it against the expected fingerprint. The
+     * response time is the time to the response headers. If the server ignored the range,
+     * the connection is aborted once the sample is read instead of draining the page.
+     */
+    private boolean rangedGet(String url, ContentFingerprint expected) {
+        try {
+            AtomicLong started = new AtomicLong();
+            AtomicLong answered = new AtomicLong();
+            ContentFingerprint fingerprint = dependencyGuard.execute(DependencyGuard.Dependency.PROBE, () -> {
+                started.set(System.nanoTime());
+                return sampleStart(url, expected, answered);
+            });
+            
+            return probeOutcomes.rangedGetAnswered(url, fingerprint, expected,
+                TimeUnit.NANOSECONDS.toMillis(answered.get() - started.get()));
+            
+        } catch (Exception e) {
+            return probeOutcomes.failed(url, e);
+        }
+    }
+    
+    /**
+     * Fingerprint the start of a working URL, or null if it cannot be fetched. If the probe
+     * that picked the URL already sampled it with a ranged GET, that sample is used;
+     * only a URL that won on a bare HEAD is fetched again.
+     */
+    public ContentFingerprint fingerprint(String url) {
+        if (!contentVerifier.isEnabled()) {
+            return null;
+        }
+        ContentFingerprint sampled = probeOutcomes.takeSampledFingerprint(url);
+        if (sampled != null) {
+            return sampled;
+        }
+        if (!rateLimiter.acquireHost(url)) {
+            return null;
+        }
+        try {
+            ContentFingerprint fingerprint = sampleStart(url, null, new AtomicLong());
+            return fingerprint == null || fingerprint.isEmpty() ? null : fingerprint;
+        } catch (Exception e) {
+            logger.debug("Could not fingerprint {}: {}", url, e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * Ranged GET of the URL, fingerprinting what was read; answered is set when the
+     * response headers arrive
+     */
+    private ContentFingerprint sampleStart(String url, ContentFingerprint expected, AtomicLong answered) {
+        return restTemplate.execute(url, HttpMethod.GET, request -> {
+            request.getHeaders().set("User-Agent", ProbeOutcomes.USER_AGENT);
+            request.getHeaders().set(HttpHeaders.RANGE, contentVerifier.rangeHeader());
+        }, response -> {
+            answered.set(System.nanoTime());
+            InputStream body = response.getBody();
+            ContentVerifier.Sample sample = contentVerifier.sample(body, expected);
+            if (!sample.exhausted() && body instanceof EofSensorInputStream stream) {
+                // Closing would drain the rest of the page to reuse the connection
+                stream.abort();
+            }
+            return sample.fingerprint();
+        });
+    }
+}
\ No newline at end of file
@@ -0,0 +1,59 @@
+package com.movielinks.service;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Latency of recent samples only: two {@link LatencyHistogram}s that rotate every
+ * window, so a percentile covers between one and two windows of samples and follows
+ * a host whose latency has changed instead of staying anchored to old samples.
+ */
+public class WindowedLatency {
+    
+    private final long windowNanos;
+    private final LongSupplier nanoClock;
+    private LatencyHistogram current = new LatencyHistogram();
+    private LatencyHistogram previous = new LatencyHistogram();
+    private long windowStartNanos;
+    
+    public WindowedLatency(Duration window) {
+        this(window, System::nanoTime);
+    }
+    
+    WindowedLatency(Duration window, LongSupplier nanoClock) {
+        this.windowNanos = Math.max(1, window.toNanos());
+        this.nanoClock = nanoClock;
+        this.windowStartNanos = nanoClock.getAsLong();
+    }
+    
+    public void record(long valueMs) {
+        currentWindow().record(valueMs);
+    }
+    
+    /**
+     * Samples of the current and the previous window
+     */
+    public synchronized LatencyHistogram snapshot() {
+        rotate();
+        LatencyHistogram recent = new LatencyHistogram();
+        recent.add(previous);
+        recent.add(current);
+        return recent;
+    }
+    
+    private synchronized LatencyHistogram currentWindow() {
+        rotate();
+        return current;
+    }
+    
+    private void rotate() {
+        long elapsed = nanoClock.getAsLong() - windowStartNanos;
+        if (elapsed < windowNanos) {
+            return;
+        }
+        // After a full idle window the previous samples are too old to keep as well
+        previous = elapsed < 2 * windowNanos ? current : new LatencyHistogram();
+        current = new LatencyHistogram();
+        windowStartNanos += elapsed / windowNanos * windowNanos;
+    }
+}
@@ -0,0 +1,158 @@
+package com.movielinks.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Batch searches against a stand-in for the Browserless /function endpoint, which
+ * answers every term with two results on hosts named after the term.
+ */
+@SpringJUnitConfig(classes = {BrowserlessClient.class, SearchRateLimiter.class, SearchResultParser.class,
+    DependencyGuard.class, BrowserlessClientTest.Clients.class})
+class BrowserlessClientTest {
+    
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    
+    private static final List<JsonNode> requests = Collections.synchronizedList(new ArrayList<>());
+    
+    private static final HttpServer server = startServer();
+    
+    @Autowired
+    private BrowserlessClient client;
+    
+    @Configuration
+    static class Clients {
+        
+        @Bean
+        ObjectMapper objectMapper() {
+            return MAPPER;
+        }
+        
+        @Bean
+        RestTemplate browserlessRestTemplate() {
+            return new RestTemplate();
+        }
+        
+        @Bean
+        WebClient browserlessWebClient() {
+            return WebClient.create();
+        }
+    }
+    
+    @DynamicPropertySource
+    static void browserlessProperties(DynamicPropertyRegistry registry) {
+        registry.add("browserless.api.url", () -> "http://127.0.0.1:" + server.getAddress().getPort());
+        registry.add("browserless.api.key", () -> "test");
+        registry.add("browserless.batch.max-terms", () -> "3");
+    }
+    
+    @AfterAll
+    static void stopServer() {
+        server.stop(0);
+    }
+    
+    @BeforeEach
+    void clearRequests() {
+        requests.clear();
+    }
+    
+    @Test
+    void termsForOneEngineShareOneSession() {
+        List<String> terms = List.of("movierulz", "movierulz new domain", "movierulz working link");
+        
+        Map<String, List<SearchResult>> google = client.search(SearchEngine.GOOGLE, terms);
+        Map<String, List<SearchResult>> duckDuckGo = client.search(SearchEngine.DUCKDUCKGO, terms);
+        
+        assertThat(requests).hasSize(2);
+        assertThat(requests.get(0).path("code").asText()).contains("google.com");
+        assertThat(requests.get(1).path("code").asText()).contains("duckduckgo.com");
+        for (JsonNode request : requests) {
+            assertThat(MAPPER.convertValue(request.path("context").path("terms"), List.class)).isEqualTo(terms);
+        }
+        assertThat(google).containsOnlyKeys(terms);
+        assertThat(duckDuckGo).containsOnlyKeys(terms);
+        assertThat(google.values()).allSatisfy(results -> assertThat(results)
+            .allSatisfy(result -> assertThat(result.engine()).isEqualTo(SearchEngine.GOOGLE)));
+    }
+    
+    @Test
+    void resultsAreSplitByTerm() {
+        Map<String, List<SearchResult>> results = client.search(SearchEngine.GOOGLE, List.of("bolly4u", "filmywap"));
+        
+        assertThat(results.get("bolly4u")).extracting(SearchResult::host).containsExactly("bolly4u.example", "www.bolly4u.example");
+        assertThat(results.get("bolly4u")).extracting(SearchResult::rank).containsExactly(1, 2);
+        assertThat(results.get("filmywap")).extracting(SearchResult::host).containsExactly("filmywap.example", "www.filmywap.example");
+    }
+    
+    @Test
+    void reactiveBatchSplitsResultsTheSameWay() {
+        Map<String, List<SearchResult>> results = client.searchReactive(SearchEngine.DUCKDUCKGO, List.of("bolly4u", "filmywap"))
+            .block();
+            
+        assertThat(requests).hasSize(1);
+        assertThat(results).containsOnlyKeys("bolly4u", "filmywap");
+        assertThat(results.get("filmywap")).extracting(SearchResult::url)
+            .containsExactly("https://filmywap.example/", "https://www.filmywap.example/");
+    }
+    
+    @Test
+    void termsBeyondMaxTermsGoToAnotherSession() {
+        List<List<String>> groups = client.partitionTerms(List.of("a", "b", "c", "d"));
+        
+        assertThat(groups).containsExactly(List.of("a", "b", "c"), List.of("d"));
+    }
+    
+    private static HttpServer startServer() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+            server.createContext("/function", BrowserlessClientTest::answer);
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private static void answer(HttpExchange exchange) throws IOException {
+        JsonNode request = MAPPER.readTree(exchange.getRequestBody());
+        requests.add(request);
+        
+        List<Map<String, Object>> output = new ArrayList<>();
+        for (JsonNode term : request.path("context").path("terms")) {
+            String host = term.asText().replace(' ', '-') + ".example";
+            output.add(Map.of("term", term.asText(), "results", List.of(
+                Map.of("title", term.asText(), "url", "https://" + host + "/"),
+                Map.of("title", term.asText() + " mirror", "url", "https://www." + host + "/"))));
+        }
+        byte[] body = MAPPER.writeValueAsString(output).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
\ No newline at end of file
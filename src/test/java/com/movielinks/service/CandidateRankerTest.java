@@ -0,0 +1,42 @@
+package com.movielinks.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+@SpringJUnitConfig(classes = {CandidateRanker.class, HostHistory.class})
+class CandidateRankerTest {
+    
+    @Autowired
+    private CandidateRanker ranker;
+    
+    @Test
+    void enginesAgreeOnAHostEvenWithDifferentUrls() {
+        SearchResult google = SearchResult.of("https://www.movierulz.wiki/", null, 2, SearchEngine.GOOGLE);
+        SearchResult duckDuckGo = SearchResult.of("https://movierulz.wiki/some-page", null, 1, SearchEngine.DUCKDUCKGO);
+        
+        List<CandidateRanker.ScoredCandidate> both = ranker.rankScored(List.of(google, duckDuckGo), "Movierulz", List.of());
+        List<CandidateRanker.ScoredCandidate> one = ranker.rankScored(List.of(duckDuckGo), "Movierulz", List.of());
+        
+        assertThat(both).extracting(CandidateRanker.ScoredCandidate::url)
+            .containsExactly("https://movierulz.wiki/some-page");
+        // Full agreement adds the other half of the 0.25 agreement weight
+        assertThat(both.get(0).score() - one.get(0).score()).isCloseTo(0.125, within(1e-9));
+    }
+    
+    @Test
+    void agreedHostOutranksASingleEngineHostAtTheSamePosition() {
+        List<SearchResult> results = List.of(
+            SearchResult.of("https://movierulz.cam/", null, 1, SearchEngine.GOOGLE),
+            SearchResult.of("https://movierulz.wiki/", null, 1, SearchEngine.DUCKDUCKGO),
+            SearchResult.of("https://www.movierulz.wiki/latest", null, 2, SearchEngine.GOOGLE));
+        
+        assertThat(ranker.rank(results, "movierulz", List.of()))
+            .containsExactly("https://movierulz.wiki/", "https://movierulz.cam/");
+    }
+}
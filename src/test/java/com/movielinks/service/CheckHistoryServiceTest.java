@@ -0,0 +1,93 @@
+package com.movielinks.service;
+
+import com.movielinks.model.CheckResult;
+import com.movielinks.repository.CheckResultRepository;
+import com.movielinks.repository.CheckRollupRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Availability read from raw rows, from rollups plus raw rows, and from rollups alone must
+ * agree, including for rows either side of an hour and a day boundary.
+ */
+@DataJpaTest(properties = "monitoring.cluster.enabled=false")
+@Import({CheckHistoryService.class, LeaseManager.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CheckHistoryServiceTest {
+    
+    @Autowired
+    private CheckHistoryService history;
+    
+    @Autowired
+    private CheckResultRepository resultRepository;
+    
+    @Autowired
+    private CheckRollupRepository rollupRepository;
+    
+    @AfterEach
+    void clearHistory() {
+        resultRepository.deleteAll();
+        rollupRepository.deleteAll();
+    }
+    
+    @Test
+    void rolledUpTotalsMatchTheRawRows() {
+        LocalDateTime yesterday = LocalDateTime.now().truncatedTo(ChronoUnit.DAYS).minusDays(1);
+        insert("movierulz", "WORKING", 420, 1800, yesterday.minusMinutes(50));
+        insert("movierulz", "NOT_FOUND", null, 900, yesterday.minusMinutes(20));
+        insert("movierulz", "WORKING", 380, 3600, yesterday.plusMinutes(5));
+        insert("moviezap", "ERROR", null, 600, yesterday.plusMinutes(40));
+        insert("movierulz", "WORKING", 1250, 7200, yesterday.plusHours(1).plusMinutes(30));
+        
+        Map<String, Object> raw = availability(null);
+        Map<String, Object> site = availability("movierulz");
+        
+        history.rollUp();
+        assertThat(rollupRepository.findFirstByGranularityOrderByBucketStartDesc("DAY")).isPresent();
+        assertThat(availability(null)).isEqualTo(raw);
+        assertThat(availability("movierulz")).isEqualTo(site);
+        
+        resultRepository.deleteAll();
+        assertThat(availability(null)).isEqualTo(raw);
+        assertThat(availability("movierulz")).isEqualTo(site);
+        
+        Map<?, ?> month = (Map<?, ?>) raw.get("30d");
+        assertThat(month.get("checks")).isEqualTo(5L);
+        assertThat(month.get("coveredSeconds")).isEqualTo(14100L);
+        assertThat((Double) month.get("uptimePercentage")).isCloseTo(12600.0 / 14100 * 100, within(1e-9));
+        assertThat(((Map<?, ?>) site.get("30d")).get("checks")).isEqualTo(4L);
+    }
+    
+    private void insert(String siteName, String status, Integer latencyMs, long coveredSeconds, LocalDateTime checkedAt) {
+        CheckResult result = new CheckResult(siteName, null, status, "LIVENESS", latencyMs, coveredSeconds);
+        result.setCheckedAt(checkedAt);
+        resultRepository.save(result);
+    }
+    
+    /**
+     * Availability windows without their start times, which move with the clock
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> availability(String siteName) {
+        Map<String, Object> windows = new LinkedHashMap<>();
+        history.getAvailability(siteName).forEach((name, window) -> {
+            Map<String, Object> totals = new LinkedHashMap<>((Map<String, Object>) window);
+            totals.remove("from");
+            windows.put(name, totals);
+        });
+        return windows;
+    }
+}
@@ -0,0 +1,127 @@
+package com.movielinks.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CircuitBreakerTest {
+    
+    private final AtomicLong now = new AtomicLong();
+    
+    // Window of 10, opens at 50% failures once 4 calls are in, stays open for 1s, 2 trials
+    private final CircuitBreaker breaker = new CircuitBreaker(10, 4, 0.5, 1000, 2, now::get);
+    
+    @Test
+    void opensOnceMinimumCallsAreInAndTheFailureRateIsReached() {
+        call(true);
+        call(false);
+        call(false);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        
+        call(false);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.isCallPermitted()).isFalse();
+        assertThat(breaker.tryAcquire()).isFalse();
+        assertThat(breaker.getRejectedCalls()).isEqualTo(1);
+        assertThat(breaker.getTimesOpened()).isEqualTo(1);
+    }
+    
+    @Test
+    void oldOutcomesSlideOutOfTheWindow() {
+        CircuitBreaker small = new CircuitBreaker(4, 4, 0.5, 1000, 1, now::get);
+        for (boolean succeeded : new boolean[] {false, false, true, true, true, true}) {
+            assertThat(small.tryAcquire()).isTrue();
+            if (succeeded) {
+                small.onSuccess();
+            } else {
+                small.onFailure();
+            }
+        }
+        // Window is now S S S S; one more failure is 25%
+        assertThat(small.tryAcquire()).isTrue();
+        small.onFailure();
+        assertThat(small.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+    
+    @Test
+    void halfOpenLetsALimitedNumberOfTrialsThroughAndClosesOnTheirSuccess() {
+        trip();
+        advanceMillis(999);
+        assertThat(breaker.tryAcquire()).isFalse();
+        
+        advanceMillis(1);
+        assertThat(breaker.isCallPermitted()).isTrue();
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isFalse();
+        
+        breaker.onSuccess();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        breaker.onSuccess();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        
+        // The window starts fresh, so one failure is below minimum calls
+        call(false);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+    
+    @Test
+    void trialFailureReopens() {
+        trip();
+        advanceMillis(1000);
+        assertThat(breaker.tryAcquire()).isTrue();
+        breaker.onFailure();
+        
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.getTimesOpened()).isEqualTo(2);
+        assertThat(breaker.tryAcquire()).isFalse();
+    }
+    
+    @Test
+    void ignoredTrialReleasesItsPermit() {
+        trip();
+        advanceMillis(1000);
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isTrue();
+        breaker.onIgnored();
+        
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+    
+    @Test
+    void trialsWhoseOutcomeNeverArrivesDoNotWedgeTheBreaker() {
+        trip();
+        advanceMillis(1000);
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isTrue();
+        
+        advanceMillis(999);
+        assertThat(breaker.tryAcquire()).isFalse();
+        advanceMillis(1);
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+    
+    private void trip() {
+        for (int i = 0; i < 4; i++) {
+            call(false);
+        }
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+    
+    private void call(boolean succeeded) {
+        assertThat(breaker.tryAcquire()).isTrue();
+        if (succeeded) {
+            breaker.onSuccess();
+        } else {
+            breaker.onFailure();
+        }
+    }
+    
+    private void advanceMillis(long millis) {
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+}
@@ -0,0 +1,41 @@
+package com.movielinks.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContentFingerprintTest {
+    
+    private static final int MAX_DISTANCE = 12;
+    
+    @Test
+    void siteNamedInTitleMatchesNameOnlyExpectation() {
+        ContentFingerprint expected = ContentFingerprint.naming("Movierulz");
+        
+        assertThat(page("<title>Movierulz - Watch Latest Movies Online</title>").matches(expected, MAX_DISTANCE)).isTrue();
+        assertThat(page("<title>Movie Rulz | movierulz.ms</title>").matches(expected, MAX_DISTANCE)).isTrue();
+    }
+    
+    @Test
+    void parkedOrTitlelessPageDoesNotMatchNameOnlyExpectation() {
+        ContentFingerprint expected = ContentFingerprint.naming("Movierulz");
+        
+        assertThat(page("<title>This domain is for sale</title>").matches(expected, MAX_DISTANCE)).isFalse();
+        assertThat(page("<html><body>Welcome to nginx</body></html>").matches(expected, MAX_DISTANCE)).isFalse();
+    }
+    
+    @Test
+    void storedFingerprintStillAcceptsPageWithNothingToCompare() {
+        ContentFingerprint stored = new ContentFingerprint("movierulz watch movies online", null);
+        
+        assertThat(page("<html><body>Loading</body></html>").matches(stored, MAX_DISTANCE)).isTrue();
+        assertThat(stored.nameOnly()).isFalse();
+    }
+    
+    private static ContentFingerprint page(String html) {
+        byte[] content = html.getBytes(StandardCharsets.UTF_8);
+        return ContentFingerprint.of(content, content.length);
+    }
+}
\ No newline at end of file
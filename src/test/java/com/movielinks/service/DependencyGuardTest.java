@@ -0,0 +1,95 @@
+package com.movielinks.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DependencyGuardTest {
+    
+    private final DependencyGuard guard = new DependencyGuard();
+    
+    private final AtomicInteger calls = new AtomicInteger();
+    
+    @BeforeEach
+    void configure() {
+        ReflectionTestUtils.setField(guard, "windowSize", 10);
+        ReflectionTestUtils.setField(guard, "minimumCalls", 2);
+        ReflectionTestUtils.setField(guard, "failureRateThreshold", 0.5);
+        ReflectionTestUtils.setField(guard, "openSeconds", 60L);
+        ReflectionTestUtils.setField(guard, "halfOpenCalls", 1);
+        ReflectionTestUtils.setField(guard, "browserlessMaxAttempts", 3);
+        ReflectionTestUtils.setField(guard, "probeMaxAttempts", 2);
+        ReflectionTestUtils.setField(guard, "budgetRatio", 0.0);
+        ReflectionTestUtils.setField(guard, "minRetries", 2);
+        ReflectionTestUtils.setField(guard, "baseBackoffMs", 1L);
+        ReflectionTestUtils.setField(guard, "maxBackoffMs", 1L);
+        guard.initBreakers();
+    }
+    
+    @Test
+    void transientProbeFailuresAreRetriedUntilTheBudgetIsSpent() {
+        for (int expectedCalls : List.of(2, 4, 5)) {
+            assertThatThrownBy(() -> guard.execute(DependencyGuard.Dependency.PROBE, this::timeOut))
+                .isInstanceOf(ResourceAccessException.class);
+            assertThat(calls.get()).isEqualTo(expectedCalls);
+        }
+    }
+    
+    @Test
+    void permanentFailuresAreNotRetried() {
+        assertThatThrownBy(() -> guard.execute(DependencyGuard.Dependency.PROBE, () -> {
+            calls.incrementAndGet();
+            throw new HttpClientErrorException(HttpStatus.NOT_FOUND);
+        })).isInstanceOf(HttpClientErrorException.class);
+        assertThat(calls.get()).isEqualTo(1);
+    }
+    
+    @Test
+    void breakerOpeningStopsFurtherRetries() {
+        assertThatThrownBy(() -> guard.execute(DependencyGuard.Dependency.BROWSERLESS, () -> {
+            calls.incrementAndGet();
+            throw new ResourceAccessException("refused", new ConnectException("Connection refused"));
+        })).isInstanceOf(DependencyGuard.CircuitOpenException.class);
+        
+        assertThat(calls.get()).isEqualTo(2);
+        assertThat(guard.isAvailable(DependencyGuard.Dependency.BROWSERLESS)).isFalse();
+        assertThat(guard.canSearch(SearchEngine.GOOGLE)).isFalse();
+    }
+    
+    @Test
+    void judgedCallsCountEmptyResultsButNotExceptions() {
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> guard.executeJudged(DependencyGuard.Dependency.GOOGLE, () -> {
+                throw new IllegalStateException("Browserless is down");
+            }, result -> true)).isInstanceOf(IllegalStateException.class);
+        }
+        assertThat(guard.canSearch(SearchEngine.GOOGLE)).isTrue();
+        
+        for (int i = 0; i < 2; i++) {
+            guard.executeJudged(DependencyGuard.Dependency.GOOGLE, () -> List.of(), results -> !results.isEmpty());
+        }
+        assertThat(guard.canSearch(SearchEngine.GOOGLE)).isFalse();
+        assertThat(guard.canSearch(SearchEngine.DUCKDUCKGO)).isTrue();
+        assertThatThrownBy(() -> guard.executeJudged(DependencyGuard.Dependency.GOOGLE, () -> {
+            calls.incrementAndGet();
+            return List.of();
+        }, results -> true)).isInstanceOf(DependencyGuard.CircuitOpenException.class);
+        assertThat(calls.get()).isZero();
+    }
+    
+    private Object timeOut() {
+        calls.incrementAndGet();
+        throw new ResourceAccessException("timed out", new SocketTimeoutException("Read timed out"));
+    }
+}
@@ -0,0 +1,113 @@
+package com.movielinks.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DnsResolverTest {
+    
+    private static final InetAddress[] ADDRESSES = { InetAddress.getLoopbackAddress() };
+    
+    private final AtomicInteger lookups = new AtomicInteger();
+    
+    private DnsResolver resolver;
+    
+    @AfterEach
+    void shutdown() {
+        if (resolver != null) {
+            resolver.shutdownLookupExecutor();
+        }
+    }
+    
+    @Test
+    void resolvableHostIsCached() {
+        resolver = resolver(host -> {
+            lookups.incrementAndGet();
+            return ADDRESSES;
+        }, 2000);
+        
+        assertThat(resolver.isResolvable("Movierulz.ms")).isTrue();
+        assertThat(resolver.isResolvable("movierulz.ms")).isTrue();
+        assertThat(lookups).hasValue(1);
+    }
+    
+    @Test
+    void unknownHostIsCachedForTheNegativeTtl() {
+        resolver = resolver(host -> {
+            lookups.incrementAndGet();
+            throw new UnknownHostException(host);
+        }, 2000);
+        
+        assertThat(resolver.isResolvable("gone.example")).isFalse();
+        assertThat(resolver.isResolvable("gone.example")).isFalse();
+        assertThat(lookups).hasValue(1);
+        
+        ReflectionTestUtils.setField(resolver, "negativeTtlSeconds", 0L);
+        assertThat(resolver.isResolvable("other.example")).isFalse();
+        assertThat(resolver.isResolvable("other.example")).isFalse();
+        assertThat(lookups).hasValue(3);
+    }
+    
+    @Test
+    void lookupThatTimesOutCountsAsUnresolvable() throws Exception {
+        CountDownLatch answer = new CountDownLatch(1);
+        resolver = resolver(host -> {
+            lookups.incrementAndGet();
+            try {
+                answer.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return ADDRESSES;
+        }, 100);
+        
+        long started = System.nanoTime();
+        assertThat(resolver.isResolvable("slow.example")).isFalse();
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)).isLessThan(1000);
+        
+        // The lookup still finishes in the background and fills the cache
+        answer.countDown();
+        long deadline = System.currentTimeMillis() + 2000;
+        while (resolver.size() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(resolver.isResolvable("slow.example")).isTrue();
+        assertThat(lookups).hasValue(1);
+    }
+    
+    @Test
+    void transientFailureIsNotCached() {
+        resolver = resolver(host -> {
+            if (lookups.incrementAndGet() == 1) {
+                throw new IllegalStateException("resolver unavailable");
+            }
+            return ADDRESSES;
+        }, 2000);
+        
+        assertThat(resolver.isResolvable("flaky.example")).isFalse();
+        assertThat(resolver.isResolvable("flaky.example")).isTrue();
+        assertThat(lookups).hasValue(2);
+    }
+    
+    private static DnsResolver resolver(HostLookup hostLookup, long timeoutMs) {
+        StaticListableBeanFactory beans = new StaticListableBeanFactory(Map.of("hostLookup", hostLookup));
+        DnsResolver resolver = new DnsResolver(beans.getBeanProvider(HostLookup.class));
+        ReflectionTestUtils.setField(resolver, "positiveTtlSeconds", 300L);
+        ReflectionTestUtils.setField(resolver, "negativeTtlSeconds", 60L);
+        ReflectionTestUtils.setField(resolver, "timeoutMs", timeoutMs);
+        ReflectionTestUtils.setField(resolver, "poolSize", 2);
+        ReflectionTestUtils.setField(resolver, "maxEntries", 100);
+        resolver.initLookupExecutor();
+        return resolver;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,34 @@
+package com.movielinks.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DomainCandidateGeneratorTest {
+    
+    @Test
+    void neighboursOfUsedTldsComeFirstAndKnownHostsAreSkipped() {
+        DomainCandidateGenerator generator = generator(List.of("xyz", "wiki", "tel", "com"));
+        
+        assertThat(generator.generateCandidates("Movierulz", List.of("https://www.movierulz.wiki/")))
+            .containsExactly("https://movierulz.tel", "https://movierulz.xyz", "https://movierulz.com");
+    }
+    
+    @Test
+    void withoutHistoryTheRotationListIsUsedInOrder() {
+        DomainCandidateGenerator generator = generator(List.of("xyz", ".wiki", " tel "));
+        
+        assertThat(generator.generateCandidates("movierulz", List.of()))
+            .containsExactly("https://movierulz.xyz", "https://movierulz.wiki", "https://movierulz.tel");
+    }
+    
+    private DomainCandidateGenerator generator(List<String> rotationTlds) {
+        DomainCandidateGenerator generator = new DomainCandidateGenerator(null);
+        ReflectionTestUtils.setField(generator, "rotationTlds", rotationTlds);
+        ReflectionTestUtils.setField(generator, "maxCandidates", 30);
+        return generator;
+    }
+}
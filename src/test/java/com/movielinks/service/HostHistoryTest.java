@@ -0,0 +1,26 @@
+package com.movielinks.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HostHistoryTest {
+    
+    @Test
+    void leastRecentlyUsedHostIsForgottenFirst() {
+        HostHistory history = new HostHistory();
+        ReflectionTestUtils.setField(history, "maxHosts", 2);
+        
+        history.recordSuccess("https://a.example/", 100);
+        history.recordFailure("https://b.example/");
+        // Ranking a looks it up, so b is now the least recently used
+        assertThat(history.get("a.example")).isNotNull();
+        history.recordSuccess("https://c.example/", 200);
+        
+        assertThat(history.size()).isEqualTo(2);
+        assertThat(history.get("b.example")).isNull();
+        assertThat(history.get("a.example").getSuccesses()).isEqualTo(1);
+        assertThat(history.get("c.example").getLastResponseTimeMs()).isEqualTo(200);
+    }
+}
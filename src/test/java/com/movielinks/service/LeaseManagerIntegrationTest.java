@@ -0,0 +1,107 @@
+package com.movielinks.service;
+
+import com.movielinks.MovieSiteSearchApplication;
+import com.movielinks.model.CheckResult;
+import com.movielinks.model.SchedulerLease;
+import com.movielinks.repository.CheckResultRepository;
+import com.movielinks.repository.SchedulerLeaseRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two instances sharing one database must split the site checks between them, never
+ * both checking the same site.
+ */
+class LeaseManagerIntegrationTest {
+    
+    @TempDir
+    Path dataDir;
+    
+    private final List<ConfigurableApplicationContext> contexts = new ArrayList<>();
+    
+    @AfterEach
+    void closeContexts() {
+        contexts.forEach(ConfigurableApplicationContext::close);
+    }
+    
+    @Test
+    void eachSiteIsCheckedByOneInstanceOnly() throws Exception {
+        String url = "jdbc:h2:file:" + dataDir.resolve("leases").toAbsolutePath();
+        CompletableFuture<ConfigurableApplicationContext> first = CompletableFuture.supplyAsync(() -> start(url, "node-a"));
+        CompletableFuture<ConfigurableApplicationContext> second = CompletableFuture.supplyAsync(() -> start(url, "node-b"));
+        contexts.add(first.get());
+        contexts.add(second.get());
+        
+        CheckResultRepository results = contexts.get(0).getBean(CheckResultRepository.class);
+        Map<String, Long> checksPerSite = awaitSettledChecks(results);
+        
+        assertThat(checksPerSite).isNotEmpty();
+        assertThat(checksPerSite).allSatisfy((site, checks) -> assertThat(checks).as(site).isEqualTo(1L));
+        
+        // Every site is held until its next check by exactly the instance that checked it
+        List<SchedulerLease> siteLeases = contexts.get(0).getBean(SchedulerLeaseRepository.class).findActive().stream()
+            .filter(lease -> lease.getName().startsWith("site:"))
+            .toList();
+        assertThat(siteLeases).hasSameSizeAs(checksPerSite.keySet());
+        assertThat(siteLeases).allSatisfy(lease -> assertThat(lease.getHolder()).isIn("node-a", "node-b"));
+        
+        long acquired = contexts.stream()
+            .mapToLong(context -> (Long) context.getBean(LeaseManager.class).getStatistics().get("acquired"))
+            .sum();
+        assertThat(acquired).isEqualTo(checksPerSite.size());
+    }
+    
+    /**
+     * Wait until no new check has been recorded for a while, then count the checks per site
+     */
+    private static Map<String, Long> awaitSettledChecks(CheckResultRepository results) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 60_000;
+        long lastCount = -1;
+        long stableSince = System.currentTimeMillis();
+        while (System.currentTimeMillis() < deadline) {
+            long count = results.count();
+            if (count != lastCount) {
+                lastCount = count;
+                stableSince = System.currentTimeMillis();
+            } else if (count > 0 && System.currentTimeMillis() - stableSince > 3_000) {
+                break;
+            }
+            Thread.sleep(200);
+        }
+        return results.findAll().stream()
+            .collect(Collectors.groupingBy(CheckResult::getSiteName, Collectors.counting()));
+    }
+    
+    private static ConfigurableApplicationContext start(String url, String nodeId) {
+        return new SpringApplicationBuilder(MovieSiteSearchApplication.class)
+            .web(WebApplicationType.NONE)
+            .properties(
+                "spring.datasource.url=" + url,
+                "spring.jpa.hibernate.ddl-auto=update",
+                "monitoring.cluster.node-id=" + nodeId,
+                "monitoring.cluster.heartbeat-ms=200",
+                "monitoring.cluster.leader-lease-seconds=2",
+                "monitoring.adaptive.tick-ms=200",
+                "monitoring.health-check.pool-size=2",
+                "monitoring.check-interval-ms=3600000",
+                "monitoring.stale-check-ms=3600000",
+                "movie-search.candidates.enabled=false",
+                // Nothing listens there, so every check fails fast without leaving the machine
+                "browserless.api.url=http://127.0.0.1:9",
+                "n8n.webhook.url=http://127.0.0.1:9")
+            .run();
+    }
+}
\ No newline at end of file
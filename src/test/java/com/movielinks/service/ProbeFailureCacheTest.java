@@ -0,0 +1,49 @@
+package com.movielinks.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringJUnitConfig(classes = ProbeFailureCache.class)
+class ProbeFailureCacheTest {
+    
+    @Autowired
+    private ProbeFailureCache failureCache;
+    
+    @Test
+    void malformedScrapedUrlIsSuppressedInsteadOfThrowing() {
+        String scraped = "https://broken.example/watch movie|2024";
+        
+        assertThat(failureCache.isSuppressed(scraped)).isFalse();
+        failureCache.recordFailure(scraped, ProbeFailureCache.FailureReason.CONNECT, "Connection refused");
+        
+        assertThat(failureCache.isSuppressed(scraped)).isTrue();
+        assertThat(failureCache.isSuppressed("https://broken.example/other")).isTrue();
+    }
+    
+    @Test
+    void originWithAndWithoutTheDefaultPortShareOneEntry() {
+        failureCache.recordFailure("https://origin.example:443/", ProbeFailureCache.FailureReason.TIMEOUT, "timed out");
+        
+        assertThat(failureCache.isSuppressed("https://origin.example/")).isTrue();
+        assertThat(failureCache.isSuppressed("http://origin.example/")).isFalse();
+    }
+    
+    @Test
+    void successClearsEveryEntryOfItsHostOnly() {
+        failureCache.recordFailure("https://recovered.example/a", ProbeFailureCache.FailureReason.HTTP_STATUS, "HTTP 404");
+        failureCache.recordFailure("https://recovered.example/b", ProbeFailureCache.FailureReason.CONNECT, "refused");
+        failureCache.recordFailure("https://still-down.example/", ProbeFailureCache.FailureReason.DNS, "no such host");
+        
+        failureCache.recordSuccess("https://recovered.example/");
+        
+        assertThat(failureCache.isSuppressed("https://recovered.example/a")).isFalse();
+        assertThat(failureCache.isSuppressed("https://recovered.example/b")).isFalse();
+        assertThat(failureCache.isSuppressed("https://still-down.example/")).isTrue();
+        
+        failureCache.recordFailure("https://recovered.example/a", ProbeFailureCache.FailureReason.HTTP_STATUS, "HTTP 404");
+        assertThat(failureCache.isSuppressed("https://recovered.example/a")).isTrue();
+    }
+}
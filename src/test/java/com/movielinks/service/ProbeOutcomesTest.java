@@ -0,0 +1,94 @@
+package com.movielinks.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.net.ConnectException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The blocking and reactive probes hand their answers and errors to {@link ProbeOutcomes},
+ * so the same response has to lead to the same decision whichever client produced it.
+ */
+@SpringJUnitConfig(classes = {ProbeOutcomes.class, ProbeFailureCache.class, HostHistory.class,
+    HedgePolicy.class, ContentVerifier.class})
+class ProbeOutcomesTest {
+    
+    @Autowired
+    private ProbeOutcomes outcomes;
+    
+    @Autowired
+    private ProbeFailureCache failureCache;
+    
+    @Autowired
+    private HostHistory hostHistory;
+    
+    @Test
+    void headSuccessIsAcceptedUnlessContentMustBeVerified() {
+        assertThat(outcomes.headAnswered("https://accepted.example/", HttpStatus.OK, 120, null))
+            .isEqualTo(ProbeOutcomes.HeadOutcome.ACCEPTED);
+        assertThat(hostHistory.getForUrl("https://accepted.example/").getLastResponseTimeMs()).isEqualTo(120);
+        
+        ContentFingerprint expected = new ContentFingerprint("movierulz watch movies online", null);
+        assertThat(outcomes.headAnswered("https://verify.example/", HttpStatus.OK, 120, expected))
+            .isEqualTo(ProbeOutcomes.HeadOutcome.VERIFY);
+        assertThat(hostHistory.getForUrl("https://verify.example/")).isNull();
+    }
+    
+    @Test
+    void rejectedHeadFallsBackToRangedGetForEitherClient() {
+        assertThat(outcomes.fallsBackToRangedGet("https://a.example/",
+            HttpClientErrorException.create(HttpStatus.METHOD_NOT_ALLOWED, "", null, null, null))).isTrue();
+        assertThat(outcomes.fallsBackToRangedGet("https://a.example/",
+            WebClientResponseException.create(405, "", null, null, null))).isTrue();
+            
+        assertThat(outcomes.fallsBackToRangedGet("https://a.example/",
+            WebClientResponseException.create(404, "", null, null, null))).isFalse();
+        assertThat(outcomes.fallsBackToRangedGet("https://a.example/", new ConnectException())).isFalse();
+    }
+    
+    @Test
+    void failureReasonIsTheSameForEitherClient() {
+        outcomes.failed("https://blocking.example/",
+            HttpClientErrorException.create(HttpStatus.NOT_FOUND, "", null, null, null));
+        outcomes.failed("https://reactive.example/", WebClientResponseException.create(404, "", null, null, null));
+        outcomes.failed("https://refused.example/", new ConnectException("Connection refused"));
+        
+        assertThat(failureCache.getActiveEntries())
+            .filteredOn(entry -> entry.get("host").equals("blocking.example") || entry.get("host").equals("reactive.example"))
+            .extracting(entry -> entry.get("detail"))
+            .containsExactly("HTTP 404", "HTTP 404");
+        assertThat(failureCache.isSuppressed("https://refused.example/")).isTrue();
+        assertThat(hostHistory.getForUrl("https://reactive.example/").getFailures()).isEqualTo(1);
+    }
+    
+    @Test
+    void contentMismatchIsRecordedAsAFailure() {
+        ContentFingerprint expected = new ContentFingerprint("movierulz watch movies online", null);
+        ContentFingerprint parked = new ContentFingerprint("this domain is for sale", null);
+        
+        assertThat(outcomes.rangedGetAnswered("https://parked.example/", parked, expected, 80)).isFalse();
+        assertThat(failureCache.isSuppressed("https://parked.example/")).isTrue();
+        
+        assertThat(outcomes.rangedGetAnswered("https://mirror.example/", expected, expected, 80)).isTrue();
+        assertThat(hostHistory.getForUrl("https://mirror.example/").getSuccesses()).isEqualTo(1);
+    }
+    
+    @Test
+    void verifiedSampleIsReusedOnceAsTheWinnersFingerprint() {
+        ContentFingerprint expected = new ContentFingerprint("movierulz watch movies online", null);
+        ContentFingerprint sampled = new ContentFingerprint("movierulz watch movies online free", 42L);
+        
+        assertThat(outcomes.rangedGetAnswered("https://sampled.example/", sampled, expected, 80)).isTrue();
+        assertThat(outcomes.takeSampledFingerprint("https://sampled.example/")).isEqualTo(sampled);
+        assertThat(outcomes.takeSampledFingerprint("https://sampled.example/")).isNull();
+        
+        outcomes.headAnswered("https://head-only.example/", HttpStatus.OK, 50, null);
+        assertThat(outcomes.takeSampledFingerprint("https://head-only.example/")).isNull();
+    }
+}
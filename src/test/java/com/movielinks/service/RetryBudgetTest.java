@@ -0,0 +1,51 @@
+package com.movielinks.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RetryBudgetTest {
+    
+    @Test
+    void startsWithMinRetriesAndIsExhaustedOnceTheyAreSpent() {
+        RetryBudget budget = new RetryBudget(0.2, 2, 100, 400);
+        
+        assertThat(budget.tryRetry()).isTrue();
+        assertThat(budget.tryRetry()).isTrue();
+        assertThat(budget.tryRetry()).isFalse();
+        assertThat(budget.getRetries()).isEqualTo(2);
+        assertThat(budget.getExhausted()).isEqualTo(1);
+    }
+    
+    @Test
+    void firstAttemptsEarnRetriesAtTheRatio() {
+        RetryBudget budget = new RetryBudget(0.2, 0, 100, 400);
+        for (int i = 0; i < 4; i++) {
+            budget.onFirstAttempt();
+        }
+        assertThat(budget.tryRetry()).isFalse();
+        
+        budget.onFirstAttempt();
+        assertThat(budget.tryRetry()).isTrue();
+    }
+    
+    @Test
+    void savedUpRetriesAreCapped() {
+        RetryBudget budget = new RetryBudget(0.5, 1, 100, 400);
+        for (int i = 0; i < 1000; i++) {
+            budget.onFirstAttempt();
+        }
+        
+        assertThat(budget.getBalance()).isEqualTo(50.0);
+    }
+    
+    @Test
+    void backoffIsJitteredUpToAnExponentialBound() {
+        RetryBudget budget = new RetryBudget(0.2, 1, 100, 400);
+        for (int i = 0; i < 100; i++) {
+            assertThat(budget.backoffMillis(1)).isBetween(0L, 100L);
+            assertThat(budget.backoffMillis(2)).isBetween(0L, 200L);
+            assertThat(budget.backoffMillis(10)).isBetween(0L, 400L);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.movielinks.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class SearchResultParserTest {
+    
+    private static final String BATCH = """
+        [{"term": "movierulz", "results": [
+            {"title": "Movierulz", "url": "https://movierulz.wiki/", "extra": {"nested": [1, 2]}},
+            {"title": "No link", "url": null},
+            {"title": "Mirror", "url": "https://www.movierulz.cam/"}]},
+         {"term": "blocked", "results": [], "error": "captcha"}]
+        """;
+    
+    private final SearchResultParser parser = new SearchResultParser(new ObjectMapper());
+    
+    @Test
+    void bodySplitMidTokenParsesLikeTheWholeStream() throws Exception {
+        Map<String, List<SearchResult>> streamed = parser.parseBatch(
+            new ByteArrayInputStream(BATCH.getBytes(StandardCharsets.UTF_8)), SearchEngine.GOOGLE);
+        Map<String, List<SearchResult>> chunked = parser.parseBatch(chunks(BATCH, 7), SearchEngine.GOOGLE).block();
+        
+        assertThat(chunked).isEqualTo(streamed);
+        assertThat(chunked.get("movierulz")).extracting(SearchResult::url, SearchResult::rank)
+            .containsExactly(
+                tuple("https://movierulz.wiki/", 1),
+                tuple("https://www.movierulz.cam/", 3));
+        assertThat(chunked.get("blocked")).isEmpty();
+    }
+    
+    @Test
+    void singleTermBodyIsNumberedByPosition() {
+        String body = "[{\"title\": \"A\", \"url\": \"https://a.example/\"}, 5, {\"url\": \"https://b.example/\"}]";
+        
+        assertThat(parser.parseResults(chunks(body, 3), SearchEngine.DUCKDUCKGO).block())
+            .extracting(SearchResult::host, SearchResult::rank)
+            .containsExactly(
+                tuple("a.example", 1),
+                tuple("b.example", 2));
+    }
+    
+    @Test
+    void bodyThatIsNotAnArrayHasNoResults() {
+        assertThat(parser.parseBatch(chunks("\"[{}]\"", 2), SearchEngine.GOOGLE).block()).isEmpty();
+    }
+    
+    private static Flux<DataBuffer> chunks(String body, int size) {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        List<DataBuffer> buffers = new ArrayList<>();
+        for (int i = 0; i < bytes.length; i += size) {
+            byte[] chunk = new byte[Math.min(size, bytes.length - i)];
+            System.arraycopy(bytes, i, chunk, 0, chunk.length);
+            buffers.add(DefaultDataBufferFactory.sharedInstance.wrap(chunk));
+        }
+        return Flux.fromIterable(buffers);
+    }
+}
@@ -0,0 +1,130 @@
+package com.movielinks.service;
+
+import com.movielinks.model.MovieSite;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SiteCheckSchedulerTest {
+    
+    private final SiteCheckScheduler scheduler = new SiteCheckScheduler();
+    
+    private Clock clock = Clock.fixed(Instant.parse("2026-01-01T00:00:00Z"), ZoneOffset.UTC);
+    
+    @BeforeEach
+    void configure() {
+        ReflectionTestUtils.setField(scheduler, "enabled", true);
+        ReflectionTestUtils.setField(scheduler, "minIntervalMinutes", 5L);
+        ReflectionTestUtils.setField(scheduler, "maxIntervalMinutes", 1440L);
+        ReflectionTestUtils.setField(scheduler, "defaultIntervalMinutes", 360L);
+        ReflectionTestUtils.setField(scheduler, "churnFraction", 0.25);
+        ReflectionTestUtils.setField(scheduler, "failureBackoffMinutes", 15L);
+        ReflectionTestUtils.setField(scheduler, "clock", clock);
+    }
+    
+    @Test
+    void workingIntervalIsAFractionOfTheDomainLifetime() {
+        assertThat(scheduler.workingInterval(site(1440.0, 60), now())).isEqualTo(Duration.ofMinutes(360));
+    }
+    
+    @Test
+    void domainOutlivingItsExpectedLifetimeIsCheckedLessOften() {
+        assertThat(scheduler.workingInterval(site(1440.0, 4000), now())).isEqualTo(Duration.ofMinutes(1000));
+    }
+    
+    @Test
+    void workingIntervalIsClamped() {
+        assertThat(scheduler.workingInterval(site(100000.0, 0), now())).isEqualTo(Duration.ofMinutes(1440));
+        assertThat(scheduler.workingInterval(site(4.0, 0), now())).isEqualTo(Duration.ofMinutes(5));
+    }
+    
+    @Test
+    void siteWithoutObservedChangesUsesTheDefaultUntilItsDomainIsOld() {
+        assertThat(scheduler.workingInterval(site(null, 60), now())).isEqualTo(Duration.ofMinutes(360));
+        assertThat(scheduler.workingInterval(site(null, 2880), now())).isEqualTo(Duration.ofMinutes(720));
+    }
+    
+    @Test
+    void failuresBackOffExponentiallyUpToTheDefaultInterval() {
+        assertThat(scheduler.failureInterval(1)).isEqualTo(Duration.ofMinutes(15));
+        assertThat(scheduler.failureInterval(2)).isEqualTo(Duration.ofMinutes(30));
+        assertThat(scheduler.failureInterval(3)).isEqualTo(Duration.ofMinutes(60));
+        assertThat(scheduler.failureInterval(6)).isEqualTo(Duration.ofMinutes(360));
+        assertThat(scheduler.failureInterval(100)).isEqualTo(Duration.ofMinutes(360));
+    }
+    
+    @Test
+    void domainChangeFeedsTheLifetimeAverage() {
+        MovieSite previous = site(null, 2880);
+        previous.setCurrentWorkingUrl("https://movierulz.xyz");
+        MovieSite current = new MovieSite("movierulz", "https://movierulz.wiki", List.of());
+        current.setStatus("WORKING");
+        
+        LocalDateTime nextCheckAt = scheduler.recordCheck("movierulz", previous, current);
+        
+        assertThat(current.getDomainLifetimeMinutes()).isEqualTo(2880.0);
+        assertThat(current.getDomainSince()).isEqualTo(now());
+        assertThat(nextCheckAt).isEqualTo(now().plusMinutes(720));
+        assertThat(current.getNextCheckAt()).isEqualTo(nextCheckAt);
+    }
+    
+    @Test
+    void deferredSiteIsPolledAgainOnceDue() {
+        scheduler.seed(List.of("movierulz", "moviezap"), List.of());
+        assertThat(scheduler.pollDue(10)).containsExactlyInAnyOrder("movierulz", "moviezap");
+        assertThat(scheduler.getInFlight()).isEqualTo(2);
+        
+        scheduler.defer("movierulz", now().plusMinutes(10));
+        scheduler.recordCheck("moviezap", null, null);
+        assertThat(scheduler.getInFlight()).isZero();
+        assertThat(scheduler.pollDue(10)).isEmpty();
+        
+        advance(Duration.ofMinutes(10));
+        assertThat(scheduler.pollDue(10)).containsExactly("movierulz");
+        
+        advance(Duration.ofMinutes(5));
+        assertThat(scheduler.pollDue(10)).containsExactly("moviezap");
+    }
+    
+    @Test
+    void storedScheduleSurvivesSeedingAndLongestUncheckedGoesFirst() {
+        MovieSite later = new MovieSite("movierulz", "https://movierulz.xyz", List.of());
+        later.setLastChecked(now().minusMinutes(30));
+        later.setNextCheckAt(now().plusMinutes(30));
+        MovieSite stale = new MovieSite("moviezap", "https://moviezap.tv", List.of());
+        stale.setLastChecked(now().minusMinutes(90));
+        stale.setNextCheckAt(now());
+        
+        scheduler.seed(List.of("movierulz", "moviezap", "ibomma"), List.of(later, stale));
+        
+        assertThat(scheduler.pollDue(1)).containsExactly("ibomma");
+        assertThat(scheduler.pollDue(10)).containsExactly("moviezap");
+        advance(Duration.ofMinutes(30));
+        assertThat(scheduler.pollDue(10)).containsExactly("movierulz");
+    }
+    
+    private MovieSite site(Double lifetimeMinutes, long domainAgeMinutes) {
+        MovieSite site = new MovieSite("movierulz", "https://movierulz.xyz", List.of());
+        site.setDomainLifetimeMinutes(lifetimeMinutes);
+        site.setDomainSince(now().minusMinutes(domainAgeMinutes));
+        return site;
+    }
+    
+    private LocalDateTime now() {
+        return LocalDateTime.now(clock);
+    }
+    
+    private void advance(Duration duration) {
+        clock = Clock.offset(clock, duration);
+        ReflectionTestUtils.setField(scheduler, "clock", clock);
+    }
+}
@@ -0,0 +1,90 @@
+package com.movielinks.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SiteHostMatcherTest {
+    
+    private static final List<String> SUPPORTED_SITES = List.of("movierulz", "moviezap", "tamilrockers", "filmywap",
+        "worldfree4u", "9xmovies", "khatrimaza", "bolly4u");
+    
+    private static final List<String> EXCLUDED_HOSTS = List.of("google.com", "youtube.com", "facebook.com",
+        "twitter.com", "instagram.com");
+    
+    private final SiteHostMatcher matcher = matcher(SUPPORTED_SITES);
+    
+    @Test
+    void everySupportedSiteMatchesItsOwnHosts() {
+        assertThat(matcher.classify("movierulz.wiki").sites()).containsExactly("movierulz");
+        assertThat(matcher.classify("moviezap.in").sites()).containsExactly("moviezap");
+        assertThat(matcher.classify("tamilrockers.ws").sites()).containsExactly("tamilrockers");
+        assertThat(matcher.classify("www.filmywap.com").sites()).containsExactly("filmywap");
+        assertThat(matcher.classify("worldfree4u.lol").sites()).containsExactly("worldfree4u");
+        assertThat(matcher.classify("9xmovies.yt").sites()).containsExactly("9xmovies");
+        assertThat(matcher.classify("KhatriMaza.org").sites()).containsExactly("khatrimaza");
+        assertThat(matcher.classify("bolly4u.trade").sites()).containsExactly("bolly4u");
+        
+        assertThat(matcher.matchesSite("moviezap.in", "Moviezap")).isTrue();
+        assertThat(matcher.matchesSite("moviezap.in", "movierulz")).isFalse();
+    }
+    
+    @Test
+    void nameMustEndALabelWithOnlyDigitsBeforeIt() {
+        assertThat(matcher.matchesSite("3movierulz.xyz", "movierulz")).isTrue();
+        assertThat(matcher.matchesSite("movierulz.proxy.net", "movierulz")).isTrue();
+        assertThat(matcher.matchesSite("mirror.movierulz.tv", "movierulz")).isTrue();
+        
+        assertThat(matcher.matchesSite("notmovierulz.com", "movierulz")).isFalse();
+        assertThat(matcher.matchesSite("movierulzhd.com", "movierulz")).isFalse();
+        assertThat(matcher.matchesSite("movierulz-hd.com", "movierulz")).isFalse();
+        assertThat(matcher.matchesSite("movierulz", "movierulz")).isFalse();
+        assertThat(matcher.classify("19xmovies.org").sites()).containsExactly("9xmovies");
+        assertThat(matcher.classify("a9xmovies.org").sites()).isEmpty();
+    }
+    
+    @Test
+    void sitesMissingFromTheRegistryUseTheSameLabelRule() {
+        assertThat(matcher.matchesSite("4hdhub.fans", "hdhub")).isTrue();
+        assertThat(matcher.matchesSite("myhdhub.fans", "hdhub")).isFalse();
+        assertThat(matcher.matchesSite("anything.com", "!!")).isFalse();
+    }
+    
+    @Test
+    void excludedHostsMatchThemselvesAndSubdomainsOnly() {
+        assertThat(matcher.isExcluded("youtube.com")).isTrue();
+        assertThat(matcher.isExcluded("m.YouTube.com")).isTrue();
+        assertThat(matcher.isExcluded("notyoutube.com")).isFalse();
+        assertThat(matcher.isExcluded("youtube.com.evil.net")).isFalse();
+        
+        SiteHostMatcher.Classification classification = matcher.classify("movierulz.google.com");
+        assertThat(classification.sites()).containsExactly("movierulz");
+        assertThat(classification.excluded()).isTrue();
+    }
+    
+    @Test
+    void overlappingPatternsAreAllReported() {
+        SiteHostMatcher overlapping = matcher(List.of("movierulz", "3movierulz", "rulz", "movie", "moviezap"));
+        
+        assertThat(overlapping.classify("3movierulz.xyz").sites()).containsExactlyInAnyOrder("movierulz", "3movierulz");
+        assertThat(overlapping.classify("movierulz.xyz").sites()).containsExactly("movierulz");
+        assertThat(overlapping.classify("moviezap.in").sites()).containsExactly("moviezap");
+        assertThat(overlapping.classify("movie.moviezap.in").sites()).containsExactlyInAnyOrder("movie", "moviezap");
+        assertThat(overlapping.classify("rulz.movierulz.cc").sites()).containsExactlyInAnyOrder("rulz", "movierulz");
+    }
+    
+    private static SiteHostMatcher matcher(List<String> supportedSites) {
+        MockEnvironment environment = new MockEnvironment();
+        for (int i = 0; i < supportedSites.size(); i++) {
+            environment.setProperty("movie-search.supported-sites[" + i + "]", supportedSites.get(i));
+        }
+        SiteHostMatcher matcher = new SiteHostMatcher(environment);
+        ReflectionTestUtils.setField(matcher, "excludedHosts", EXCLUDED_HOSTS);
+        ReflectionTestUtils.invokeMethod(matcher, "compile");
+        return matcher;
+    }
+}
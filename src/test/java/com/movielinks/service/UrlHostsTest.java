@@ -0,0 +1,44 @@
+package com.movielinks.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UrlHostsTest {
+    
+    @Test
+    void hostIsLowerCasedAndEndsBeforePortPathQueryOrFragment() {
+        assertThat(UrlHosts.hostOf("HTTPS://Movierulz.MS:8443/films")).isEqualTo("movierulz.ms");
+        assertThat(UrlHosts.hostOf("http://example.com?q=1")).isEqualTo("example.com");
+        assertThat(UrlHosts.hostOf("http://example.com#top")).isEqualTo("example.com");
+        assertThat(UrlHosts.hostOf("  https://example.com/  ")).isEqualTo("example.com");
+        assertThat(UrlHosts.hostOf("http://[::1]:8080/")).isEqualTo("[::1]");
+    }
+    
+    @Test
+    void urlsWithoutAnHttpHostHaveNone() {
+        assertThat(UrlHosts.hostOf(null)).isNull();
+        assertThat(UrlHosts.hostOf("ftp://example.com")).isNull();
+        assertThat(UrlHosts.hostOf("example.com/page")).isNull();
+        assertThat(UrlHosts.hostOf("https://")).isNull();
+        assertThat(UrlHosts.hostOf("https://user@example.com")).isNull();
+    }
+    
+    @Test
+    void originFillsInTheDefaultPortAndNeverThrows() {
+        assertThat(UrlHosts.originOf("https://Example.com/films")).isEqualTo("https://example.com:443");
+        assertThat(UrlHosts.originOf("https://example.com:443")).isEqualTo("https://example.com:443");
+        assertThat(UrlHosts.originOf("HTTP://example.com")).isEqualTo("http://example.com:80");
+        assertThat(UrlHosts.originOf("http://example.com:8080/x")).isEqualTo("http://example.com:8080");
+        assertThat(UrlHosts.originOf("https://example.com/movie name|2024")).isEqualTo("https://example.com:443");
+        assertThat(UrlHosts.originOf("https://example.com:/x")).isEqualTo("https://example.com:443");
+        assertThat(UrlHosts.originOf("not a url")).isNull();
+    }
+    
+    @Test
+    void domainDropsLeadingWww() {
+        assertThat(UrlHosts.domainOf("https://www.Movierulz.ms/")).isEqualTo("movierulz.ms");
+        assertThat(UrlHosts.domainOf("https://movierulz.ms/")).isEqualTo("movierulz.ms");
+        assertThat(UrlHosts.domainOf("not a url")).isNull();
+    }
+}
\ No newline at end of file
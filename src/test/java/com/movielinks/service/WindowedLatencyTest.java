@@ -0,0 +1,47 @@
+package com.movielinks.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WindowedLatencyTest {
+    
+    private final AtomicLong now = new AtomicLong();
+    
+    private final WindowedLatency latency = new WindowedLatency(Duration.ofMinutes(1), now::get);
+    
+    @Test
+    void oldSamplesAgeOutAfterTwoWindows() {
+        for (int i = 0; i < 20; i++) {
+            latency.record(1000);
+        }
+        advanceSeconds(61);
+        for (int i = 0; i < 20; i++) {
+            latency.record(100);
+        }
+        // The slow window is still the previous one
+        assertThat(latency.snapshot().getCount()).isEqualTo(40);
+        assertThat(latency.snapshot().percentile(95)).isGreaterThanOrEqualTo(1000);
+        
+        advanceSeconds(60);
+        latency.record(100);
+        assertThat(latency.snapshot().getCount()).isEqualTo(21);
+        assertThat(latency.snapshot().percentile(95)).isLessThan(110);
+    }
+    
+    @Test
+    void idleHostForgetsEverything() {
+        latency.record(500);
+        advanceSeconds(150);
+        
+        assertThat(latency.snapshot().getCount()).isZero();
+    }
+    
+    private void advanceSeconds(long seconds) {
+        now.addAndGet(TimeUnit.SECONDS.toNanos(seconds));
+    }
+}